@@ -0,0 +1,61 @@
+package chessBenchmarks;
+
+import chessEngine.Perft;
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.RectangularBoard;
+
+
+
+/**
+ * The fixed positions every benchmark runs on
+ */
+public final class BenchmarkPositions {
+
+	public static final String OPENING = "opening";
+	public static final String MIDDLEGAME = "middlegame";
+	public static final String ENDGAME = "endgame";
+
+	public static final String BIT_BOARD = "BitBoard";
+	public static final String RECTANGULAR_BOARD = "RectangularBoard";
+
+	private BenchmarkPositions() {
+	}
+
+	/**
+	 * Returns the FEN of a named position
+	 * @param name : OPENING, MIDDLEGAME or ENDGAME
+	 * @return String
+	 */
+	public static String getFen(String name) {
+		if (name.equals(OPENING)) {
+			return Perft.SUITE_POSITIONS[0];
+		} else if (name.equals(MIDDLEGAME)) {
+			return Perft.SUITE_POSITIONS[5];
+		} else if (name.equals(ENDGAME)) {
+			return Perft.SUITE_POSITIONS[2];
+		}
+		throw new IllegalArgumentException("Unknown position: " + name);
+	}
+
+	/**
+	 * Sets up a named position on a new board of the named type
+	 * @param name : OPENING, MIDDLEGAME or ENDGAME
+	 * @param boardType : BIT_BOARD or RECTANGULAR_BOARD
+	 * @return Board
+	 */
+	public static Board create(String name, String boardType) {
+		Board board;
+		if (boardType.equals(BIT_BOARD)) {
+			board = new BitBoard();
+		} else if (boardType.equals(RECTANGULAR_BOARD)) {
+			board = new RectangularBoard(8,8);
+		} else {
+			throw new IllegalArgumentException("Unknown board type: " + boardType);
+		}
+		Fen.load(board, getFen(name));
+		return board;
+	}
+
+}
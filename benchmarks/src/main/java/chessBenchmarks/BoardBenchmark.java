@@ -0,0 +1,129 @@
+package chessBenchmarks;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chessLayout.Board;
+import chessLayout.MoveList;
+import chessLayout.Piece;
+
+
+
+/**
+ * Measures the Board and Movement calls made for every move:
+ * move generation, per piece and for a whole side, Check and CheckMate tests, piece lists and updates
+ * Each call runs on every position and both board types
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	@Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+	public String position;
+
+	@Param({BenchmarkPositions.BIT_BOARD, BenchmarkPositions.RECTANGULAR_BOARD})
+	public String boardType;
+
+	private Board board;
+	private int side;
+	private ArrayList<Piece> pieces;
+	private MoveList moves = new MoveList();
+	// A piece of the side to move and an empty square it can move to
+	private Piece mover;
+	private Point from, to;
+	private Board.CheckListener listener = new Board.CheckListener() {
+		@Override
+		public void onCheck() {
+		}
+
+		@Override
+		public void onCheckMate() {
+		}
+	};
+
+	@Setup
+	public void setUp() {
+		board = BenchmarkPositions.create(position, boardType);
+		side = board.getSideToMove();
+		pieces = board.getPlayerPieces(side);
+		for (Piece piece:pieces) {
+			for (Point point:piece.getValidMoveLocations(true)) {
+				if (mover == null && board.getPiece(point) == null) {
+					mover = piece;
+					from = new Point(piece.getLocation());
+					to = point;
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void validMoveLocationsSafe(Blackhole blackhole) {
+		for (Piece piece:pieces) {
+			blackhole.consume(piece.getValidMoveLocations(true));
+		}
+	}
+
+	@Benchmark
+	public void validMoveLocationsUnsafe(Blackhole blackhole) {
+		for (Piece piece:pieces) {
+			blackhole.consume(piece.getValidMoveLocations(false));
+		}
+	}
+
+	@Benchmark
+	public MoveList generateMoves() {
+		board.generateMoves(side, moves);
+		return moves;
+	}
+
+	@Benchmark
+	public boolean check() {
+		// Whether the side to move gives Check, as tested after each of its moves
+		return board.check(side);
+	}
+
+	@Benchmark
+	public boolean checkMate() {
+		return board.checkMate(side ^ 1);
+	}
+
+	@Benchmark
+	public ArrayList<Piece> getPlayerPieces() {
+		return board.getPlayerPieces(side);
+	}
+
+	@Benchmark
+	public Piece updateWithListener() {
+		board.setCheckListener(listener);
+		board.update(from, to, mover, true);
+		board.update(to, from, mover, true);
+		return mover;
+	}
+
+	@Benchmark
+	public Piece updateWithoutListener() {
+		board.setCheckListener(null);
+		board.update(from, to, mover, false);
+		board.update(to, from, mover, false);
+		return mover;
+	}
+
+}
@@ -0,0 +1,115 @@
+package chessBenchmarks;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chessEngine.Evaluator;
+import chessEngine.MaterialEvaluator;
+import chessEngine.Network;
+import chessEngine.NeuralEvaluator;
+import chessEngine.PieceSquareEvaluator;
+import chessLayout.Board;
+import chessLayout.MoveList;
+
+
+
+/**
+ * Measures the cost of an evaluation as a search pays it: a move is made,
+ * the position is evaluated and the move is taken back, so incremental
+ * evaluators are charged for following the board
+ * The neural evaluator loads the network named by the system property
+ * chess.network, or uses random weights of the usual sizes, which cost the same
+ * The fork adds the Vector API module, without which Network falls back to
+ * plain loops
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class EvaluatorBenchmark {
+
+	public static final String MATERIAL = "material";
+	public static final String PIECE_SQUARE = "pieceSquare";
+	public static final String NEURAL = "neural";
+
+	@Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+	public String position;
+
+	@Param({MATERIAL, PIECE_SQUARE, NEURAL})
+	public String evaluatorType;
+
+	private Board board;
+	private Evaluator evaluator;
+	private MoveList moves = new MoveList();
+	private int next = 0;
+
+	@Setup
+	public void setUp() throws IOException {
+		board = BenchmarkPositions.create(position, BenchmarkPositions.BIT_BOARD);
+		board.generateMoves(board.getSideToMove(), moves);
+		if (evaluatorType.equals(MATERIAL)) {
+			evaluator = new MaterialEvaluator();
+		} else if (evaluatorType.equals(PIECE_SQUARE)) {
+			evaluator = new PieceSquareEvaluator();
+		} else if (evaluatorType.equals(NEURAL)) {
+			String file = System.getProperty("chess.network");
+			evaluator = new NeuralEvaluator(file != null ? Network.load(new File(file)) : createRandomNetwork(256, 32, 32));
+		} else {
+			throw new IllegalArgumentException("Unknown evaluator: " + evaluatorType);
+		}
+	}
+
+	@Benchmark
+	public int makeEvaluateUnmake() {
+		board.makeMove(moves.get(next));
+		next = (next + 1) % moves.size();
+		int score = evaluator.evaluate(board, board.getSideToMove());
+		board.unmakeMove();
+		return score;
+	}
+
+	/**
+	 * Returns a network of random weights, to time one without a trained file
+	 * @param hidden
+	 * @param layer1
+	 * @param layer2
+	 * @return Network
+	 */
+	public static Network createRandomNetwork(int hidden, int layer1, int layer2) {
+		Random random = new Random(1);
+		short[] featureWeights = new short[Network.INPUTS * hidden];
+		for (int i = 0; i < featureWeights.length; i++) {
+			featureWeights[i] = (short) (random.nextInt(33) - 16);
+		}
+		short[] featureBiases = new short[hidden];
+		byte[] layer1Weights = randomBytes(random, 2 * hidden * layer1);
+		byte[] layer2Weights = randomBytes(random, layer1 * layer2);
+		byte[] outputWeights = randomBytes(random, layer2);
+		return new Network(hidden, featureWeights, featureBiases, layer1Weights, new int[layer1],
+				layer2Weights, new int[layer2], outputWeights, 0, 16);
+	}
+
+	private static byte[] randomBytes(Random random, int length) {
+		byte[] values = new byte[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = (byte) (random.nextInt(256) - 128);
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,54 @@
+package chessBenchmarks;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chessEngine.Perft;
+import chessLayout.Board;
+
+
+
+/**
+ * Measures whole move generation, make and unmake through a perft
+ * of fixed depth, the throughput figure to compare between releases
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+	@Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+	public String position;
+
+	@Param({BenchmarkPositions.BIT_BOARD})
+	public String boardType;
+
+	@Param({"3"})
+	public int depth;
+
+	private Board board;
+
+	@Setup
+	public void setUp() {
+		board = BenchmarkPositions.create(position, boardType);
+	}
+
+	@Benchmark
+	public long perft() {
+		return Perft.perft(board, depth);
+	}
+
+}
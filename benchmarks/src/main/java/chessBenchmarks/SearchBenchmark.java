@@ -0,0 +1,93 @@
+package chessBenchmarks;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chessEngine.Search;
+import chessEngine.SearchOptions;
+import chessLayout.Board;
+
+
+
+/**
+ * Measures a search of fixed depth with each selective part of
+ * Search on its own, none of them, and all of them, see SearchOptions
+ * Every invocation starts from an empty table, so the times compare
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	public static final String NONE = "none";
+	public static final String PVS = "pvs";
+	public static final String NULL_MOVE = "nullMove";
+	public static final String LMR = "lmr";
+	public static final String FUTILITY = "futility";
+	public static final String ALL = "all";
+
+	@Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+	public String position;
+
+	@Param({NONE, PVS, NULL_MOVE, LMR, FUTILITY, ALL})
+	public String options;
+
+	@Param({"6"})
+	public int depth;
+
+	private Board board;
+	private Search search;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		board = BenchmarkPositions.create(position, BenchmarkPositions.BIT_BOARD);
+		search = new Search();
+		search.setOptions(createOptions(options));
+	}
+
+	/**
+	 * Returns the options of a named configuration
+	 * Null-move and futility pruning are measured with principal
+	 * variation search, as they only act in null-window searches
+	 * @param name
+	 * @return SearchOptions
+	 */
+	public static SearchOptions createOptions(String name) {
+		if (name.equals(ALL)) {
+			return new SearchOptions();
+		}
+		SearchOptions options = SearchOptions.none();
+		if (name.equals(PVS)) {
+			options.setPrincipalVariationSearch(true);
+		} else if (name.equals(NULL_MOVE)) {
+			options.setPrincipalVariationSearch(true).setNullMovePruning(true);
+		} else if (name.equals(LMR)) {
+			options.setLateMoveReductions(true);
+		} else if (name.equals(FUTILITY)) {
+			options.setPrincipalVariationSearch(true).setFutilityPruning(true);
+		} else if (!name.equals(NONE)) {
+			throw new IllegalArgumentException("Unknown options: " + name);
+		}
+		return options;
+	}
+
+	@Benchmark
+	public int search() {
+		return search.search(board, board.getSideToMove(), depth).getBestMove();
+	}
+
+}
@@ -0,0 +1,20 @@
+package chessEngine;
+
+import chessLayout.Board;
+
+
+
+/**
+ * Scores positions for the search
+ */
+public interface Evaluator {
+
+	/**
+	 * Scores the position from the given player's point of view
+	 * @param board
+	 * @param player
+	 * @return int : Centipawns, positive if the player stands better
+	 */
+	public int evaluate(Board board, int player);
+
+}
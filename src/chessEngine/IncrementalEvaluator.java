@@ -0,0 +1,69 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+
+
+
+/**
+ * Evaluator that keeps running totals as the board changes, through
+ * Board.PositionListener, so that evaluate need not look at the pieces
+ * The first evaluation of a board makes this its listener and counts every
+ * piece once through pieceAdded; the board followed before is let go
+ * A board's listener should not be changed while its evaluator is in use
+ * One evaluator follows one board at a time, so each search thread needs its own
+ */
+public abstract class IncrementalEvaluator implements Evaluator, Board.PositionListener {
+
+	// Board whose changes the totals follow
+	private Board board;
+
+	@Override
+	public int evaluate(Board board, int player) {
+		if (board != this.board || board.getPositionListener() != this) {
+			follow(board);
+		}
+		return score(board, player);
+	}
+
+	/**
+	 * Scores the position from the running totals
+	 * @param board : The board followed, for anything not kept in the totals
+	 * @param player
+	 * @return int : Centipawns, positive if the player stands better
+	 */
+	protected abstract int score(Board board, int player);
+
+	/**
+	 * Empties the running totals, before every piece is added again
+	 */
+	protected abstract void reset();
+
+	/**
+	 * Starts following the given board
+	 * @param board
+	 */
+	private void follow(Board board) {
+		if (this.board != null && this.board.getPositionListener() == this) {
+			this.board.setPositionListener(null);
+		}
+		this.board = board;
+		board.setPositionListener(this);
+		count(board);
+	}
+
+	/**
+	 * Recomputes the running totals from every piece on the board
+	 * @param board
+	 */
+	protected void count(Board board) {
+		reset();
+		for (int player = 0; player < 2; player++) {
+			for (int i = 0; i < board.getPieceCount(player); i++) {
+				Piece piece = board.getPlayerPiece(player, i);
+				pieceAdded(piece, piece.getX(), piece.getY());
+			}
+		}
+	}
+
+}
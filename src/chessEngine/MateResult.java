@@ -0,0 +1,101 @@
+package chessEngine;
+
+import chessLayout.Move;
+
+
+
+/**
+ * Outcome of a MateSolver: a forced mate with its line, proof that there
+ * is no mate by checks alone in the number of moves asked, or neither
+ * within the node budget
+ */
+public class MateResult {
+
+	public static final int UNKNOWN = 0;
+	// The side to move mates, see getLine
+	public static final int MATE = 1;
+	// The side to move cannot force mate by checking on every move in the number
+	// of moves asked; a mate with a quiet move on the way may still exist
+	public static final int NO_CHECKING_MATE = 2;
+
+	private final int status;
+	private final int[] line;
+	private final int moves;
+	private final long nodes;
+	private final long nanos;
+
+	/**
+	 * Constructor
+	 * @param status : One of the constants
+	 * @param line : The mating line, empty unless a mate was found
+	 * @param moves : Moves of the side to move searched for
+	 * @param nodes : Positions kept in the proof tree, summed over every try
+	 * @param nanos : Time taken
+	 */
+	public MateResult(int status, int[] line, int moves, long nodes, long nanos) {
+		this.status = status;
+		this.line = line;
+		this.moves = moves;
+		this.nodes = nodes;
+		this.nanos = nanos;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public boolean isMate() {
+		return status == MATE;
+	}
+
+	/**
+	 * Returns the mating line: a move of the side to move, the longest defence,
+	 * and so on, ending with the mating move
+	 * @return int[] : Packed by chessLayout.Move, empty unless isMate()
+	 */
+	public int[] getLine() {
+		return line.clone();
+	}
+
+	/**
+	 * Returns the number of moves to mate
+	 * @return int : 0 unless isMate()
+	 */
+	public int getMateIn() {
+		return (line.length + 1) / 2;
+	}
+
+	/**
+	 * Returns the number of moves searched for: the mate found
+	 * or the longest mate by checks shown not to exist
+	 * @return int
+	 */
+	public int getMoves() {
+		return moves;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getTimeMillis() {
+		return nanos / 1000000;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		if (status == MATE) {
+			text.append("mate in ").append(getMateIn());
+			for (int move:line) {
+				text.append(' ').append(Move.toString(move));
+			}
+		} else if (status == NO_CHECKING_MATE) {
+			text.append("no checking mate in ").append(moves);
+		} else {
+			text.append("unknown after mate in ").append(moves);
+		}
+		return text.append(" nodes ").append(nodes).toString();
+	}
+
+}
@@ -0,0 +1,273 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.MoveList;
+
+
+
+/**
+ * Looks for a forced mate by the side to move with proof-number search
+ * The side to move (the attacker) only plays checks, the defender every
+ * legal move; a defender to move without a legal move while in check is
+ * mated, without one otherwise is stalemated
+ *
+ * Every position of the tree has a proof number, the fewest positions still
+ * to prove mated to prove it mates, and a disproof number, the fewest still
+ * to show escaping to disprove it. Each step walks from the root to the
+ * most-proving position (fewest proofs on the attacker's moves, fewest
+ * disproofs on the defender's), adds its moves to the tree, and updates the
+ * numbers on the way back, until the root is proved or disproved
+ * A new defender position starts with its number of replies as proof
+ * number, so that the search goes for the checks leaving fewest
+ *
+ * The tree is kept in arrays of the node budget's size and never grows beyond
+ * Mates of 1, 2, ... N moves are tried in turn, so the mate found is the
+ * shortest by checks alone
+ */
+public class MateSolver {
+
+	// Larger than any sum of proof numbers within the budget
+	private static final int INFINITY = 1 << 28;
+	private static final int NO_CHILD = -1;
+
+	private final int budget;
+	// Node arrays: the move leading to the node from its parent, its children,
+	// which lie next to each other, and its proof and disproof numbers
+	private final int[] moves;
+	private final int[] parents;
+	private final int[] firstChildren;
+	private final int[] childCounts;
+	private final int[] proofs;
+	private final int[] disproofs;
+	private int nodeCount;
+	private final MoveList moveList = new MoveList();
+	private final MoveList replies = new MoveList();
+
+	/**
+	 * Constructor
+	 * @param budget : Most positions kept in the tree, at least 1
+	 */
+	public MateSolver(int budget) {
+		if (budget < 1) {
+			throw new IllegalArgumentException("Budget must be at least 1 node: " + budget);
+		}
+		this.budget = budget;
+		moves = new int[budget];
+		parents = new int[budget];
+		firstChildren = new int[budget];
+		childCounts = new int[budget];
+		proofs = new int[budget];
+		disproofs = new int[budget];
+	}
+
+	/**
+	 * Looks for a mate in at most the given number of moves by the side to move
+	 * Only mates where every move of the side to move gives check are found:
+	 * NO_CHECKING_MATE does not rule out a mate starting with a quiet move
+	 * The board is left as it was given
+	 * @param board
+	 * @param maxMoves : Moves of the side to move, the mating one included
+	 * @return MateResult
+	 */
+	public MateResult solve(Board board, int maxMoves) {
+		long start = System.nanoTime();
+		long totalNodes = 0;
+		for (int mateIn = 1; mateIn <= maxMoves; mateIn++) {
+			int status = prove(board, mateIn);
+			totalNodes += nodeCount;
+			if (status == MateResult.MATE) {
+				return new MateResult(status, line(), mateIn, totalNodes, System.nanoTime() - start);
+			}
+			if (status == MateResult.UNKNOWN) {
+				return new MateResult(status, new int[0], mateIn, totalNodes, System.nanoTime() - start);
+			}
+		}
+		return new MateResult(MateResult.NO_CHECKING_MATE, new int[0], maxMoves, totalNodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Builds the proof tree of a mate in the given number of moves
+	 * @param board
+	 * @param mateIn
+	 * @return int : A MateResult status
+	 */
+	private int prove(Board board, int mateIn) {
+		// The defender must be mated before the attacker's moves run out
+		int lastPly = 2 * mateIn - 1;
+		nodeCount = 1;
+		firstChildren[0] = NO_CHILD;
+		proofs[0] = 1;
+		disproofs[0] = 1;
+		while (proofs[0] != 0 && disproofs[0] != 0) {
+			int node = 0, ply = 0;
+			while (firstChildren[node] != NO_CHILD) {
+				node = select(node, ply % 2 == 0);
+				board.makeMove(moves[node]);
+				ply++;
+			}
+			boolean expanded = expand(board, node, ply, lastPly);
+			while (node != 0) {
+				update(node, ply % 2 == 0);
+				board.unmakeMove();
+				node = parents[node];
+				ply--;
+			}
+			if (!expanded) {
+				return MateResult.UNKNOWN;
+			}
+			update(0, true);
+		}
+		return proofs[0] == 0 ? MateResult.MATE : MateResult.NO_CHECKING_MATE;
+	}
+
+	/**
+	 * Returns the most-proving child of a node
+	 * @param node
+	 * @param attacking : If the attacker is to move
+	 * @return int
+	 */
+	private int select(int node, boolean attacking) {
+		int[] numbers = attacking ? proofs : disproofs;
+		int best = firstChildren[node];
+		for (int child = best + 1; child < firstChildren[node] + childCounts[node]; child++) {
+			if (numbers[child] < numbers[best]) {
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds the moves of a leaf to the tree and scores each new position
+	 * @param board : At the leaf
+	 * @param node
+	 * @param ply : Of the leaf, even if the attacker is to move
+	 * @param lastPly : Ply of the defender's last chance to be mated
+	 * @return boolean : False if the budget ran out, the leaf is then left alone
+	 */
+	private boolean expand(Board board, int node, int ply, int lastPly) {
+		int player = board.getSideToMove();
+		boolean attacking = ply % 2 == 0;
+		board.generateMoves(player, moveList);
+		if (nodeCount + moveList.size() > budget) {
+			return false;
+		}
+		int first = nodeCount;
+		for (int i = 0; i < moveList.size(); i++) {
+			int move = moveList.get(i);
+			board.makeMove(move);
+			if (attacking && !board.check(player)) {
+				board.unmakeMove();
+				continue;
+			}
+			int child = nodeCount++;
+			moves[child] = move;
+			parents[child] = node;
+			firstChildren[child] = NO_CHILD;
+			childCounts[child] = 0;
+			if (attacking) {
+				score(board, child, ply + 1 == lastPly);
+			} else {
+				proofs[child] = 1;
+				disproofs[child] = 1;
+			}
+			board.unmakeMove();
+		}
+		firstChildren[node] = first;
+		childCounts[node] = nodeCount - first;
+		update(node, attacking);
+		return true;
+	}
+
+	/**
+	 * Scores a new position with the defender to move
+	 * @param board : At the position
+	 * @param node
+	 * @param last : If the attacker has no move left after this
+	 */
+	private void score(Board board, int node, boolean last) {
+		int defender = board.getSideToMove();
+		board.generateMoves(defender, replies);
+		if (replies.size() == 0 && board.check(defender ^ 1)) {
+			proofs[node] = 0;
+			disproofs[node] = INFINITY;
+		} else if (replies.size() == 0 || last) {
+			proofs[node] = INFINITY;
+			disproofs[node] = 0;
+		} else {
+			proofs[node] = replies.size();
+			disproofs[node] = 1;
+		}
+	}
+
+	/**
+	 * Recomputes a node's numbers from its children, if it has any
+	 * Where the attacker is to move the node is proved by any child and
+	 * disproved by all; where the defender is, the other way round
+	 * @param node
+	 * @param attacking : If the attacker is to move at the node
+	 */
+	private void update(int node, boolean attacking) {
+		if (firstChildren[node] == NO_CHILD) {
+			return;
+		}
+		int least = INFINITY, sum = 0;
+		int[] anyOf = attacking ? proofs : disproofs;
+		int[] allOf = attacking ? disproofs : proofs;
+		for (int child = firstChildren[node]; child < firstChildren[node] + childCounts[node]; child++) {
+			least = Math.min(least, anyOf[child]);
+			sum = Math.min(INFINITY, sum + allOf[child]);
+		}
+		anyOf[node] = least;
+		allOf[node] = sum;
+	}
+
+	/**
+	 * Reads the mating line off a proved tree: the attacker's quickest
+	 * mate against the defender's longest defence
+	 * @return int[]
+	 */
+	private int[] line() {
+		int[] line = new int[length(0, true)];
+		int node = 0;
+		boolean attacking = true;
+		for (int i = 0; i < line.length; i++) {
+			int best = NO_CHILD, bestLength = 0;
+			for (int child = firstChildren[node]; child < firstChildren[node] + childCounts[node]; child++) {
+				if (proofs[child] != 0) {
+					continue;
+				}
+				int length = length(child, !attacking);
+				if (best == NO_CHILD || (attacking ? length < bestLength : length > bestLength)) {
+					best = child;
+					bestLength = length;
+				}
+			}
+			line[i] = moves[best];
+			node = best;
+			attacking = !attacking;
+		}
+		return line;
+	}
+
+	/**
+	 * Returns the number of plies to mate from a proved node
+	 * @param node
+	 * @param attacking : If the attacker is to move at the node
+	 * @return int
+	 */
+	private int length(int node, boolean attacking) {
+		if (firstChildren[node] == NO_CHILD) {
+			return 0;
+		}
+		int result = attacking ? INFINITY : 0;
+		for (int child = firstChildren[node]; child < firstChildren[node] + childCounts[node]; child++) {
+			if (proofs[child] == 0) {
+				int length = length(child, !attacking) + 1;
+				result = attacking ? Math.min(result, length) : Math.max(result, length);
+			}
+		}
+		return result;
+	}
+
+}
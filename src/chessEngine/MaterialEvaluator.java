@@ -0,0 +1,42 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+import chessLayout.PieceType;
+
+
+
+/**
+ * Scores a position by counting material only
+ */
+public class MaterialEvaluator implements Evaluator {
+
+	// Centipawns, indexed by PieceType ordinal; the King is never captured
+	public static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+	@Override
+	public int evaluate(Board board, int player) {
+		return material(board, player) - material(board, player ^ 1);
+	}
+
+	/**
+	 * Returns the total value of one player's pieces
+	 * Pieces of unknown types count for nothing
+	 * @param board
+	 * @param player
+	 * @return int
+	 */
+	public static int material(Board board, int player) {
+		int total = 0;
+		for (int i = 0; i < board.getPieceCount(player); i++) {
+			total += valueOf(board.getPlayerPiece(player, i));
+		}
+		return total;
+	}
+
+	public static int valueOf(Piece piece) {
+		PieceType type = piece.getPieceType();
+		return type == null ? 0 : PIECE_VALUES[type.ordinal()];
+	}
+
+}
@@ -0,0 +1,114 @@
+package chessEngine;
+import java.util.Arrays;
+
+import chessLayout.Move;
+
+
+
+/**
+ * What a search has learned about quiet moves (moves that take nothing
+ * and do not promote), used by MovePicker to try good ones first
+ * Killer moves: the last two quiet moves that caused a cutoff at each ply,
+ * as the same move often refutes the other moves of its siblings
+ * History: for each player, piece type and destination, a score raised
+ * by cutoffs and lowered by moves tried before a cutoff that failed
+ * Not shared between threads, each Search has its own
+ */
+public class MoveHistory {
+
+	// Scores stay well below the killer and capture scores of MovePicker
+	public static final int MAX_SCORE = 1 << 20;
+	private static final int PIECE_TYPES = 6;
+	// Destinations packed as x | y << 6, as in Move
+	private static final int CELLS = 1 << 12;
+
+	private final int[][] killers;
+	// history[player][type * CELLS + cell]
+	private final int[][] history = new int[2][PIECE_TYPES * CELLS];
+
+	/**
+	 * Constructor
+	 * @param maxPly : Deepest ply killers are kept for
+	 */
+	public MoveHistory(int maxPly) {
+		killers = new int[maxPly][2];
+	}
+
+	/**
+	 * Returns a killer move of the given ply
+	 * @param ply
+	 * @param slot : 0 for the most recent, 1 for the one before
+	 * @return int : Move.NONE if there is none
+	 */
+	public int getKiller(int ply, int slot) {
+		return killers[ply][slot];
+	}
+
+	/**
+	 * Remembers a quiet move that caused a cutoff at the given ply
+	 * @param ply
+	 * @param move
+	 */
+	public void addKiller(int ply, int move) {
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+	}
+
+	/**
+	 * Returns the history score of a quiet move
+	 * @param player
+	 * @param type : PieceType ordinal of the moving piece
+	 * @param move
+	 * @return int : Between -MAX_SCORE and MAX_SCORE
+	 */
+	public int getScore(int player, int type, int move) {
+		return history[player][index(type, move)];
+	}
+
+	/**
+	 * Moves the history score of a quiet move towards MAX_SCORE or -MAX_SCORE
+	 * The nearer the score already is to the limit, the smaller the step,
+	 * so scores never leave the range and recent results weigh the most
+	 * @param player
+	 * @param type : PieceType ordinal of the moving piece
+	 * @param move
+	 * @param bonus : Positive after a cutoff, negative for a move that failed
+	 */
+	public void update(int player, int type, int move, int bonus) {
+		bonus = Math.max(-MAX_SCORE, Math.min(MAX_SCORE, bonus));
+		int index = index(type, move);
+		int score = history[player][index];
+		history[player][index] = score + bonus - (int) ((long) score * Math.abs(bonus) / MAX_SCORE);
+	}
+
+	/**
+	 * Prepares for a new search: forgets the killers, whose plies no longer
+	 * match, and halves the history so that new results soon outweigh it
+	 */
+	public void age() {
+		for (int[] pair:killers) {
+			pair[0] = pair[1] = Move.NONE;
+		}
+		for (int[] scores:history) {
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] /= 2;
+			}
+		}
+	}
+
+	public void clear() {
+		for (int[] pair:killers) {
+			pair[0] = pair[1] = Move.NONE;
+		}
+		for (int[] scores:history) {
+			Arrays.fill(scores, 0);
+		}
+	}
+
+	private static int index(int type, int move) {
+		return type * CELLS + (Move.getToX(move) | Move.getToY(move) << 6);
+	}
+
+}
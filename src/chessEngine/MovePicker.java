@@ -0,0 +1,168 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.Move;
+import chessLayout.MoveList;
+import chessLayout.Piece;
+import chessLayout.PieceType;
+
+
+
+/**
+ * Hands out the moves of a position best first, for the search to try in turn
+ * Order: the hash move, then captures and Queen promotions by most valuable
+ * victim and least valuable attacker (MVV-LVA), then the killer moves,
+ * then the other quiet moves by history score, then underpromotions
+ * Moves are scored once but sorted lazily: each call to next selects the
+ * best of those left, so the moves after a cutoff are never sorted
+ * One picker is used per ply and reused from one position to the next
+ */
+public class MovePicker {
+
+	private static final int HASH_SCORE = 1 << 30;
+	private static final int CAPTURE_SCORE = 1 << 28;
+	private static final int KILLER_SCORE = 1 << 27;
+	private static final int UNDERPROMOTION_SCORE = -(1 << 28);
+	// Victims are worth more than any difference between attackers
+	private static final int VICTIM_WEIGHT = 8;
+
+	private MoveList moves;
+	private int[] scores = new int[MoveList.DEFAULT_CAPACITY];
+	private boolean[] quiet = new boolean[MoveList.DEFAULT_CAPACITY];
+	// Moves before this index have been handed out
+	private int next;
+
+	/**
+	 * Scores the given moves and starts handing them out
+	 * Moves are reordered within the list as they are selected
+	 * @param board : The position the moves are for
+	 * @param moves
+	 * @param hashMove : Best move found earlier, Move.NONE if there is none
+	 * @param history : Killers and history of the searching thread
+	 * @param ply : Ply of the position, for the killers
+	 */
+	public void init(Board board, MoveList moves, int hashMove, MoveHistory history, int ply) {
+		this.moves = moves;
+		next = 0;
+		if (scores.length < moves.size()) {
+			scores = new int[moves.size()];
+			quiet = new boolean[moves.size()];
+		}
+		int player = board.getSideToMove();
+		int killer = history.getKiller(ply, 0), secondKiller = history.getKiller(ply, 1);
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int attacker = typeOf(board.getPiece(Move.getFromX(move), Move.getFromY(move)));
+			int victim = captureOf(board, move, attacker);
+			int promotion = Move.getFlags(move);
+			quiet[i] = victim < 0 && promotion == Move.NONE;
+			if (move == hashMove) {
+				scores[i] = HASH_SCORE;
+			} else if (promotion != Move.NONE && promotion != Move.PROMOTE_QUEEN) {
+				scores[i] = UNDERPROMOTION_SCORE + promotion;
+			} else if (!quiet[i]) {
+				// A Queen promotion wins about as much as taking a Queen
+				int gain = Math.max(victim, 0) + (promotion == Move.PROMOTE_QUEEN ? PieceType.QUEEN.ordinal() : 0);
+				scores[i] = CAPTURE_SCORE + gain * VICTIM_WEIGHT - Math.max(attacker, 0);
+			} else if (move == killer) {
+				scores[i] = KILLER_SCORE;
+			} else if (move == secondKiller) {
+				scores[i] = KILLER_SCORE - 1;
+			} else {
+				scores[i] = attacker < 0 ? 0 : history.getScore(player, attacker, move);
+			}
+		}
+	}
+
+	/**
+	 * Returns the best move not yet handed out
+	 * @return int : Move.NONE once every move has been
+	 */
+	public int next() {
+		int size = moves.size();
+		if (next >= size) {
+			return Move.NONE;
+		}
+		int best = next;
+		for (int i = next + 1; i < size; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		if (best != next) {
+			moves.swap(next, best);
+			int score = scores[next];
+			scores[next] = scores[best];
+			scores[best] = score;
+			boolean wasQuiet = quiet[next];
+			quiet[next] = quiet[best];
+			quiet[best] = wasQuiet;
+		}
+		return moves.get(next++);
+	}
+
+	/**
+	 * Tests if the move last returned by next is quiet:
+	 * it takes nothing and does not promote
+	 * @return boolean
+	 */
+	public boolean isQuiet() {
+		return next > 0 && quiet[next - 1];
+	}
+
+	/**
+	 * Returns how many moves next has handed out
+	 * @return int
+	 */
+	public int getCount() {
+		return next;
+	}
+
+	/**
+	 * Returns a move handed out earlier
+	 * @param index : Less than getCount()
+	 * @return int
+	 */
+	public int getMove(int index) {
+		return moves.get(index);
+	}
+
+	/**
+	 * Tests if a move handed out earlier is quiet
+	 * @param index : Less than getCount()
+	 * @return boolean
+	 */
+	public boolean isQuiet(int index) {
+		return quiet[index];
+	}
+
+	/**
+	 * Returns the type of the piece the move takes, en passant included
+	 * @param board
+	 * @param move
+	 * @param attacker : Type of the moving piece
+	 * @return int : PieceType ordinal, -1 if the move takes nothing
+	 */
+	private static int captureOf(Board board, int move, int attacker) {
+		int toX = Move.getToX(move), toY = Move.getToY(move);
+		Piece victim = board.getPiece(toX, toY);
+		if (victim != null) {
+			return Math.max(typeOf(victim), 0);
+		}
+		if (attacker == PieceType.PAWN.ordinal() && Move.getFromX(move) != toX && board.isEnPassantSquare(toX, toY)) {
+			return PieceType.PAWN.ordinal();
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the ordinal of the piece's type
+	 * @param piece : May be null
+	 * @return int : -1 if there is no piece or its type is unknown
+	 */
+	static int typeOf(Piece piece) {
+		PieceType type = piece == null ? null : piece.getPieceType();
+		return type == null ? -1 : type.ordinal();
+	}
+
+}
@@ -0,0 +1,339 @@
+package chessEngine;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+
+/**
+ * Quantized weights of an efficiently updatable neural network (NNUE)
+ * for NeuralEvaluator, read from a local file
+ *
+ * Inputs: one per player, piece type and square of an 8x8 board, seen from
+ * each side in turn (INPUTS in all), see NeuralEvaluator.feature
+ * Feature layer: INPUTS x hidden int16 weights and hidden int16 biases,
+ * summed into one accumulator per side as pieces come and go
+ * The two accumulators, the side to move's first, are clipped to [0, CLIP]
+ * and go through two dense layers of int8 weights and int32 biases, each
+ * shifted right by WEIGHT_SHIFT and clipped again, then to one output
+ * The output divided by the output divisor is the score in centipawns
+ *
+ * When the JVM runs with --add-modules jdk.incubator.vector the layers go
+ * through NetworkVectors, which keeps the dense weights as int8 and multiplies
+ * them with the clipped int16 activations a full vector at a time; otherwise
+ * they run as plain loops giving the same results
+ * Immutable once loaded, so one network can serve every search thread
+ *
+ * File layout, big-endian as written by DataOutputStream:
+ * int MAGIC, int VERSION, int inputs, int hidden, int layer1, int layer2,
+ * int output divisor, short[inputs * hidden] feature weights (row per input),
+ * short[hidden] feature biases, byte[2 * hidden * layer1] layer 1 weights
+ * (row per neuron), int[layer1] biases, byte[layer1 * layer2] layer 2 weights
+ * (row per neuron), int[layer2] biases, byte[layer2] output weights, int output bias
+ */
+public class Network {
+
+	public static final int MAGIC = 0x4E4E5545;
+	public static final int VERSION = 1;
+	// 2 players x 6 piece types x 64 squares
+	public static final int INPUTS = 768;
+	// Activations are clipped to [0, CLIP], i.e. 1.0 in fixed point
+	public static final int CLIP = 127;
+	// Dense weights are fixed point with this many fraction bits
+	public static final int WEIGHT_SHIFT = 6;
+	// Whether the layers go through NetworkVectors
+	static final boolean VECTORS = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+	private final int hidden, layer1, layer2;
+	private final short[] featureWeights;
+	private final short[] featureBiases;
+	private final byte[] layer1Weights;
+	private final int[] layer1Biases;
+	private final byte[] layer2Weights;
+	private final int[] layer2Biases;
+	private final byte[] outputWeights;
+	private final int outputBias;
+	private final int outputDivisor;
+
+	/**
+	 * Constructor
+	 * The arrays are kept, not copied
+	 * @param hidden : Size of each side's accumulator
+	 * @param featureWeights : INPUTS x hidden, row per input
+	 * @param featureBiases : hidden
+	 * @param layer1Weights : layer1 x 2 * hidden, row per neuron
+	 * @param layer1Biases : layer1
+	 * @param layer2Weights : layer2 x layer1, row per neuron
+	 * @param layer2Biases : layer2
+	 * @param outputWeights : layer2
+	 * @param outputBias
+	 * @param outputDivisor : Output units per centipawn, at least 1
+	 */
+	public Network(int hidden, short[] featureWeights, short[] featureBiases,
+			byte[] layer1Weights, int[] layer1Biases, byte[] layer2Weights, int[] layer2Biases,
+			byte[] outputWeights, int outputBias, int outputDivisor) {
+		this.hidden = hidden;
+		this.layer1 = layer1Biases.length;
+		this.layer2 = layer2Biases.length;
+		if (hidden < 1 || featureWeights.length != INPUTS * hidden || featureBiases.length != hidden
+				|| layer1Weights.length != 2 * hidden * layer1 || layer2Weights.length != layer1 * layer2
+				|| outputWeights.length != layer2 || outputDivisor < 1) {
+			throw new IllegalArgumentException("Layer sizes do not match");
+		}
+		this.featureWeights = featureWeights;
+		this.featureBiases = featureBiases;
+		this.layer1Weights = layer1Weights;
+		this.layer1Biases = layer1Biases;
+		this.layer2Weights = layer2Weights;
+		this.layer2Biases = layer2Biases;
+		this.outputWeights = outputWeights;
+		this.outputBias = outputBias;
+		this.outputDivisor = outputDivisor;
+	}
+
+	/**
+	 * Polymorphic function
+	 * Reads a network from a file, see the class comment for the layout
+	 * @param file
+	 * @return Network
+	 * @throws IOException : If the file cannot be read or is not a network
+	 */
+	public static Network load(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return load(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a network from a stream, which is left open
+	 * @param stream
+	 * @return Network
+	 * @throws IOException
+	 */
+	public static Network load(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a network file");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported network version " + version);
+		}
+		int inputs = in.readInt(), hidden = in.readInt(), layer1 = in.readInt(), layer2 = in.readInt();
+		int outputDivisor = in.readInt();
+		if (inputs != INPUTS || hidden < 1 || layer1 < 1 || layer2 < 1 || hidden > 4096 || layer1 > 4096 || layer2 > 4096) {
+			throw new IOException("Unsupported network sizes " + inputs + " x " + hidden + " x " + layer1 + " x " + layer2);
+		}
+		short[] featureWeights = readShorts(in, inputs * hidden);
+		short[] featureBiases = readShorts(in, hidden);
+		byte[] layer1Weights = readBytes(in, 2 * hidden * layer1);
+		int[] layer1Biases = readInts(in, layer1);
+		byte[] layer2Weights = readBytes(in, layer1 * layer2);
+		int[] layer2Biases = readInts(in, layer2);
+		byte[] outputWeights = readBytes(in, layer2);
+		int outputBias = in.readInt();
+		try {
+			return new Network(hidden, featureWeights, featureBiases, layer1Weights, layer1Biases,
+					layer2Weights, layer2Biases, outputWeights, outputBias, outputDivisor);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Polymorphic function
+	 * Writes the network to a file, in the layout load reads
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			save(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the network to a stream, which is left open
+	 * @param stream
+	 * @throws IOException
+	 */
+	public void save(OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(INPUTS);
+		out.writeInt(hidden);
+		out.writeInt(layer1);
+		out.writeInt(layer2);
+		out.writeInt(outputDivisor);
+		writeShorts(out, featureWeights);
+		writeShorts(out, featureBiases);
+		writeBytes(out, layer1Weights);
+		writeInts(out, layer1Biases);
+		writeBytes(out, layer2Weights);
+		writeInts(out, layer2Biases);
+		writeBytes(out, outputWeights);
+		out.writeInt(outputBias);
+		out.flush();
+	}
+
+	public int getHidden() {
+		return hidden;
+	}
+
+	public int getLayer1() {
+		return layer1;
+	}
+
+	public int getLayer2() {
+		return layer2;
+	}
+
+	/**
+	 * Sets an accumulator to the feature biases, as if the board were empty
+	 * @param accumulator : hidden long
+	 */
+	void resetAccumulator(short[] accumulator) {
+		System.arraycopy(featureBiases, 0, accumulator, 0, hidden);
+	}
+
+	/**
+	 * Adds an input's feature weights to an accumulator
+	 * @param accumulator
+	 * @param input : Below INPUTS
+	 */
+	void addFeature(short[] accumulator, int input) {
+		short[] weights = featureWeights;
+		int offset = input * hidden;
+		if (VECTORS) {
+			NetworkVectors.add(accumulator, weights, offset, hidden);
+			return;
+		}
+		for (int i = 0; i < hidden; i++) {
+			accumulator[i] += weights[offset + i];
+		}
+	}
+
+	/**
+	 * Subtracts an input's feature weights from an accumulator
+	 * @param accumulator
+	 * @param input : Below INPUTS
+	 */
+	void removeFeature(short[] accumulator, int input) {
+		short[] weights = featureWeights;
+		int offset = input * hidden;
+		if (VECTORS) {
+			NetworkVectors.subtract(accumulator, weights, offset, hidden);
+			return;
+		}
+		for (int i = 0; i < hidden; i++) {
+			accumulator[i] -= weights[offset + i];
+		}
+	}
+
+	/**
+	 * Runs the dense layers on the two accumulators
+	 * @param us : Accumulator of the side to move
+	 * @param them : Accumulator of the other side
+	 * @param input : Scratch, 2 * hidden long
+	 * @param hidden1 : Scratch, layer1 long
+	 * @param hidden2 : Scratch, layer2 long
+	 * @return int : Centipawns for the side to move
+	 */
+	int forward(short[] us, short[] them, short[] input, short[] hidden1, short[] hidden2) {
+		clip(us, input, 0, hidden);
+		clip(them, input, hidden, hidden);
+		dense(input, 2 * hidden, layer1Weights, layer1Biases, hidden1, layer1);
+		dense(hidden1, layer1, layer2Weights, layer2Biases, hidden2, layer2);
+		return (outputBias + dot(hidden2, outputWeights, 0, layer2)) / outputDivisor;
+	}
+
+	private static void clip(short[] source, short[] target, int offset, int length) {
+		if (VECTORS) {
+			NetworkVectors.clip(source, target, offset, length);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			target[offset + i] = (short) Math.max(0, Math.min(CLIP, source[i]));
+		}
+	}
+
+	/**
+	 * Computes a dense layer with a clipped activation
+	 * @param input
+	 * @param inputs
+	 * @param weights : Row per neuron
+	 * @param biases
+	 * @param output
+	 * @param outputs
+	 */
+	private static void dense(short[] input, int inputs, byte[] weights, int[] biases, short[] output, int outputs) {
+		for (int o = 0; o < outputs; o++) {
+			int sum = biases[o] + dot(input, weights, o * inputs, inputs);
+			output[o] = (short) Math.max(0, Math.min(CLIP, sum >> WEIGHT_SHIFT));
+		}
+	}
+
+	private static int dot(short[] input, byte[] weights, int offset, int length) {
+		if (VECTORS) {
+			return NetworkVectors.dot(input, weights, offset, length);
+		}
+		int sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += input[i] * weights[offset + i];
+		}
+		return sum;
+	}
+
+	private static short[] readShorts(DataInputStream in, int length) throws IOException {
+		short[] values = new short[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readShort();
+		}
+		return values;
+	}
+
+	private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+		byte[] values = new byte[length];
+		in.readFully(values);
+		return values;
+	}
+
+	private static int[] readInts(DataInputStream in, int length) throws IOException {
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+
+	private static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+		for (short value:values) {
+			out.writeShort(value);
+		}
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] values) throws IOException {
+		out.write(values);
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value:values) {
+			out.writeInt(value);
+		}
+	}
+
+}
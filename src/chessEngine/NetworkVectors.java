@@ -0,0 +1,119 @@
+package chessEngine;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+
+
+/**
+ * The Network layers written with the incubating Vector API
+ * Only loaded when the JVM runs with --add-modules jdk.incubator.vector,
+ * see Network.VECTORS; each method gives exactly what Network's plain loop
+ * for it gives, the elements past the last whole vector going through a loop
+ */
+final class NetworkVectors {
+
+	// The widest shorts the CPU adds in one instruction
+	private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+	// As many bytes as SHORTS has lanes, widened to shorts on loading
+	private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class, VectorShape.forBitSize(SHORTS.vectorBitSize() / 2));
+	private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, SHORTS.vectorShape());
+	private static final int LANES = SHORTS.length();
+
+	private NetworkVectors() {
+	}
+
+	/**
+	 * Adds a row of weights to an accumulator
+	 * @param accumulator
+	 * @param weights
+	 * @param offset : Start of the row in weights
+	 * @param length
+	 */
+	static void add(short[] accumulator, short[] weights, int offset, int length) {
+		int i = 0;
+		for (; i + LANES <= length; i += LANES) {
+			ShortVector.fromArray(SHORTS, accumulator, i).add(ShortVector.fromArray(SHORTS, weights, offset + i)).intoArray(accumulator, i);
+		}
+		for (; i < length; i++) {
+			accumulator[i] += weights[offset + i];
+		}
+	}
+
+	/**
+	 * Subtracts a row of weights from an accumulator
+	 * @param accumulator
+	 * @param weights
+	 * @param offset : Start of the row in weights
+	 * @param length
+	 */
+	static void subtract(short[] accumulator, short[] weights, int offset, int length) {
+		int i = 0;
+		for (; i + LANES <= length; i += LANES) {
+			ShortVector.fromArray(SHORTS, accumulator, i).sub(ShortVector.fromArray(SHORTS, weights, offset + i)).intoArray(accumulator, i);
+		}
+		for (; i < length; i++) {
+			accumulator[i] -= weights[offset + i];
+		}
+	}
+
+	/**
+	 * Clips an accumulator to [0, Network.CLIP]
+	 * @param source
+	 * @param target
+	 * @param offset : Start of the clipped values in target
+	 * @param length
+	 */
+	static void clip(short[] source, short[] target, int offset, int length) {
+		int i = 0;
+		for (; i + LANES <= length; i += LANES) {
+			ShortVector.fromArray(SHORTS, source, i).max((short) 0).min((short) Network.CLIP).intoArray(target, offset + i);
+		}
+		for (; i < length; i++) {
+			target[offset + i] = (short) Math.max(0, Math.min(Network.CLIP, source[i]));
+		}
+	}
+
+	/**
+	 * Returns the dot product of clipped activations and a row of int8 weights
+	 * Two products of an activation in [0, Network.CLIP] and an int8 weight
+	 * add up to at most 2 * 127 * 128 = 32512 in size, so two vectors of them
+	 * are multiplied and added as shorts before the sums are widened to ints,
+	 * then a last single vector without the add
+	 * @param input : Activations in [0, Network.CLIP]
+	 * @param weights
+	 * @param offset : Start of the row in weights
+	 * @param length
+	 * @return int
+	 */
+	static int dot(short[] input, byte[] weights, int offset, int length) {
+		IntVector sums = IntVector.zero(INTS);
+		int i = 0;
+		for (; i + 2 * LANES <= length; i += 2 * LANES) {
+			ShortVector first = (ShortVector) ByteVector.fromArray(BYTES, weights, offset + i).convertShape(VectorOperators.B2S, SHORTS, 0);
+			ShortVector second = (ShortVector) ByteVector.fromArray(BYTES, weights, offset + i + LANES).convertShape(VectorOperators.B2S, SHORTS, 0);
+			ShortVector products = ShortVector.fromArray(SHORTS, input, i).mul(first)
+					.add(ShortVector.fromArray(SHORTS, input, i + LANES).mul(second));
+			// Each int lane holds two short sums: sign extend the low one, shift down the high one
+			IntVector pairs = products.reinterpretAsInts();
+			sums = sums.add(pairs.lanewise(VectorOperators.LSHL, 16).lanewise(VectorOperators.ASHR, 16))
+					.add(pairs.lanewise(VectorOperators.ASHR, 16));
+		}
+		if (i + LANES <= length) {
+			ShortVector row = (ShortVector) ByteVector.fromArray(BYTES, weights, offset + i).convertShape(VectorOperators.B2S, SHORTS, 0);
+			IntVector pairs = ShortVector.fromArray(SHORTS, input, i).mul(row).reinterpretAsInts();
+			sums = sums.add(pairs.lanewise(VectorOperators.LSHL, 16).lanewise(VectorOperators.ASHR, 16))
+					.add(pairs.lanewise(VectorOperators.ASHR, 16));
+			i += LANES;
+		}
+		int sum = sums.reduceLanes(VectorOperators.ADD);
+		for (; i < length; i++) {
+			sum += input[i] * weights[offset + i];
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,117 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+import chessLayout.PieceType;
+
+
+
+/**
+ * Scores positions with a Network (NNUE)
+ * The feature layer is kept as one accumulator per side, changed by a row of
+ * weights for every piece placed on or taken off the board, see
+ * IncrementalEvaluator; evaluate only runs the small dense layers
+ * Pieces off an 8x8 board and pieces of unknown types are not seen
+ */
+public class NeuralEvaluator extends IncrementalEvaluator {
+
+	private static final int SIZE = 8;
+	private static final int PIECE_TYPES = 6;
+
+	private final Network network;
+	// accumulators[side] sums the feature rows of the board seen from that side
+	private final short[][] accumulators;
+	// Scratch for the dense layers
+	private final short[] input;
+	private final short[] hidden1;
+	private final short[] hidden2;
+
+	/**
+	 * Constructor
+	 * @param network : May be shared with other evaluators
+	 */
+	public NeuralEvaluator(Network network) {
+		this.network = network;
+		accumulators = new short[2][network.getHidden()];
+		input = new short[2 * network.getHidden()];
+		hidden1 = new short[network.getLayer1()];
+		hidden2 = new short[network.getLayer2()];
+		reset();
+	}
+
+	/**
+	 * Scores the position by adding up every piece, without following the board
+	 * Gives the same result as evaluate, which keeps its accumulators up to date instead
+	 * @param network
+	 * @param board
+	 * @param player
+	 * @return int
+	 */
+	public static int scan(Network network, Board board, int player) {
+		NeuralEvaluator evaluator = new NeuralEvaluator(network);
+		evaluator.count(board);
+		return evaluator.score(board, player);
+	}
+
+	/**
+	 * Returns the input standing for a piece, as seen from the given side
+	 * Each side sees the board from its own first rank with its own pieces first,
+	 * so the same weights serve both
+	 * @param side
+	 * @param player : Owner of the piece
+	 * @param type : PieceType ordinal
+	 * @param x
+	 * @param y
+	 * @return int : Below Network.INPUTS
+	 */
+	public static int feature(int side, int player, int type, int x, int y) {
+		int rank = side == 0 ? y : SIZE - 1 - y;
+		int owner = player == side ? 0 : 1;
+		return ((owner * PIECE_TYPES + type) * SIZE + rank) * SIZE + x;
+	}
+
+	@Override
+	public void pieceAdded(Piece piece, int x, int y) {
+		int type = typeOf(piece, x, y);
+		if (type >= 0) {
+			network.addFeature(accumulators[0], feature(0, piece.getPlayer(), type, x, y));
+			network.addFeature(accumulators[1], feature(1, piece.getPlayer(), type, x, y));
+		}
+	}
+
+	@Override
+	public void pieceRemoved(Piece piece, int x, int y) {
+		int type = typeOf(piece, x, y);
+		if (type >= 0) {
+			network.removeFeature(accumulators[0], feature(0, piece.getPlayer(), type, x, y));
+			network.removeFeature(accumulators[1], feature(1, piece.getPlayer(), type, x, y));
+		}
+	}
+
+	@Override
+	protected void reset() {
+		network.resetAccumulator(accumulators[0]);
+		network.resetAccumulator(accumulators[1]);
+	}
+
+	@Override
+	protected int score(Board board, int player) {
+		return network.forward(accumulators[player], accumulators[player ^ 1], input, hidden1, hidden2);
+	}
+
+	/**
+	 * Returns the type of a piece the network sees
+	 * @param piece
+	 * @param x
+	 * @param y
+	 * @return int : PieceType ordinal, -1 if the network does not see it
+	 */
+	private static int typeOf(Piece piece, int x, int y) {
+		PieceType type = piece.getPieceType();
+		if (type == null || x < 0 || x >= SIZE || y < 0 || y >= SIZE) {
+			return -1;
+		}
+		return type.ordinal();
+	}
+
+}
@@ -0,0 +1,153 @@
+package chessEngine;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import chessLayout.Board;
+import chessLayout.Move;
+import chessLayout.MoveList;
+
+
+
+/**
+ * Opening moves by position, read from a book file made by OpeningBookBuilder
+ * The file is memory-mapped and searched in place, so opening it costs no
+ * more for a large book than a small one, a lookup allocates nothing and
+ * any number of threads may share one book
+ *
+ * File layout, big-endian:
+ * int MAGIC, int VERSION, int entries, then per entry a long key
+ * (Board.getHash of the position), an int move packed by Move.of and an int
+ * weight (how often the move was played), sorted by key, then by weight
+ * from the highest
+ */
+public class OpeningBook {
+
+	public static final int MAGIC = 0x424F4F4B;
+	public static final int VERSION = 1;
+	static final int HEADER = 12;
+	static final int ENTRY = 16;
+
+	private final ByteBuffer entries;
+	private final int size;
+
+	/**
+	 * Constructor
+	 * @param file : A book file
+	 * @throws IOException : If the file cannot be read or is not a book
+	 */
+	public OpeningBook(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			ByteBuffer data = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+			if (data.capacity() < HEADER || data.getInt(0) != MAGIC || data.getInt(4) != VERSION
+					|| (long) HEADER + (long) data.getInt(8) * ENTRY != data.capacity()) {
+				throw new IOException("Not an opening book: " + file);
+			}
+			entries = data;
+			size = data.getInt(8);
+		} finally {
+			// The mapping outlives the file
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns the number of entries, one per position and move
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Binary searches for the first entry of a position
+	 * @param key : Board.getHash of the position
+	 * @return int : The entry, -1 if the position is not in the book
+	 */
+	public int find(long key) {
+		int low = 0, high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getKey(middle) < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < size && getKey(low) == key ? low : -1;
+	}
+
+	public long getKey(int entry) {
+		return entries.getLong(HEADER + entry * ENTRY);
+	}
+
+	public int getMove(int entry) {
+		return entries.getInt(HEADER + entry * ENTRY + 8);
+	}
+
+	public int getWeight(int entry) {
+		return entries.getInt(HEADER + entry * ENTRY + 12);
+	}
+
+	/**
+	 * Lists the book moves of the position on the board
+	 * @param board
+	 * @param moves : Cleared, then filled from the most played move down
+	 * @return int : The moves' total weight, 0 if the position is not in the book
+	 */
+	public int getMoves(Board board, MoveList moves) {
+		moves.clear();
+		long key = board.getHash();
+		int total = 0;
+		for (int entry = find(key); entry >= 0 && entry < size && getKey(entry) == key; entry++) {
+			moves.add(getMove(entry));
+			total += getWeight(entry);
+		}
+		return total;
+	}
+
+	/**
+	 * Picks a book move for the position on the board,
+	 * each with a chance in proportion to its weight
+	 * @param board
+	 * @param random : Any value, e.g. from Random.nextLong, which decides the move
+	 * @return int : The move, Move.NONE if the position is not in the book
+	 */
+	public int pickMove(Board board, long random) {
+		long key = board.getHash();
+		int first = find(key);
+		if (first < 0) {
+			return Move.NONE;
+		}
+		long total = 0;
+		int last = first;
+		for (; last < size && getKey(last) == key; last++) {
+			total += getWeight(last);
+		}
+		if (total <= 0) {
+			return getMove(first);
+		}
+		long pick = (random & Long.MAX_VALUE) % total;
+		for (int entry = first; entry < last; entry++) {
+			pick -= getWeight(entry);
+			if (pick < 0) {
+				return getMove(entry);
+			}
+		}
+		return getMove(first);
+	}
+
+	/**
+	 * Returns the most played book move of the position on the board
+	 * @param board
+	 * @return int : The move, Move.NONE if the position is not in the book
+	 */
+	public int getBestMove(Board board) {
+		int entry = find(board.getHash());
+		return entry < 0 ? Move.NONE : getMove(entry);
+	}
+
+}
@@ -0,0 +1,209 @@
+package chessEngine;
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+import chessLayout.MoveList;
+
+
+
+/**
+ * Builds an OpeningBook file from a corpus of games, counting how often
+ * each move was played in each position over the first plies of the games
+ * A game is one line of moves in coordinate notation (see Move.parse) from
+ * the starting position, e.g. "e2e4 e7e5 g1f3"; move numbers such as "1."
+ * and results such as "1-0" are skipped, as are blank lines and lines
+ * starting with '#'
+ */
+public class OpeningBookBuilder {
+
+	public static final int DEFAULT_MAX_PLIES = 20;
+
+	private final int maxPlies;
+	// Times each move was played, by position key then move
+	private final Map<Long, Map<Integer, Integer>> counts = new HashMap<Long, Map<Integer, Integer>>();
+	private final Board board = new BitBoard();
+	private final MoveList legalMoves = new MoveList();
+	private int games = 0;
+
+	public OpeningBookBuilder() {
+		this(DEFAULT_MAX_PLIES);
+	}
+
+	/**
+	 * Constructor
+	 * @param maxPlies : Moves of each game counted, from the first
+	 */
+	public OpeningBookBuilder(int maxPlies) {
+		this.maxPlies = maxPlies;
+		Fen.load(board, Perft.SUITE_POSITIONS[0]);
+	}
+
+	/**
+	 * Counts the opening moves of one game
+	 * Nothing is counted if a move is not legal
+	 * @param line : The game's moves, see the class comment
+	 * @throws IllegalArgumentException : If a move cannot be read or is not legal
+	 */
+	public void addGame(String line) {
+		String[] tokens = line.trim().split("\\s+");
+		long[] keys = new long[maxPlies];
+		int[] moves = new int[maxPlies];
+		int plies = 0;
+		try {
+			for (String token:tokens) {
+				if (plies == maxPlies) {
+					break;
+				}
+				if (token.length() == 0 || !Character.isLetter(token.charAt(0))) {
+					continue;
+				}
+				int move = legal(Move.parse(token));
+				if (move == Move.NONE) {
+					throw new IllegalArgumentException("Illegal move " + token + " in: " + line);
+				}
+				keys[plies] = board.getHash();
+				moves[plies++] = move;
+				board.makeMove(move);
+			}
+		} finally {
+			while (board.getUndoDepth() > 0) {
+				board.unmakeMove();
+			}
+		}
+		for (int i = 0; i < plies; i++) {
+			count(keys[i], moves[i]);
+		}
+		games++;
+	}
+
+	/**
+	 * Returns the legal move of the board a parsed move stands for
+	 * A Pawn move to the last rank without a letter is taken as a Queen promotion
+	 * @param move
+	 * @return int : Move.NONE if it is not legal
+	 */
+	private int legal(int move) {
+		board.generateMoves(board.getSideToMove(), legalMoves);
+		if (legalMoves.contains(move)) {
+			return move;
+		}
+		int queen = Move.of(Move.getFromX(move), Move.getFromY(move), Move.getToX(move), Move.getToY(move), Move.PROMOTE_QUEEN);
+		return Move.getFlags(move) == Move.NONE && legalMoves.contains(queen) ? queen : Move.NONE;
+	}
+
+	private void count(long key, int move) {
+		Map<Integer, Integer> moves = counts.get(key);
+		if (moves == null) {
+			moves = new HashMap<Integer, Integer>();
+			counts.put(key, moves);
+		}
+		Integer count = moves.get(move);
+		moves.put(move, count == null ? 1 : count + 1);
+	}
+
+	/**
+	 * Counts every game of a corpus
+	 * @param corpus : One game per line, see the class comment
+	 * @return int : The number of games read
+	 * @throws IOException
+	 * @throws IllegalArgumentException : If a game has a move that is not legal
+	 */
+	public int addGames(Reader corpus) throws IOException {
+		BufferedReader in = new BufferedReader(corpus);
+		int read = 0;
+		String line;
+		while ((line = in.readLine()) != null) {
+			if (line.trim().length() > 0 && !line.trim().startsWith("#")) {
+				addGame(line);
+				read++;
+			}
+		}
+		return read;
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * Returns the number of positions counted
+	 * @return int
+	 */
+	public int getPositions() {
+		return counts.size();
+	}
+
+	/**
+	 * Writes the book in the layout OpeningBook reads
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException {
+		List<long[]> entries = new ArrayList<long[]>();
+		for (Map.Entry<Long, Map<Integer, Integer>> position:counts.entrySet()) {
+			for (Map.Entry<Integer, Integer> move:position.getValue().entrySet()) {
+				entries.add(new long[] {position.getKey(), move.getKey(), move.getValue()});
+			}
+		}
+		// By key, then the most played first, then by move so the file does not depend on hashing
+		Collections.sort(entries, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] a, long[] b) {
+				if (a[0] != b[0]) {
+					return a[0] < b[0] ? -1 : 1;
+				}
+				if (a[2] != b[2]) {
+					return a[2] > b[2] ? -1 : 1;
+				}
+				return a[1] < b[1] ? -1 : (a[1] == b[1] ? 0 : 1);
+			}
+		});
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeInt(entries.size());
+			for (long[] entry:entries) {
+				out.writeLong(entry[0]);
+				out.writeInt((int) entry[1]);
+				out.writeInt((int) entry[2]);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Builds a book from a corpus file
+	 * @param args : The corpus, the book to write, optionally the plies to count
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		OpeningBookBuilder builder = new OpeningBookBuilder(args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLIES);
+		FileReader corpus = new FileReader(args[0]);
+		try {
+			builder.addGames(corpus);
+		} finally {
+			corpus.close();
+		}
+		builder.write(new File(args[1]));
+		System.out.println(builder.getGames() + " games, " + builder.getPositions() + " positions");
+	}
+
+}
@@ -0,0 +1,189 @@
+package chessEngine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import chessLayout.Board;
+
+
+
+/**
+ * Searches with several threads at once in the style of Lazy SMP
+ * Every thread searches the whole tree on its own copy of the board,
+ * and they share what they find through one TranspositionTable
+ * The main thread searches as a single threaded Search would; the helpers
+ * vary their depth and move order, so their results in the table
+ * let the main thread skip work
+ * The search ends when the main thread does
+ * The threads belong to a pool the search owns; close it once done, e.g.
+ * in a try-with-resources statement. They are daemon threads, so a search
+ * left open does not keep the JVM running
+ */
+public class ParallelSearch implements AutoCloseable {
+
+	private final ForkJoinPool pool;
+	private final TranspositionTable table;
+	private final Search[] searches;
+	// Shared by all the searches, set once the main thread is done
+	private final AtomicBoolean stopSignal = new AtomicBoolean();
+
+	/**
+	 * Constructor
+	 * Scores with piece-square tables, with a 64 MB table
+	 * @param threads
+	 */
+	public ParallelSearch(int threads) {
+		this(threads, new TranspositionTable(64), new EvaluatorFactory() {
+			@Override
+			public Evaluator createEvaluator() {
+				return new PieceSquareEvaluator();
+			}
+		});
+	}
+
+	/**
+	 * Constructor
+	 * @param threads : Number of searching threads, at least 1
+	 * @param table : Shared by all the threads
+	 * @param factory : Creates an evaluator for each thread
+	 */
+	public ParallelSearch(int threads, TranspositionTable table, EvaluatorFactory factory) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread: " + threads);
+		}
+		this.table = table;
+		pool = new ForkJoinPool(threads);
+		searches = new Search[threads];
+		for (int i = 0; i < threads; i++) {
+			searches[i] = new Search(factory.createEvaluator(), table, stopSignal, false);
+			searches[i].setHelper(i);
+		}
+	}
+
+	/**
+	 * Polymorphic function
+	 * Searches to the given depth without a time limit
+	 * @param board
+	 * @param player
+	 * @param depth
+	 * @return SearchResult
+	 */
+	public SearchResult search(Board board, int player, int depth) {
+		return search(board, player, depth, 0);
+	}
+
+	/**
+	 * Finds the best move for the given player, see Search.search
+	 * Each thread works on board.copy(), the board itself is not changed
+	 * @param board
+	 * @param player
+	 * @param maxDepth : Deepest iteration of the main thread
+	 * @param timeLimitMillis : 0 for none
+	 * @return SearchResult : Of the main thread, or of a helper that completed
+	 * 						  a deeper iteration; nodes are those of all threads
+	 */
+	public SearchResult search(Board board, final int player, final int maxDepth, final long timeLimitMillis) {
+		long start = System.nanoTime();
+		stopSignal.set(false);
+		table.newSearch();
+		List<Future<SearchResult>> results = new ArrayList<Future<SearchResult>>();
+		for (int i = 0; i < searches.length; i++) {
+			final Search search = searches[i];
+			final Board copy = board.copy();
+			final boolean main = i == 0;
+			results.add(pool.submit(new Callable<SearchResult>() {
+				@Override
+				public SearchResult call() {
+					try {
+						// Helpers run until the main thread stops them
+						return search.search(copy, player, main ? maxDepth : Search.MAX_PLY, timeLimitMillis);
+					} finally {
+						if (main) {
+							stopSignal.set(true);
+						}
+					}
+				}
+			}));
+		}
+		SearchResult best = null;
+		long nodes = 0;
+		try {
+			for (Future<SearchResult> future:results) {
+				SearchResult result = future.get();
+				if (result == null) {
+					continue;
+				}
+				nodes += result.getNodes();
+				if (best == null || result.getDepth() > best.getDepth()) {
+					best = result;
+				}
+			}
+		} catch (InterruptedException e) {
+			stop();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while searching", e);
+		} catch (ExecutionException e) {
+			stop();
+			throw new IllegalStateException(e.getCause());
+		}
+		if (best == null) {
+			return null;
+		}
+		return new SearchResult(best.getPrincipalVariation(), best.getScore(), best.getDepth(),
+				nodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Sets which selective parts every thread uses, see Search.setOptions
+	 * @param options
+	 */
+	public void setOptions(SearchOptions options) {
+		for (Search search:searches) {
+			search.setOptions(options);
+		}
+	}
+
+	/**
+	 * Ends a running search as soon as possible, from another thread
+	 */
+	public void stop() {
+		stopSignal.set(true);
+	}
+
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	public int getThreads() {
+		return searches.length;
+	}
+
+	/**
+	 * Stops the worker threads, the search cannot be used afterwards
+	 */
+	public void shutdown() {
+		stop();
+		pool.shutdown();
+	}
+
+	@Override
+	/**
+	 * Same as shutdown
+	 */
+	public void close() {
+		shutdown();
+	}
+
+	/**
+	 * Creates the evaluator used by each thread, as evaluators may keep
+	 * state about the board they score
+	 */
+	public interface EvaluatorFactory {
+		public Evaluator createEvaluator();
+	}
+
+}
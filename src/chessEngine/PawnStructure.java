@@ -0,0 +1,175 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+import chessLayout.PieceType;
+
+
+
+/**
+ * Scores the Pawn structure of an 8x8 board: doubled, isolated, backward
+ * and passed Pawns, and how well each King's Pawns shelter it
+ * Works on a bitboard of each player's Pawns, indexed y * 8 + x like BitBoard;
+ * Pawns off the 8x8 corner of larger boards are not seen
+ * Scores are from White's side (player 0), in two parts indexed MIDDLEGAME
+ * and ENDGAME for the evaluator to blend; PawnTable caches them
+ */
+public class PawnStructure {
+
+	public static final int MIDDLEGAME = 0;
+	public static final int ENDGAME = 1;
+
+	// Centipawns for each Pawn, indexed MIDDLEGAME or ENDGAME
+	// A Pawn with another of its own in front of it
+	public static final int[] DOUBLED = {-10, -25};
+	// No Pawn of its own on the files next to it to ever defend it
+	public static final int[] ISOLATED = {-10, -15};
+	// Left behind by the Pawns next to it, and cannot advance safely
+	public static final int[] BACKWARD = {-8, -10};
+	// No enemy Pawn in front of it on its own or the next files, by rank from its own side
+	public static final int[][] PASSED = {
+		{0, 5, 10, 15, 25, 40, 60, 0},
+		{0, 10, 15, 25, 45, 70, 110, 0},
+	};
+	// Middlegame only, for each file at and next to the King's:
+	// by how far ahead of the King its nearest Pawn stands
+	public static final int[] SHELTER = {0, 0, -10, -20};
+	// or without any of its Pawns ahead
+	public static final int MISSING_SHELTER = -30;
+
+	private static final int SIZE = 8;
+	private static final long FILE_A = 0x0101010101010101L;
+	private static final long FILE_H = FILE_A << (SIZE - 1);
+
+	private PawnStructure() {
+	}
+
+	/**
+	 * Returns the squares of a player's Pawns
+	 * @param board
+	 * @param player
+	 * @return long : Bit y * 8 + x set for a Pawn at (x, y)
+	 */
+	public static long pawns(Board board, int player) {
+		long result = 0;
+		for (int i = 0; i < board.getPieceCount(player); i++) {
+			Piece piece = board.getPlayerPiece(player, i);
+			if (piece.getPieceType() == PieceType.PAWN && onBoard(piece.getX(), piece.getY())) {
+				result |= 1L << (piece.getY() * SIZE + piece.getX());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Scores the doubled, isolated, backward and passed Pawns of both players
+	 * @param pawns : Each player's Pawns, see pawns
+	 * @param result : Receives the MIDDLEGAME and ENDGAME scores, from White's side
+	 */
+	public static void score(long[] pawns, int[] result) {
+		result[MIDDLEGAME] = 0;
+		result[ENDGAME] = 0;
+		for (int player = 0; player < 2; player++) {
+			long own = pawns[player], enemy = pawns[player ^ 1];
+			long enemyAttacks = attacks(enemy, player ^ 1);
+			int sign = player == 0 ? 1 : -1;
+			for (long remaining = own; remaining != 0; remaining &= remaining - 1) {
+				int square = Long.numberOfTrailingZeros(remaining);
+				int x = square % SIZE, y = square / SIZE;
+				int rank = player == 0 ? y : SIZE - 1 - y;
+				long front = ahead(player, y);
+				long neighbours = adjacentFiles(x);
+				boolean doubled = (own & file(x) & front) != 0;
+				boolean isolated = (own & neighbours) == 0;
+				boolean passed = !doubled && (enemy & (file(x) | neighbours) & front) == 0;
+				if (doubled) {
+					add(result, DOUBLED, sign);
+				}
+				if (isolated) {
+					add(result, ISOLATED, sign);
+				} else if (!passed && (own & neighbours & ~front) == 0 && rank < SIZE - 1) {
+					long stop = player == 0 ? 1L << (square + SIZE) : 1L << (square - SIZE);
+					if ((enemyAttacks & stop) != 0) {
+						add(result, BACKWARD, sign);
+					}
+				}
+				if (passed) {
+					result[MIDDLEGAME] += sign * PASSED[MIDDLEGAME][rank];
+					result[ENDGAME] += sign * PASSED[ENDGAME][rank];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scores the shelter a player's Pawns give its King, for the middlegame
+	 * @param own : The player's Pawns
+	 * @param player
+	 * @param x : The King's square
+	 * @param y
+	 * @return int : 0 or less, 0 for a King off the 8x8 board
+	 */
+	public static int shelter(long own, int player, int x, int y) {
+		if (!onBoard(x, y)) {
+			return 0;
+		}
+		int score = 0;
+		long front = ahead(player, y);
+		for (int f = Math.max(0, x - 1); f <= Math.min(SIZE - 1, x + 1); f++) {
+			long shield = own & file(f) & front;
+			if (shield == 0) {
+				score += MISSING_SHELTER;
+				continue;
+			}
+			// Nearest to the King: lowest square for White, highest for Black
+			int square = player == 0 ? Long.numberOfTrailingZeros(shield) : 63 - Long.numberOfLeadingZeros(shield);
+			int distance = Math.abs(square / SIZE - y);
+			score += SHELTER[Math.min(distance, SHELTER.length - 1)];
+		}
+		return score;
+	}
+
+	private static void add(int[] result, int[] term, int sign) {
+		result[MIDDLEGAME] += sign * term[MIDDLEGAME];
+		result[ENDGAME] += sign * term[ENDGAME];
+	}
+
+	/**
+	 * Returns the squares the given Pawns attack
+	 * @param pawns
+	 * @param player : Owner of the Pawns
+	 * @return long
+	 */
+	private static long attacks(long pawns, int player) {
+		if (player == 0) {
+			return ((pawns << (SIZE + 1)) & ~FILE_A) | ((pawns << (SIZE - 1)) & ~FILE_H);
+		}
+		return ((pawns >>> (SIZE - 1)) & ~FILE_A) | ((pawns >>> (SIZE + 1)) & ~FILE_H);
+	}
+
+	/**
+	 * Returns every square on the ranks ahead of the given one, as the player's Pawns move
+	 * @param player
+	 * @param y
+	 * @return long
+	 */
+	private static long ahead(int player, int y) {
+		if (player == 0) {
+			return y >= SIZE - 1 ? 0 : -1L << ((y + 1) * SIZE);
+		}
+		return (1L << (y * SIZE)) - 1;
+	}
+
+	private static long file(int x) {
+		return FILE_A << x;
+	}
+
+	private static long adjacentFiles(int x) {
+		return (x > 0 ? file(x - 1) : 0) | (x < SIZE - 1 ? file(x + 1) : 0);
+	}
+
+	private static boolean onBoard(int x, int y) {
+		return x >= 0 && x < SIZE && y >= 0 && y < SIZE;
+	}
+
+}
@@ -0,0 +1,153 @@
+package chessEngine;
+import java.util.Arrays;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+
+
+
+/**
+ * Cache of PawnStructure scores, keyed by Board.getPawnHash()
+ * Pawns move seldom and are rarely taken, so most positions of a search
+ * share their Pawns with one scored before and are looked up, not scanned
+ * Each entry also keeps both players' Pawns and, for each King, the shelter
+ * score of the square it last stood on, so a King move costs a few bit
+ * operations and not a scan
+ * Entries are replaced by any other Pawn structure with the same index
+ * Not thread safe: each search thread's evaluator has its own table
+ */
+public class PawnTable {
+
+	public static final int DEFAULT_ENTRIES = 1 << 14;
+	private static final int NO_SQUARE = -1;
+	private static final int SIZE = 8;
+
+	private final long[] keys;
+	// Both players' Pawns, two per entry, see PawnStructure.pawns
+	private final long[] pawns;
+	private final int[] middlegame;
+	private final int[] endgame;
+	// Each King's square as y * 8 + x and its shelter, two per entry
+	private final int[] kingSquares;
+	private final int[] shelters;
+	private final int mask;
+	private long probes = 0;
+	private long hits = 0;
+	// Reused on a miss, so scoring does not allocate
+	private final long[] scratchPawns = new long[2];
+	private final int[] scratchScore = new int[2];
+
+	/**
+	 * Constructor
+	 * @param entries : Number of Pawn structures kept, rounded down to a power of two
+	 */
+	public PawnTable(int entries) {
+		if (entries < 1) {
+			throw new IllegalArgumentException("Size must be at least 1 entry: " + entries);
+		}
+		int size = Integer.highestOneBit(entries);
+		keys = new long[size];
+		pawns = new long[size * 2];
+		middlegame = new int[size];
+		endgame = new int[size];
+		kingSquares = new int[size * 2];
+		shelters = new int[size * 2];
+		mask = size - 1;
+		clear();
+	}
+
+	/**
+	 * Looks up the board's Pawn structure, scoring it if it is not stored
+	 * @param board
+	 * @return int : The entry, for the get methods until the next probe
+	 */
+	public int probe(Board board) {
+		long key = board.getPawnHash();
+		int entry = (int) key & mask;
+		probes++;
+		if (keys[entry] == key) {
+			hits++;
+			return entry;
+		}
+		scratchPawns[0] = PawnStructure.pawns(board, 0);
+		scratchPawns[1] = PawnStructure.pawns(board, 1);
+		PawnStructure.score(scratchPawns, scratchScore);
+		keys[entry] = key;
+		pawns[entry * 2] = scratchPawns[0];
+		pawns[entry * 2 + 1] = scratchPawns[1];
+		middlegame[entry] = scratchScore[PawnStructure.MIDDLEGAME];
+		endgame[entry] = scratchScore[PawnStructure.ENDGAME];
+		kingSquares[entry * 2] = kingSquares[entry * 2 + 1] = NO_SQUARE;
+		return entry;
+	}
+
+	/**
+	 * Returns the middlegame score of an entry's Pawns, from White's side
+	 * @param entry : From probe
+	 * @return int
+	 */
+	public int getMiddlegame(int entry) {
+		return middlegame[entry];
+	}
+
+	/**
+	 * Returns the endgame score of an entry's Pawns, from White's side
+	 * @param entry : From probe
+	 * @return int
+	 */
+	public int getEndgame(int entry) {
+		return endgame[entry];
+	}
+
+	/**
+	 * Returns the shelter of a player's King, for the middlegame
+	 * @param entry : From probe on the same board
+	 * @param board
+	 * @param player
+	 * @return int : 0 or less, 0 if the player has no King on the 8x8 board
+	 */
+	public int getShelter(int entry, Board board, int player) {
+		Piece king = board.getKing(player);
+		if (king == null || king.getX() < 0 || king.getX() >= SIZE || king.getY() < 0 || king.getY() >= SIZE) {
+			return 0;
+		}
+		int square = king.getY() * SIZE + king.getX();
+		int index = entry * 2 + player;
+		if (kingSquares[index] != square) {
+			kingSquares[index] = square;
+			shelters[index] = PawnStructure.shelter(pawns[index], player, king.getX(), king.getY());
+		}
+		return shelters[index];
+	}
+
+	/**
+	 * Returns how many lookups were made since the table was created or cleared
+	 * @return long
+	 */
+	public long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Returns how many lookups found the Pawn structure stored
+	 * @return long
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Empties the table
+	 * An empty entry holds the structure without Pawns, whose key is 0
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(pawns, 0);
+		Arrays.fill(middlegame, 0);
+		Arrays.fill(endgame, 0);
+		Arrays.fill(kingSquares, NO_SQUARE);
+		probes = 0;
+		hits = 0;
+	}
+
+}
@@ -0,0 +1,180 @@
+package chessEngine;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.MoveList;
+
+
+
+/**
+ * Counts the leaf nodes of the move tree to a fixed depth (perft)
+ * Moves come from the board's own generation, Board.generateMoves,
+ * and are played with Board.makeMove, so a count that matches the published
+ * one shows that generation and make/unmake agree with the rules
+ * Also the main throughput benchmark of move generation
+ */
+public class Perft {
+
+	/**
+	 * Reference positions in FEN with their published node counts by depth
+	 * Player 0 is White, standing on y = 0 and 1
+	 */
+	public static final String[] SUITE_POSITIONS = {
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+	};
+	// SUITE_COUNTS[i][d - 1] is the node count of position i at depth d
+	public static final long[][] SUITE_COUNTS = {
+		{20, 400, 8902, 197281, 4865609},
+		{48, 2039, 97862, 4085603},
+		{14, 191, 2812, 43238, 674624},
+		{6, 264, 9467, 422333},
+		{44, 1486, 62379, 2103487},
+		{46, 2079, 89890, 3894594},
+	};
+
+	private Perft() {
+	}
+
+	/**
+	 * Counts the positions reached after the given number of moves
+	 * by the side to move and its opponent in turn
+	 * @param board : Left as it was found
+	 * @param depth
+	 * @return long
+	 */
+	public static long perft(Board board, int depth) {
+		return perft(board, depth, createMoveLists(depth));
+	}
+
+	/**
+	 * Counts as perft(Board, int), generating into a list per ply
+	 * so that nothing is allocated during the count
+	 * @param board
+	 * @param depth
+	 * @param moveLists : moveLists[depth] is used at the given depth
+	 * @return long
+	 */
+	private static long perft(Board board, int depth, MoveList[] moveLists) {
+		if (depth <= 0) {
+			return 1;
+		}
+		MoveList moves = moveLists[depth];
+		board.generateMoves(board.getSideToMove(), moves);
+		if (depth == 1) {
+			// Bulk counting, the leaves need not be played
+			return moves.size();
+		}
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			nodes += perft(board, depth - 1, moveLists);
+			board.unmakeMove();
+		}
+		return nodes;
+	}
+
+	private static MoveList[] createMoveLists(int depth) {
+		MoveList[] moveLists = new MoveList[Math.max(depth, 0) + 1];
+		for (int i = 0; i < moveLists.length; i++) {
+			moveLists[i] = new MoveList();
+		}
+		return moveLists;
+	}
+
+	/**
+	 * Splits the count by root move, to find which move a wrong count comes from
+	 * @param board : Left as it was found
+	 * @param depth : At least 1
+	 * @return Map<Integer, Long> : Node count by move, in generation order
+	 */
+	public static Map<Integer, Long> divide(Board board, int depth) {
+		Map<Integer, Long> counts = new LinkedHashMap<Integer, Long>();
+		MoveList[] moveLists = createMoveLists(depth);
+		MoveList moves = new MoveList();
+		board.generateMoves(board.getSideToMove(), moves);
+		for (int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			counts.put(moves.get(i), perft(board, depth - 1, moveLists));
+			board.unmakeMove();
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts as perft does, searching the root moves in parallel
+	 * Each root move is played on its own copy of the board
+	 * @param root : Not changed
+	 * @param depth : At least 1
+	 * @param threads
+	 * @return long
+	 */
+	public static long perft(Board root, final int depth, int threads) throws InterruptedException {
+		MoveList moves = new MoveList();
+		root.generateMoves(root.getSideToMove(), moves);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Long>> results = new ArrayList<Future<Long>>();
+			for (int i = 0; i < moves.size(); i++) {
+				final int move = moves.get(i);
+				final Board board = root.copy();
+				results.add(executor.submit(new Callable<Long>() {
+					@Override
+					public Long call() {
+						board.makeMove(move);
+						return perft(board, depth - 1);
+					}
+				}));
+			}
+			long nodes = 0;
+			for (Future<Long> result:results) {
+				nodes += result.get();
+			}
+			return nodes;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Runs the reference suite on BitBoard and prints the counts and nodes per second
+	 * @param args : Optional node limit per count, default 5000000
+	 */
+	public static void main(String[] args) {
+		long limit = args.length > 0 ? Long.parseLong(args[0]) : 5000000;
+		boolean passed = true;
+		for (int i = 0; i < SUITE_POSITIONS.length; i++) {
+			for (int depth = 1; depth <= SUITE_COUNTS[i].length; depth++) {
+				long expected = SUITE_COUNTS[i][depth - 1];
+				if (expected > limit) {
+					break;
+				}
+				Board board = Fen.parse(SUITE_POSITIONS[i]);
+				long start = System.nanoTime();
+				long nodes = perft(board, depth);
+				long elapsed = Math.max(1, System.nanoTime() - start);
+				passed &= nodes == expected;
+				System.out.println("position " + (i + 1) + " depth " + depth + ": " + nodes
+						+ (nodes == expected ? "" : " (expected " + expected + ")")
+						+ ", " + (nodes * 1000000000L / elapsed) + " nodes/s");
+			}
+		}
+		System.out.println(passed ? "All counts match" : "Counts differ");
+	}
+
+}
@@ -0,0 +1,245 @@
+package chessEngine;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+import chessLayout.PieceType;
+
+
+
+/**
+ * Scores material and where each piece stands, with a piece-square table
+ * per piece type for the middlegame and one for the endgame
+ * The two scores are blended by the game phase, from the material left:
+ * with every Knight, Bishop, Rook and Queen on the board the middlegame
+ * score counts alone, with none of them the endgame score does
+ *
+ * The totals are kept up to date as the board changes, see IncrementalEvaluator,
+ * so evaluate does not look at the pieces at all
+ * Pawn structure and King shelter are added from a PawnTable, which scores
+ * each arrangement of Pawns once, see PawnStructure
+ *
+ * Tables are for an 8x8 board from White's side (player 0), rank 8 first;
+ * Black's are mirrored. On other boards pieces off the 8x8 corner
+ * count for their material only
+ */
+public class PieceSquareEvaluator extends IncrementalEvaluator {
+
+	// Centipawns, indexed by PieceType ordinal
+	public static final int[] MIDDLEGAME_VALUES = MaterialEvaluator.PIECE_VALUES;
+	public static final int[] ENDGAME_VALUES = {120, 310, 330, 520, 900, 0};
+	// How much each piece adds to the game phase, see TOTAL_PHASE
+	private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+	// Phase of the starting position, and the most counted
+	public static final int TOTAL_PHASE = 24;
+	private static final int SIZE = 8;
+
+	private static final int[] PAWN_TABLE = {
+		  0,  0,  0,  0,  0,  0,  0,  0,
+		 50, 50, 50, 50, 50, 50, 50, 50,
+		 10, 10, 20, 30, 30, 20, 10, 10,
+		  5,  5, 10, 25, 25, 10,  5,  5,
+		  0,  0,  0, 20, 20,  0,  0,  0,
+		  5, -5,-10,  0,  0,-10, -5,  5,
+		  5, 10, 10,-20,-20, 10, 10,  5,
+		  0,  0,  0,  0,  0,  0,  0,  0,
+	};
+	// Passed or not, a Pawn near promotion decides endgames
+	private static final int[] PAWN_ENDGAME_TABLE = {
+		  0,  0,  0,  0,  0,  0,  0,  0,
+		 80, 80, 80, 80, 80, 80, 80, 80,
+		 50, 50, 50, 50, 50, 50, 50, 50,
+		 30, 30, 30, 30, 30, 30, 30, 30,
+		 20, 20, 20, 20, 20, 20, 20, 20,
+		 10, 10, 10, 10, 10, 10, 10, 10,
+		 10, 10, 10, 10, 10, 10, 10, 10,
+		  0,  0,  0,  0,  0,  0,  0,  0,
+	};
+	private static final int[] KNIGHT_TABLE = {
+		-50,-40,-30,-30,-30,-30,-40,-50,
+		-40,-20,  0,  0,  0,  0,-20,-40,
+		-30,  0, 10, 15, 15, 10,  0,-30,
+		-30,  5, 15, 20, 20, 15,  5,-30,
+		-30,  0, 15, 20, 20, 15,  0,-30,
+		-30,  5, 10, 15, 15, 10,  5,-30,
+		-40,-20,  0,  5,  5,  0,-20,-40,
+		-50,-40,-30,-30,-30,-30,-40,-50,
+	};
+	private static final int[] BISHOP_TABLE = {
+		-20,-10,-10,-10,-10,-10,-10,-20,
+		-10,  0,  0,  0,  0,  0,  0,-10,
+		-10,  0,  5, 10, 10,  5,  0,-10,
+		-10,  5,  5, 10, 10,  5,  5,-10,
+		-10,  0, 10, 10, 10, 10,  0,-10,
+		-10, 10, 10, 10, 10, 10, 10,-10,
+		-10,  5,  0,  0,  0,  0,  5,-10,
+		-20,-10,-10,-10,-10,-10,-10,-20,
+	};
+	private static final int[] ROOK_TABLE = {
+		  0,  0,  0,  0,  0,  0,  0,  0,
+		  5, 10, 10, 10, 10, 10, 10,  5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		  0,  0,  0,  5,  5,  0,  0,  0,
+	};
+	private static final int[] QUEEN_TABLE = {
+		-20,-10,-10, -5, -5,-10,-10,-20,
+		-10,  0,  0,  0,  0,  0,  0,-10,
+		-10,  0,  5,  5,  5,  5,  0,-10,
+		 -5,  0,  5,  5,  5,  5,  0, -5,
+		  0,  0,  5,  5,  5,  5,  0, -5,
+		-10,  5,  5,  5,  5,  5,  0,-10,
+		-10,  0,  5,  0,  0,  0,  0,-10,
+		-20,-10,-10, -5, -5,-10,-10,-20,
+	};
+	// Sheltered behind its Pawns while the enemy has pieces to attack with
+	private static final int[] KING_TABLE = {
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-20,-30,-30,-40,-40,-30,-30,-20,
+		-10,-20,-20,-20,-20,-20,-20,-10,
+		 20, 20,  0,  0,  0,  0, 20, 20,
+		 20, 30, 10,  0,  0, 10, 30, 20,
+	};
+	// In the center, once there is little left to attack it with
+	private static final int[] KING_ENDGAME_TABLE = {
+		-50,-40,-30,-20,-20,-30,-40,-50,
+		-30,-20,-10,  0,  0,-10,-20,-30,
+		-30,-10, 20, 30, 30, 20,-10,-30,
+		-30,-10, 30, 40, 40, 30,-10,-30,
+		-30,-10, 30, 40, 40, 30,-10,-30,
+		-30,-10, 20, 30, 30, 20,-10,-30,
+		-30,-30,  0,  0,  0,  0,-30,-30,
+		-50,-30,-30,-30,-30,-30,-30,-50,
+	};
+
+	// MIDDLEGAME[type][player][y * 8 + x] is the value of a piece standing
+	// at (x, y), material included; ENDGAME likewise
+	private static final int[][][] MIDDLEGAME = createTables(MIDDLEGAME_VALUES,
+			PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_TABLE);
+	private static final int[][][] ENDGAME = createTables(ENDGAME_VALUES,
+			PAWN_ENDGAME_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE, KING_ENDGAME_TABLE);
+
+	// Running totals of each player's pieces
+	private final int[] middlegame = new int[2];
+	private final int[] endgame = new int[2];
+	private int phase;
+	private final PawnTable pawnTable;
+
+	/**
+	 * Constructor
+	 * Uses a PawnTable of PawnTable.DEFAULT_ENTRIES
+	 */
+	public PieceSquareEvaluator() {
+		this(new PawnTable(PawnTable.DEFAULT_ENTRIES));
+	}
+
+	/**
+	 * Constructor
+	 * @param pawnTable : Not to be shared with another evaluator
+	 */
+	public PieceSquareEvaluator(PawnTable pawnTable) {
+		this.pawnTable = pawnTable;
+	}
+
+	/**
+	 * Scores the position by looking at every piece, without following the board
+	 * Gives the same result as evaluate, which keeps its totals up to date instead
+	 * @param board
+	 * @param player
+	 * @return int
+	 */
+	public static int scan(Board board, int player) {
+		PieceSquareEvaluator evaluator = new PieceSquareEvaluator(new PawnTable(1));
+		evaluator.count(board);
+		return evaluator.score(board, player);
+	}
+
+	/**
+	 * Returns the game phase, from 0 in a bare endgame to TOTAL_PHASE
+	 * @return int
+	 */
+	public int getPhase() {
+		return Math.min(phase, TOTAL_PHASE);
+	}
+
+	public PawnTable getPawnTable() {
+		return pawnTable;
+	}
+
+	@Override
+	public void pieceAdded(Piece piece, int x, int y) {
+		PieceType type = piece.getPieceType();
+		if (type == null) {
+			return;
+		}
+		int index = type.ordinal(), player = piece.getPlayer();
+		middlegame[player] += valueOf(MIDDLEGAME, MIDDLEGAME_VALUES, index, player, x, y);
+		endgame[player] += valueOf(ENDGAME, ENDGAME_VALUES, index, player, x, y);
+		phase += PHASE_WEIGHTS[index];
+	}
+
+	@Override
+	public void pieceRemoved(Piece piece, int x, int y) {
+		PieceType type = piece.getPieceType();
+		if (type == null) {
+			return;
+		}
+		int index = type.ordinal(), player = piece.getPlayer();
+		middlegame[player] -= valueOf(MIDDLEGAME, MIDDLEGAME_VALUES, index, player, x, y);
+		endgame[player] -= valueOf(ENDGAME, ENDGAME_VALUES, index, player, x, y);
+		phase -= PHASE_WEIGHTS[index];
+	}
+
+	@Override
+	protected void reset() {
+		middlegame[0] = middlegame[1] = 0;
+		endgame[0] = endgame[1] = 0;
+		phase = 0;
+	}
+
+	@Override
+	protected int score(Board board, int player) {
+		int weight = getPhase();
+		int middlegameScore = middlegame[player] - middlegame[player ^ 1];
+		int endgameScore = endgame[player] - endgame[player ^ 1];
+		int entry = pawnTable.probe(board);
+		int sign = player == 0 ? 1 : -1;
+		middlegameScore += sign * pawnTable.getMiddlegame(entry)
+				+ pawnTable.getShelter(entry, board, player) - pawnTable.getShelter(entry, board, player ^ 1);
+		endgameScore += sign * pawnTable.getEndgame(entry);
+		return (middlegameScore * weight + endgameScore * (TOTAL_PHASE - weight)) / TOTAL_PHASE;
+	}
+
+	private static int valueOf(int[][][] tables, int[] values, int type, int player, int x, int y) {
+		if (x < 0 || x >= SIZE || y < 0 || y >= SIZE) {
+			return values[type];
+		}
+		return tables[type][player][y * SIZE + x];
+	}
+
+	/**
+	 * Adds the material values to the tables and lays them out by player,
+	 * indexed y * 8 + x
+	 * @param values
+	 * @param tables : One per PieceType, from White's side with rank 8 first
+	 * @return int[][][]
+	 */
+	private static int[][][] createTables(int[] values, int[]... tables) {
+		int[][][] result = new int[tables.length][2][SIZE * SIZE];
+		for (int type = 0; type < tables.length; type++) {
+			for (int y = 0; y < SIZE; y++) {
+				for (int x = 0; x < SIZE; x++) {
+					result[type][0][y * SIZE + x] = values[type] + tables[type][(SIZE - 1 - y) * SIZE + x];
+					result[type][1][y * SIZE + x] = values[type] + tables[type][y * SIZE + x];
+				}
+			}
+		}
+		return result;
+	}
+
+}
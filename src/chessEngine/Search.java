@@ -0,0 +1,540 @@
+package chessEngine;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import chessLayout.Board;
+import chessLayout.Move;
+import chessLayout.MoveList;
+import chessLayout.PieceType;
+
+
+
+/**
+ * Negamax alpha-beta search with iterative deepening
+ * Searches depth 1, 2, 3, ... until the depth or time limit is reached,
+ * keeping the best line (principal variation) of the last completed depth
+ * Lines end in a quiescence search of the captures, see quiescence
+ * Results are kept in a TranspositionTable, so each iteration starts
+ * from the best moves of the one before; the other moves are ordered
+ * by a MovePicker
+ * Scores are in centipawns from the point of view of the side to move;
+ * a forced mate scores MATE less the number of plies to it
+ */
+public class Search {
+
+	public static final int INFINITY = 32000;
+	public static final int MATE = 31000;
+	public static final int MAX_PLY = 128;
+	// Scores at least this large are mates
+	public static final int MATE_BOUND = MATE - MAX_PLY;
+
+	// Nodes between two looks at the clock
+	private static final int TIME_CHECK_INTERVAL = 1024;
+	// Piece values for static exchanges, the King outweighs everything else
+	private static final int[] EXCHANGE_VALUES = {100, 320, 330, 500, 900, 20000};
+	// Shallowest depth a null move is tried at
+	private static final int NULL_MOVE_MIN_DEPTH = 3;
+	// FUTILITY_MARGINS[depth] is the most a quiet move is expected to gain
+	private static final int[] FUTILITY_MARGINS = {0, 200, 500};
+	// Late-move reductions apply from this depth, after this many moves
+	private static final int LMR_MIN_DEPTH = 3;
+	private static final int LMR_MIN_MOVES = 3;
+	// REDUCTIONS[depth][moves searched], growing with both
+	private static final int[][] REDUCTIONS = new int[64][64];
+	static {
+		for (int depth = 1; depth < 64; depth++) {
+			for (int moves = 1; moves < 64; moves++) {
+				REDUCTIONS[depth][moves] = (int) (0.75 + Math.log(depth) * Math.log(moves) / 2.25);
+			}
+		}
+	}
+
+	private final Evaluator evaluator;
+	private final TranspositionTable table;
+	// One list and picker per ply, so that generating moves does not allocate
+	private final MoveList[] moveLists = new MoveList[MAX_PLY];
+	private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+	// Killers and history of this thread's searches
+	private final MoveHistory history = new MoveHistory(MAX_PLY);
+	// pv[ply] holds the best line from ply onwards, up to pvLength[ply]
+	private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+	private final int[] pvLength = new int[MAX_PLY + 1];
+	// Hash of each position on the current line, to find repetitions
+	private final long[] hashes = new long[MAX_PLY + 1];
+	private long nodes;
+	private long deadline;
+	private int rootDepth;
+	private boolean stopped;
+	// Set by another thread to end the search early, may be shared by several searches
+	private final AtomicBoolean stopSignal;
+	// False for the threads of a ParallelSearch, which manages the signal and table itself
+	private final boolean standalone;
+	// Helpers of a parallel search start deeper and try moves in their own order
+	private int depthOffset = 0;
+	private long random = 0;
+	private SearchOptions options = new SearchOptions();
+
+	/**
+	 * Constructor
+	 * Scores with piece-square tables, with a 16 MB table
+	 */
+	public Search() {
+		this(new PieceSquareEvaluator(), new TranspositionTable(16));
+	}
+
+	/**
+	 * Constructor
+	 * @param evaluator : Scores the positions at the end of each line
+	 * @param table : May be shared with other searches
+	 */
+	public Search(Evaluator evaluator, TranspositionTable table) {
+		this(evaluator, table, new AtomicBoolean(), true);
+	}
+	
+	/**
+	 * Constructor
+	 * @param evaluator
+	 * @param table
+	 * @param stopSignal : Ends the search once set
+	 * @param standalone : If true, each search clears the signal and starts a new
+	 * 					   search in the table, else whoever shares them must
+	 */
+	Search(Evaluator evaluator, TranspositionTable table, AtomicBoolean stopSignal, boolean standalone) {
+		this.evaluator = evaluator;
+		this.table = table;
+		this.stopSignal = stopSignal;
+		this.standalone = standalone;
+		for (int i = 0; i < MAX_PLY; i++) {
+			moveLists[i] = new MoveList();
+			pickers[i] = new MovePicker();
+		}
+	}
+
+	/**
+	 * Polymorphic function
+	 * Searches to the given depth without a time limit
+	 * @param board
+	 * @param player
+	 * @param depth
+	 * @return SearchResult
+	 */
+	public SearchResult search(Board board, int player, int depth) {
+		return search(board, player, depth, 0);
+	}
+
+	/**
+	 * Finds the best move for the given player
+	 * The board is changed during the search and restored when it ends
+	 * @param board
+	 * @param player : Searched for as the side to move
+	 * @param maxDepth : Deepest iteration, in plies
+	 * @param timeLimitMillis : Time after which no new iteration starts and the
+	 * 							running one is abandoned, 0 for none
+	 * @return SearchResult : Of the deepest completed iteration
+	 */
+	public SearchResult search(Board board, int player, int maxDepth, long timeLimitMillis) {
+		long start = System.nanoTime();
+		deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1000000 : Long.MAX_VALUE;
+		nodes = 0;
+		stopped = false;
+		if (standalone) {
+			stopSignal.set(false);
+			table.newSearch();
+		}
+		history.age();
+		int previousSide = board.getSideToMove();
+		board.setSideToMove(player);
+		SearchResult result = null;
+		maxDepth = Math.max(1, Math.min(maxDepth, MAX_PLY - 1));
+		for (rootDepth = 1 + depthOffset; rootDepth <= maxDepth; rootDepth++) {
+			int score = negamax(board, rootDepth, -INFINITY, INFINITY, 0, true);
+			if (stopped) {
+				// The unfinished iteration is not trusted
+				break;
+			}
+			result = new SearchResult(Arrays.copyOf(pv[0], pvLength[0]), score, rootDepth,
+					nodes, System.nanoTime() - start);
+			if (Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= rootDepth) {
+				// Deeper iterations cannot find a faster mate
+				break;
+			}
+			if (stopSignal.get()) {
+				break;
+			}
+		}
+		board.setSideToMove(previousSide);
+		return result;
+	}
+
+	/**
+	 * Ends a running search as soon as possible, from another thread
+	 * The result is that of the last completed iteration
+	 */
+	public void stop() {
+		stopSignal.set(true);
+	}
+	
+	/**
+	 * Makes this search a helper of a parallel search
+	 * Odd helpers start one ply deeper, and every helper breaks ties in
+	 * move ordering in an order of its own, so that the helpers
+	 * fill the shared table with different parts of the tree
+	 * @param id : 1 and up, 0 searches as usual
+	 */
+	void setHelper(int id) {
+		depthOffset = id & 1;
+		random = id == 0 ? 0 : 0x9E3779B97F4A7C15L * id;
+	}
+
+	/**
+	 * Sets which selective parts the search uses, for this and later searches
+	 * @param options
+	 */
+	public void setOptions(SearchOptions options) {
+		this.options = options;
+	}
+
+	public SearchOptions getOptions() {
+		return options;
+	}
+
+	/**
+	 * Searches the position to the given depth
+	 * Unless turned off in the options:
+	 * The first move is searched with the full window and the others with a
+	 * null window, which only proves them no better; one that is better
+	 * is searched again with the full window (principal variation search)
+	 * Outside the principal variation, a side whose position is good enough
+	 * even if it passes does not search its moves (null-move pruning)
+	 * Late quiet moves are searched less deep at first (late-move reductions)
+	 * Near the leaves, quiet moves are skipped when the evaluation is too far
+	 * below alpha for them to matter (futility pruning)
+	 * @param board
+	 * @param depth : Plies left to search
+	 * @param alpha : Score the side to move is already sure of
+	 * @param beta : Score the opponent is already sure of
+	 * @param ply : Plies from the root
+	 * @param nullAllowed : False right after a null move, so that two do not follow
+	 * @return int : Score for the side to move
+	 */
+	private int negamax(Board board, int depth, int alpha, int beta, int ply, boolean nullAllowed) {
+		pvLength[ply] = ply;
+		if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0) {
+			checkTime();
+		}
+		if (stopped) {
+			return 0;
+		}
+		int side = board.getSideToMove();
+		long hash = board.getHash();
+		hashes[ply] = hash;
+		if (ply > 0 && isRepetition(ply)) {
+			return 0;
+		}
+		if (ply >= MAX_PLY - 1) {
+			return evaluator.evaluate(board, side);
+		}
+		if (depth <= 0) {
+			return quiescence(board, alpha, beta, ply);
+		}
+		int originalAlpha = alpha;
+		int hashMove = Move.NONE;
+		long entry = table.probe(hash);
+		if (entry != 0) {
+			hashMove = TranspositionTable.getMove(entry);
+			if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.getScore(entry), ply);
+				int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.BOUND_EXACT
+						|| bound == TranspositionTable.BOUND_LOWER && score >= beta
+						|| bound == TranspositionTable.BOUND_UPPER && score <= alpha) {
+					return score;
+				}
+			}
+		}
+		MoveList moves = moveLists[ply];
+		board.generateMoves(side, moves);
+		boolean inCheck = board.check(side ^ 1);
+		if (moves.isEmpty()) {
+			// CheckMate, or StaleMate which is a draw
+			return inCheck ? -MATE + ply : 0;
+		}
+		boolean pvNode = beta - alpha > 1;
+		int staticEval = -INFINITY;
+		if (!inCheck && !pvNode && (options.isNullMovePruning() || options.isFutilityPruning())) {
+			staticEval = evaluator.evaluate(board, side);
+		}
+		if (options.isNullMovePruning() && nullAllowed && !inCheck && !pvNode && depth >= NULL_MOVE_MIN_DEPTH
+				&& staticEval >= beta && Math.abs(beta) < MATE_BOUND && hasPieces(board, side)) {
+			// With only Pawns, passing may be better than any move (zugzwang), so it is not tried
+			int reduction = depth > 6 ? 3 : 2;
+			board.makeNullMove();
+			int score = -negamax(board, depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+			board.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (score >= beta) {
+				// A mate found after passing is not proven
+				return score >= MATE_BOUND ? beta : score;
+			}
+		}
+		boolean futile = options.isFutilityPruning() && !inCheck && !pvNode && depth < FUTILITY_MARGINS.length
+				&& Math.abs(alpha) < MATE_BOUND && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+		if (random != 0) {
+			// Moves the picker scores the same are tried in list order
+			shuffle(moves);
+		}
+		MovePicker picker = pickers[ply];
+		picker.init(board, moves, hashMove, history, ply);
+		int bestScore = -INFINITY;
+		int bestMove = Move.NONE;
+		int searched = 0;
+		for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+			boolean late = searched > 0 && !inCheck && picker.isQuiet();
+			board.makeMove(move);
+			int reduction = 0;
+			if (late && (futile || options.isLateMoveReductions() && depth >= LMR_MIN_DEPTH
+					&& searched >= LMR_MIN_MOVES) && !board.check(side)) {
+				if (futile) {
+					board.unmakeMove();
+					continue;
+				}
+				reduction = Math.min(REDUCTIONS[Math.min(depth, 63)][Math.min(searched, 63)], depth - 2);
+			}
+			int score;
+			if (searched == 0) {
+				score = -negamax(board, depth - 1, -beta, -alpha, ply + 1, true);
+			} else {
+				// A reduced search that beats alpha is not trusted, it is searched again
+				score = reduction > 0 ? -negamax(board, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true) : alpha + 1;
+				if (score > alpha) {
+					if (options.isPrincipalVariationSearch()) {
+						score = -negamax(board, depth - 1, -alpha - 1, -alpha, ply + 1, true);
+						if (score > alpha && score < beta) {
+							score = -negamax(board, depth - 1, -beta, -alpha, ply + 1, true);
+						}
+					} else {
+						score = -negamax(board, depth - 1, -beta, -alpha, ply + 1, true);
+					}
+				}
+			}
+			board.unmakeMove();
+			searched++;
+			if (stopped) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if (alpha >= beta) {
+						if (picker.isQuiet()) {
+							updateHistory(board, picker, ply, depth);
+						}
+						break;
+					}
+				}
+			}
+		}
+		int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+				: bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+		table.store(hash, bestMove, toTable(bestScore, ply), depth, bound);
+		return bestScore;
+	}
+
+	/**
+	 * Tests if the player has a piece other than Pawns and Kings
+	 * @param board
+	 * @param player
+	 * @return boolean
+	 */
+	private static boolean hasPieces(Board board, int player) {
+		for (int i = 0; i < board.getPieceCount(player); i++) {
+			int type = MovePicker.typeOf(board.getPlayerPiece(player, i));
+			if (type != PieceType.PAWN.ordinal() && type != PieceType.KING.ordinal()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Searches captures only until the position is quiet, so that positions
+	 * are never evaluated in the middle of an exchange
+	 * The side to move may stand pat on the evaluation rather than capture,
+	 * except in Check, where every move is searched
+	 * Captures that lose material by static exchange and underpromotions
+	 * are not searched
+	 * @param board
+	 * @param alpha
+	 * @param beta
+	 * @param ply
+	 * @return int : Score for the side to move
+	 */
+	private int quiescence(Board board, int alpha, int beta, int ply) {
+		pvLength[ply] = ply;
+		if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0) {
+			checkTime();
+		}
+		if (stopped) {
+			return 0;
+		}
+		int side = board.getSideToMove();
+		if (ply >= MAX_PLY - 1) {
+			return evaluator.evaluate(board, side);
+		}
+		boolean inCheck = board.check(side ^ 1);
+		MoveList moves = moveLists[ply];
+		int bestScore;
+		if (inCheck) {
+			board.generateMoves(side, moves);
+			if (moves.isEmpty()) {
+				return -MATE + ply;
+			}
+			bestScore = -INFINITY;
+		} else {
+			bestScore = evaluator.evaluate(board, side);
+			if (bestScore >= beta) {
+				return bestScore;
+			}
+			alpha = Math.max(alpha, bestScore);
+			board.generateCaptures(side, moves);
+		}
+		MovePicker picker = pickers[ply];
+		picker.init(board, moves, Move.NONE, history, ply);
+		for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+			if (!inCheck) {
+				int promotion = Move.getFlags(move);
+				if (promotion != Move.NONE ? promotion != Move.PROMOTE_QUEEN
+						: board.staticExchange(move, EXCHANGE_VALUES) < 0) {
+					continue;
+				}
+			}
+			board.makeMove(move);
+			int score = -quiescence(board, -beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return bestScore;
+	}
+
+	/**
+	 * Makes the given move the head of the line at this ply,
+	 * followed by the best line found after it
+	 * @param ply
+	 * @param move
+	 */
+	private void updatePv(int ply, int move) {
+		pv[ply][ply] = move;
+		int length = pvLength[ply + 1];
+		System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+		pvLength[ply] = Math.max(length, ply + 1);
+	}
+
+	/**
+	 * Tests if the position at the given ply already occurred on the current line
+	 * Only positions with the same side to move, two plies apart, can match
+	 * @param ply
+	 * @return boolean
+	 */
+	private boolean isRepetition(int ply) {
+		for (int i = ply - 2; i >= 0; i -= 2) {
+			if (hashes[i] == hashes[ply]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void checkTime() {
+		// The first iteration always completes, so there is a move to return
+		if (rootDepth > 1 + depthOffset && (stopSignal.get() || System.nanoTime() > deadline)) {
+			stopped = true;
+		}
+	}
+	
+	/**
+	 * Rewards the quiet move that caused a cutoff, the last one handed out
+	 * by the picker, and punishes the quiet moves tried before it
+	 * @param board
+	 * @param picker
+	 * @param ply
+	 * @param depth : Deeper cutoffs count for more
+	 */
+	private void updateHistory(Board board, MovePicker picker, int ply, int depth) {
+		int side = board.getSideToMove();
+		int cutoff = picker.getCount() - 1;
+		int bonus = depth * depth;
+		history.addKiller(ply, picker.getMove(cutoff));
+		for (int i = 0; i <= cutoff; i++) {
+			if (!picker.isQuiet(i)) {
+				continue;
+			}
+			int move = picker.getMove(i);
+			int type = MovePicker.typeOf(board.getPiece(Move.getFromX(move), Move.getFromY(move)));
+			if (type >= 0) {
+				history.update(side, type, move, i == cutoff ? bonus : -bonus);
+			}
+		}
+	}
+	
+	/**
+	 * Puts the moves in a random order
+	 * @param moves
+	 */
+	private void shuffle(MoveList moves) {
+		for (int i = moves.size() - 1; i > 0; i--) {
+			// xorshift64
+			random ^= random << 13;
+			random ^= random >>> 7;
+			random ^= random << 17;
+			moves.swap(i, (int) ((random >>> 1) % (i + 1)));
+		}
+	}
+
+	/**
+	 * Mate scores count plies from the root, the table stores
+	 * them counting from the position itself
+	 */
+	private static int toTable(int score, int ply) {
+		if (score >= MATE_BOUND) {
+			return score + ply;
+		} else if (score <= -MATE_BOUND) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= MATE_BOUND) {
+			return score - ply;
+		} else if (score <= -MATE_BOUND) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Returns the number of positions visited by the last or running search
+	 * @return long
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+}
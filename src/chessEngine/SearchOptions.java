@@ -0,0 +1,80 @@
+package chessEngine;
+
+
+
+/**
+ * Switches for the selective parts of Search, all on by default
+ * Each can be turned off on its own, to measure what it is worth
+ * with a search of fixed depth
+ * Null-move and futility pruning only act in null-window searches, which
+ * principal variation search and late-move reductions start
+ * Read as the search runs, so change them between searches only
+ */
+public class SearchOptions {
+
+	// Searches every move after the first with a null window, see Search
+	private boolean principalVariationSearch = true;
+	// Lets the opponent move twice to prove a position is good enough
+	private boolean nullMovePruning = true;
+	// Searches late quiet moves less deep unless they prove better
+	private boolean lateMoveReductions = true;
+	// Skips quiet moves near the leaves that cannot raise the score enough
+	private boolean futilityPruning = true;
+
+	/**
+	 * Returns options with every selective part turned off,
+	 * i.e. a plain alpha-beta search
+	 * @return SearchOptions
+	 */
+	public static SearchOptions none() {
+		SearchOptions options = new SearchOptions();
+		options.principalVariationSearch = false;
+		options.nullMovePruning = false;
+		options.lateMoveReductions = false;
+		options.futilityPruning = false;
+		return options;
+	}
+
+	public boolean isPrincipalVariationSearch() {
+		return principalVariationSearch;
+	}
+
+	public SearchOptions setPrincipalVariationSearch(boolean principalVariationSearch) {
+		this.principalVariationSearch = principalVariationSearch;
+		return this;
+	}
+
+	public boolean isNullMovePruning() {
+		return nullMovePruning;
+	}
+
+	public SearchOptions setNullMovePruning(boolean nullMovePruning) {
+		this.nullMovePruning = nullMovePruning;
+		return this;
+	}
+
+	public boolean isLateMoveReductions() {
+		return lateMoveReductions;
+	}
+
+	public SearchOptions setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+		return this;
+	}
+
+	public boolean isFutilityPruning() {
+		return futilityPruning;
+	}
+
+	public SearchOptions setFutilityPruning(boolean futilityPruning) {
+		this.futilityPruning = futilityPruning;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "pvs " + principalVariationSearch + ", null move " + nullMovePruning
+				+ ", lmr " + lateMoveReductions + ", futility " + futilityPruning;
+	}
+
+}
@@ -0,0 +1,103 @@
+package chessEngine;
+
+import chessLayout.Move;
+
+
+
+/**
+ * Outcome of a search: the best move found, its score,
+ * the moves expected to follow and how much work it took
+ */
+public class SearchResult {
+
+	private final int bestMove;
+	private final int score;
+	private final int depth;
+	private final int[] principalVariation;
+	private final long nodes;
+	private final long nanos;
+
+	/**
+	 * Constructor
+	 * @param principalVariation : Best line found, starting with the best move
+	 * @param score : From the point of view of the player searched for
+	 * @param depth : Depth of the last completed iteration
+	 * @param nodes : Positions visited
+	 * @param nanos : Time taken
+	 */
+	public SearchResult(int[] principalVariation, int score, int depth, long nodes, long nanos) {
+		this.principalVariation = principalVariation;
+		this.bestMove = principalVariation.length > 0 ? principalVariation[0] : Move.NONE;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * Returns the best move, packed by chessLayout.Move
+	 * @return int : Move.NONE if the player had no legal move
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the best line found, starting with the best move
+	 * @return int[]
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getTimeMillis() {
+		return nanos / 1000000;
+	}
+
+	public long getNodesPerSecond() {
+		return nodes * 1000000000L / Math.max(1, nanos);
+	}
+
+	/**
+	 * Tests if the score is a forced mate, for either player
+	 * @return boolean
+	 */
+	public boolean isMate() {
+		return Math.abs(score) >= Search.MATE_BOUND;
+	}
+
+	/**
+	 * Returns the number of moves to the mate, negative if the player gets mated
+	 * @return int : 0 unless isMate()
+	 */
+	public int getMateIn() {
+		if (!isMate()) {
+			return 0;
+		}
+		int plies = Search.MATE - Math.abs(score);
+		return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder line = new StringBuilder();
+		for (int move:principalVariation) {
+			line.append(' ').append(Move.toString(move));
+		}
+		return "depth " + depth + " score " + (isMate() ? "mate " + getMateIn() : score + "cp")
+				+ " nodes " + nodes + " nps " + getNodesPerSecond() + " pv" + line;
+	}
+
+}
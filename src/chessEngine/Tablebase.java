@@ -0,0 +1,302 @@
+package chessEngine;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import chessLayout.Board;
+import chessLayout.Piece;
+import chessLayout.PieceType;
+import chessLayout.RectangularBoard;
+
+
+
+/**
+ * Probes endgame tables made by TablebaseGenerator, one file per material
+ * in a directory, e.g. KQvK.tb, memory-mapped when first needed
+ * A table holds for every position whether the side to move wins, loses
+ * or draws, and in how many plies the mate comes with best play
+ * Positions with castling rights or an en passant square are not covered
+ *
+ * File layout, big-endian:
+ * int MAGIC, int VERSION, int entries, int bits per entry, short name
+ * length, the name in ASCII, then the entries packed bits per entry apiece,
+ * lowest bits first, indexed as in TablebaseMaterial
+ * An entry is 0 for a draw (or an impossible position), else 1 more than
+ * the plies to mate: odd plies if the side to move mates, even if it is mated
+ */
+public class Tablebase {
+
+	public static final int MAGIC = 0x54424C31;
+	public static final int VERSION = 1;
+	public static final String EXTENSION = ".tb";
+	// Returned by probe for positions no table covers
+	public static final int NOT_FOUND = Integer.MIN_VALUE;
+	private static final int HEADER = 18;
+
+	private final File directory;
+	// Mapped tables by material signature, MISSING for materials without a file
+	private final AtomicReferenceArray<Table> tables = new AtomicReferenceArray<Table>(TablebaseMaterial.SIGNATURES);
+	private static final Table MISSING = new Table(null, null, false);
+	// Arrays probe works in, one set per thread
+	private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	/**
+	 * Constructor
+	 * @param directory : Where the table files are
+	 */
+	public Tablebase(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Looks up the position on the board
+	 * Safe to call from many threads, allocates nothing once the table is mapped
+	 * @param board : An 8x8 board
+	 * @return int : From the side to move's point of view, Search.MATE less the plies
+	 * 				 to mate if it mates, the negative if it is mated, 0 for a draw;
+	 * 				 NOT_FOUND if there is no table for the position
+	 */
+	public int probe(Board board) {
+		if (!(board instanceof RectangularBoard) || ((RectangularBoard) board).getWidth() != TablebaseMaterial.SIZE
+				|| ((RectangularBoard) board).getHeight() != TablebaseMaterial.SIZE
+				|| board.getPieceCount(0) + board.getPieceCount(1) > TablebaseMaterial.MAX_PIECES) {
+			return NOT_FOUND;
+		}
+		for (int x = 0; x < TablebaseMaterial.SIZE; x++) {
+			if (board.isEnPassantSquare(x, 2) || board.isEnPassantSquare(x, TablebaseMaterial.SIZE - 3)) {
+				return NOT_FOUND;
+			}
+		}
+		Scratch scratch = this.scratch.get();
+		int[] counts = scratch.counts;
+		Arrays.fill(counts, 0);
+		for (int player = 0; player < 2; player++) {
+			boolean unmovedKing = false, unmovedRook = false;
+			for (int i = 0; i < board.getPieceCount(player); i++) {
+				Piece piece = board.getPlayerPiece(player, i);
+				PieceType type = piece.getPieceType();
+				if (type == null) {
+					return NOT_FOUND;
+				}
+				unmovedKing |= type == PieceType.KING && !piece.hasMoved();
+				unmovedRook |= type == PieceType.ROOK && !piece.hasMoved();
+				counts[player * TablebaseMaterial.TYPES + type.ordinal()]++;
+			}
+			if (unmovedKing && unmovedRook) {
+				return NOT_FOUND;
+			}
+		}
+		int signature = TablebaseMaterial.signature(counts);
+		Table table = signature < 0 ? MISSING : table(signature, counts);
+		if (table == MISSING) {
+			return NOT_FOUND;
+		}
+		// Where each kind of piece starts in the table's layout, see TablebaseMaterial
+		int[] next = scratch.next;
+		int start = 0;
+		for (int player = 0; player < 2; player++) {
+			int from = (table.flipped ? player ^ 1 : player) * TablebaseMaterial.TYPES;
+			for (int type = TablebaseMaterial.KING; type >= TablebaseMaterial.PAWN; type--) {
+				next[player * TablebaseMaterial.TYPES + type] = start;
+				start += counts[from + type];
+			}
+		}
+		// Swapping the colours mirrors the ranks
+		int flip = table.flipped ? TablebaseMaterial.SQUARES - TablebaseMaterial.SIZE : 0;
+		int[] squares = scratch.squares;
+		for (int player = 0; player < 2; player++) {
+			int slot = (table.flipped ? player ^ 1 : player) * TablebaseMaterial.TYPES;
+			for (int i = 0; i < board.getPieceCount(player); i++) {
+				Piece piece = board.getPlayerPiece(player, i);
+				squares[next[slot + piece.getPieceType().ordinal()]++] = (piece.getY() * TablebaseMaterial.SIZE + piece.getX()) ^ flip;
+			}
+		}
+		int side = table.flipped ? board.getSideToMove() ^ 1 : board.getSideToMove();
+		return score(read(table.data, table.material.index(squares, side)));
+	}
+
+	/**
+	 * Returns the table of a material, mapping it on first use
+	 * @param signature : Of the counts
+	 * @param counts : See TablebaseMaterial.signature
+	 * @return Table : MISSING if there is no table of the material,
+	 * 				   nor of the material with the colours swapped
+	 */
+	private Table table(int signature, int[] counts) {
+		Table table = tables.get(signature);
+		if (table == null) {
+			TablebaseMaterial material = TablebaseMaterial.of(counts, false);
+			ByteBuffer data = map(new File(directory, material.name + EXTENSION));
+			boolean flipped = data == null;
+			if (flipped) {
+				material = TablebaseMaterial.of(counts, true);
+				data = map(new File(directory, material.name + EXTENSION));
+			}
+			tables.compareAndSet(signature, null, data == null ? MISSING : new Table(material, data, flipped));
+			table = tables.get(signature);
+		}
+		return table;
+	}
+
+	/**
+	 * Converts an entry to a score
+	 * @param value : An entry, see the class comment
+	 * @return int : See probe
+	 */
+	static int score(int value) {
+		if (value == 0) {
+			return 0;
+		}
+		int plies = value - 1;
+		return plies % 2 == 1 ? Search.MATE - plies : -(Search.MATE - plies);
+	}
+
+	/**
+	 * Maps a table file
+	 * @param file
+	 * @return ByteBuffer : null if the file is absent or not a table
+	 */
+	private static ByteBuffer map(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			RandomAccessFile in = new RandomAccessFile(file, "r");
+			try {
+				ByteBuffer table = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+				if (table.capacity() < HEADER || table.getInt(0) != MAGIC || table.getInt(4) != VERSION) {
+					return null;
+				}
+				return table;
+			} finally {
+				// The mapping outlives the file
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reads an entry of a mapped table
+	 * @param table
+	 * @param index
+	 * @return int
+	 */
+	private static int read(ByteBuffer table, int index) {
+		int bits = table.getInt(12);
+		int offset = HEADER + table.getShort(16);
+		return get(table, offset, bits, index);
+	}
+
+	/**
+	 * Reads a packed entry, which spans two bytes at most
+	 * @param data
+	 * @param offset : Of the first entry
+	 * @param bits : Per entry, at most 8
+	 * @param index
+	 * @return int
+	 */
+	static int get(ByteBuffer data, int offset, int bits, int index) {
+		long bit = (long) index * bits;
+		int at = offset + (int) (bit >>> 3);
+		int word = data.get(at) & 0xFF;
+		if (at + 1 < data.capacity()) {
+			word |= (data.get(at + 1) & 0xFF) << 8;
+		}
+		return (word >>> (int) (bit & 7)) & ((1 << bits) - 1);
+	}
+
+	/**
+	 * Writes a table in the layout probe reads
+	 * @param out
+	 * @param name
+	 * @param values : One entry per position, each below 256
+	 * @throws IOException
+	 */
+	static void write(DataOutputStream out, String name, byte[] values) throws IOException {
+		int largest = 1;
+		for (byte value:values) {
+			largest = Math.max(largest, value & 0xFF);
+		}
+		int bits = 32 - Integer.numberOfLeadingZeros(largest);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(values.length);
+		out.writeInt(bits);
+		out.writeShort(name.length());
+		out.writeBytes(name);
+		long buffer = 0;
+		int buffered = 0;
+		for (byte value:values) {
+			buffer |= (long) (value & 0xFF) << buffered;
+			buffered += bits;
+			while (buffered >= 8) {
+				out.writeByte((int) buffer);
+				buffer >>>= 8;
+				buffered -= 8;
+			}
+		}
+		if (buffered > 0) {
+			out.writeByte((int) buffer);
+		}
+	}
+
+	/**
+	 * Reads back every entry of a table file, for generating larger tables
+	 * @param file
+	 * @param material : The table's
+	 * @return byte[] : One entry per position, null if the file is not that table
+	 * @throws IOException
+	 */
+	static byte[] readAll(File file, TablebaseMaterial material) throws IOException {
+		ByteBuffer table = map(file);
+		if (table == null || table.getInt(8) != material.size) {
+			return null;
+		}
+		int bits = table.getInt(12);
+		int offset = HEADER + table.getShort(16);
+		byte[] values = new byte[material.size];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (byte) get(table, offset, bits, i);
+		}
+		return values;
+	}
+
+	/**
+	 * A mapped table and the material it is laid out for
+	 */
+	private static final class Table {
+
+		final TablebaseMaterial material;
+		final ByteBuffer data;
+		// Whether the table is of the material with the colours swapped
+		final boolean flipped;
+
+		Table(TablebaseMaterial material, ByteBuffer data, boolean flipped) {
+			this.material = material;
+			this.data = data;
+			this.flipped = flipped;
+		}
+	}
+
+	private static final class Scratch {
+
+		// Pieces of each kind, by player * TablebaseMaterial.TYPES + type
+		final int[] counts = new int[2 * TablebaseMaterial.TYPES];
+		// Index in squares of the next piece of each kind
+		final int[] next = new int[2 * TablebaseMaterial.TYPES];
+		final int[] squares = new int[TablebaseMaterial.MAX_PIECES];
+	}
+
+}
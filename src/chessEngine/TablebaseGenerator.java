@@ -0,0 +1,566 @@
+package chessEngine;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chessLayout.AttackTables;
+
+
+
+/**
+ * Builds endgame tables for Tablebase by retrograde analysis
+ * Every position of the material is first marked impossible, mated,
+ * stalemated or unresolved. Then pass n resolves the positions mated or
+ * mating in exactly n plies: on odd passes those with a move to a position
+ * lost in n - 1 plies, on even passes those whose every move leads to a
+ * position already won. Positions still unresolved once passes stop
+ * resolving any are draws
+ * Captures and promotions lead to smaller tables, which are generated
+ * first, or read from the directory if they are already there
+ * Each pass is split among the threads; a pass only writes positions it
+ * resolves and only reads positions resolved in earlier passes, so the
+ * threads need not coordinate
+ * Castling and en passant are left out, as the pieces of chessPieces
+ * only castle or take en passant in positions the tables do not cover
+ */
+public class TablebaseGenerator {
+
+	// Entries while generating; 1 to 253 are plies to mate plus 1, as in the file
+	private static final byte UNRESOLVED = 0;
+	private static final byte STALEMATE = (byte) 254;
+	private static final byte IMPOSSIBLE = (byte) 255;
+	private static final int MAX_VALUE = 253;
+	private static final int CHUNKS_PER_THREAD = 8;
+	private static final int[] PROMOTIONS = {TablebaseMaterial.QUEEN, TablebaseMaterial.ROOK,
+			TablebaseMaterial.BISHOP, TablebaseMaterial.KNIGHT};
+
+	private final File directory;
+	private final int threads;
+	// Entries of each table generated or read so far, by name
+	private final Map<String, byte[]> tables = new HashMap<String, byte[]>();
+
+	/**
+	 * Constructor
+	 * @param directory : Where tables are written, and read from if already there
+	 * @param threads : At least 1
+	 */
+	public TablebaseGenerator(File directory, int threads) {
+		this.directory = directory;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Generates the named tables, e.g. "KQvK KRvK KPvK", into a directory
+	 * @param args : The directory, then the materials
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		TablebaseGenerator generator = new TablebaseGenerator(new File(args[0]), Runtime.getRuntime().availableProcessors());
+		for (int i = 1; i < args.length; i++) {
+			long start = System.currentTimeMillis();
+			generator.generate(args[i]);
+			System.out.println(args[i] + " " + (System.currentTimeMillis() - start) + " ms");
+		}
+	}
+
+	/**
+	 * Generates the table of a material, and every smaller table it needs
+	 * Tables already in the directory are read instead
+	 * @param name : e.g. "KQvK", see TablebaseMaterial
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void generate(String name) throws IOException, InterruptedException {
+		generate(TablebaseMaterial.parse(name));
+	}
+
+	private byte[] generate(TablebaseMaterial material) throws IOException, InterruptedException {
+		byte[] values = tables.get(material.name);
+		if (values != null) {
+			return values;
+		}
+		File file = new File(directory, material.name + Tablebase.EXTENSION);
+		values = file.isFile() ? Tablebase.readAll(file, material) : null;
+		if (values == null) {
+			Transition[] transitions = transitions(material);
+			values = solve(material, transitions);
+			directory.mkdirs();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			try {
+				Tablebase.write(out, material.name, values);
+			} finally {
+				out.close();
+			}
+		}
+		tables.put(material.name, values);
+		return values;
+	}
+
+	/**
+	 * Finds the smaller tables each capture and promotion leads to, generating them
+	 * @param material
+	 * @return Transition[] : Indexed by transition, null where none can happen
+	 */
+	private Transition[] transitions(TablebaseMaterial material) throws IOException, InterruptedException {
+		int count = material.types.length;
+		Transition[] result = new Transition[(count + 1) * (count + 1) * PROMOTIONS.length];
+		for (int captured = -1; captured < count; captured++) {
+			if (captured >= 0 && material.types[captured] == TablebaseMaterial.KING) {
+				continue;
+			}
+			for (int promoted = -1; promoted < count; promoted++) {
+				if (promoted >= 0 && (material.types[promoted] != TablebaseMaterial.PAWN
+						|| (captured >= 0 && material.players[captured] == material.players[promoted]))) {
+					continue;
+				}
+				for (int p = 0; p < (promoted < 0 ? 1 : PROMOTIONS.length); p++) {
+					if (captured < 0 && promoted < 0) {
+						continue;
+					}
+					Transition transition = new Transition(material, captured, promoted, PROMOTIONS[p]);
+					transition.values = generate(transition.material);
+					result[transitionIndex(count, captured, promoted, p)] = transition;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static int transitionIndex(int count, int captured, int promoted, int promotion) {
+		return ((captured + 1) * (count + 1) + promoted + 1) * PROMOTIONS.length + promotion;
+	}
+
+	/**
+	 * Fills the table of a material, pass by pass
+	 * @param material
+	 * @param transitions
+	 * @return byte[] : The entries as written to the file
+	 */
+	private byte[] solve(TablebaseMaterial material, Transition[] transitions) throws InterruptedException {
+		byte[] values = new byte[material.size];
+		// Wins and losses of the smaller tables may resolve positions late
+		int longest = 0;
+		for (Transition transition:transitions) {
+			if (transition != null) {
+				for (byte value:transition.values) {
+					longest = Math.max(longest, value & 0xFF);
+				}
+			}
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			int lastResolved = 0;
+			for (int pass = 0; pass <= longest + 1 || pass - lastResolved < 2; pass++) {
+				if (pass >= MAX_VALUE) {
+					throw new IllegalStateException(material.name + " has mates longer than " + (MAX_VALUE - 1) + " plies");
+				}
+				if (runPass(pool, material, transitions, values, pass) > 0) {
+					lastResolved = pass;
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == STALEMATE || values[i] == IMPOSSIBLE) {
+				values[i] = 0;
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Runs one pass over every position, split among the threads
+	 * @return long : Positions resolved
+	 */
+	private long runPass(ExecutorService pool, final TablebaseMaterial material, final Transition[] transitions,
+			final byte[] values, final int pass) throws InterruptedException {
+		int chunks = threads * CHUNKS_PER_THREAD;
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (int i = 0; i < chunks; i++) {
+			final int from = (int) ((long) values.length * i / chunks);
+			final int to = (int) ((long) values.length * (i + 1) / chunks);
+			tasks.add(new Callable<Long>() {
+				@Override
+				public Long call() {
+					Worker worker = new Worker(material, transitions, values);
+					long resolved = 0;
+					for (int index = from; index < to; index++) {
+						if (values[index] == UNRESOLVED) {
+							byte value = worker.examine(index, pass);
+							if (value != UNRESOLVED) {
+								values[index] = value;
+								resolved++;
+							}
+						}
+					}
+					return resolved;
+				}
+			});
+		}
+		long resolved = 0;
+		try {
+			for (Future<Long> result:pool.invokeAll(tasks)) {
+				resolved += result.get();
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return resolved;
+	}
+
+	/**
+	 * A capture or promotion, and the table it leads to
+	 */
+	private static final class Transition {
+
+		final TablebaseMaterial material;
+		// For each piece of the smaller table, the piece it was
+		final int[] source;
+		byte[] values;
+
+		Transition(TablebaseMaterial from, int captured, int promoted, int promotion) {
+			int count = from.types.length - (captured >= 0 ? 1 : 0);
+			int[] types = new int[count], players = new int[count], pieces = new int[count];
+			int j = 0;
+			for (int i = 0; i < from.types.length; i++) {
+				if (i != captured) {
+					types[j] = i == promoted ? promotion : from.types[i];
+					players[j] = from.players[i];
+					pieces[j++] = i;
+				}
+			}
+			int[] order = new int[count];
+			material = TablebaseMaterial.of(types, players, order);
+			source = new int[count];
+			for (int i = 0; i < count; i++) {
+				source[i] = pieces[order[i]];
+			}
+		}
+
+	}
+
+	/**
+	 * Examines positions of one table for one thread
+	 */
+	private static final class Worker {
+
+		private final TablebaseMaterial material;
+		private final Transition[] transitions;
+		private final byte[] values;
+		private final int count;
+		private final int[] squares;
+		// Squares of the position a move leads to, as indexed, without and with a capture
+		private final int[] childSquares;
+		private final int[] smallerSquares;
+		// Piece on each square, -1 for none
+		private final int[] pieceAt = new int[TablebaseMaterial.SQUARES];
+		private long occupied;
+		private final long[] colours = new long[2];
+		private final boolean[] captured;
+
+		Worker(TablebaseMaterial material, Transition[] transitions, byte[] values) {
+			this.material = material;
+			this.transitions = transitions;
+			this.values = values;
+			count = material.types.length;
+			squares = new int[count];
+			childSquares = new int[count];
+			smallerSquares = new int[count - 1];
+			captured = new boolean[count];
+			Arrays.fill(pieceAt, -1);
+		}
+
+		/**
+		 * Tries to resolve a position in the given pass
+		 * @param index
+		 * @param pass
+		 * @return byte : The position's entry, UNRESOLVED if this pass cannot tell
+		 */
+		byte examine(int index, int pass) {
+			int side = material.decode(index, squares);
+			if (!place()) {
+				return pass == 0 ? IMPOSSIBLE : UNRESOLVED;
+			}
+			try {
+				if (pass == 0) {
+					return first(side);
+				}
+				return resolve(side, pass);
+			} finally {
+				for (int i = 0; i < count; i++) {
+					pieceAt[squares[i]] = -1;
+				}
+			}
+		}
+
+		/**
+		 * Sets up the boards of the decoded position
+		 * @return boolean : False if two pieces share a square, pieceAt is then left empty
+		 */
+		private boolean place() {
+			occupied = 0;
+			colours[0] = colours[1] = 0;
+			for (int i = 0; i < count; i++) {
+				long bit = 1L << squares[i];
+				if ((occupied & bit) != 0) {
+					for (int j = 0; j < i; j++) {
+						pieceAt[squares[j]] = -1;
+					}
+					return false;
+				}
+				occupied |= bit;
+				colours[material.players[i]] |= bit;
+				pieceAt[squares[i]] = i;
+				captured[i] = false;
+			}
+			return true;
+		}
+
+		/**
+		 * Marks a position impossible, mated, stalemated or unresolved
+		 * @param side
+		 * @return byte
+		 */
+		private byte first(int side) {
+			for (int i = 0; i < count; i++) {
+				int rank = squares[i] / TablebaseMaterial.SIZE;
+				if (material.types[i] == TablebaseMaterial.PAWN && (rank == 0 || rank == TablebaseMaterial.SIZE - 1)) {
+					return IMPOSSIBLE;
+				}
+			}
+			if (attacked(squares[king(side ^ 1)], side)) {
+				return IMPOSSIBLE;
+			}
+			if (moves(side, 0) > 0) {
+				return UNRESOLVED;
+			}
+			return attacked(squares[king(side)], side ^ 1) ? (byte) 1 : STALEMATE;
+		}
+
+		/**
+		 * Resolves a position mating in pass plies (odd passes)
+		 * or mated in pass plies (even passes)
+		 * @param side
+		 * @param pass
+		 * @return byte
+		 */
+		private byte resolve(int side, int pass) {
+			return moves(side, pass) > 0 ? (byte) (pass + 1) : UNRESOLVED;
+		}
+
+		/**
+		 * Goes through the legal moves of the side to move
+		 * Pass 0 counts them; an odd pass looks for a move to a position
+		 * lost in pass - 1 plies, an even pass checks that every move leads
+		 * to a position won in fewer than pass plies
+		 * @param side
+		 * @param pass
+		 * @return int : Pass 0: the number of moves, else 1 if the position
+		 * 				 is resolved in this pass, 0 if not
+		 */
+		private int moves(int side, int pass) {
+			int legal = 0;
+			long own = colours[side], enemy = colours[side ^ 1];
+			for (int i = 0; i < count; i++) {
+				if (material.players[i] != side) {
+					continue;
+				}
+				int from = squares[i];
+				long targets;
+				switch (material.types[i]) {
+					case TablebaseMaterial.PAWN:
+						targets = pawnTargets(side, from) | (AttackTables.pawnAttacks(side, from) & enemy);
+						break;
+					case TablebaseMaterial.KNIGHT:
+						targets = AttackTables.knightAttacks(from);
+						break;
+					case TablebaseMaterial.BISHOP:
+						targets = AttackTables.bishopAttacks(from, occupied);
+						break;
+					case TablebaseMaterial.ROOK:
+						targets = AttackTables.rookAttacks(from, occupied);
+						break;
+					case TablebaseMaterial.QUEEN:
+						targets = AttackTables.queenAttacks(from, occupied);
+						break;
+					default:
+						targets = AttackTables.kingAttacks(from);
+						break;
+				}
+				for (targets &= ~own; targets != 0; targets &= targets - 1) {
+					int to = Long.numberOfTrailingZeros(targets);
+					boolean promotes = material.types[i] == TablebaseMaterial.PAWN
+							&& (to / TablebaseMaterial.SIZE == 0 || to / TablebaseMaterial.SIZE == TablebaseMaterial.SIZE - 1);
+					for (int p = 0; p < (promotes ? PROMOTIONS.length : 1); p++) {
+						int value = child(side, i, to, promotes ? p : -1);
+						if (value < 0) {
+							continue;
+						}
+						legal++;
+						if (pass % 2 == 1 && pass > 0 && value == pass) {
+							return 1;
+						}
+						if (pass % 2 == 0 && pass > 0 && (value < 2 || value > pass || (value - 1) % 2 == 0)) {
+							return 0;
+						}
+					}
+				}
+			}
+			if (pass == 0) {
+				return legal;
+			}
+			// Odd pass: no move lost for the opponent; even pass: every move won for it
+			return pass % 2 == 1 ? 0 : (legal > 0 ? 1 : 0);
+		}
+
+		/**
+		 * Returns the squares a Pawn moves to without taking
+		 * @param side
+		 * @param from
+		 * @return long
+		 */
+		private long pawnTargets(int side, int from) {
+			int step = side == 0 ? TablebaseMaterial.SIZE : -TablebaseMaterial.SIZE;
+			int to = from + step;
+			if ((occupied & (1L << to)) != 0) {
+				return 0;
+			}
+			long targets = 1L << to;
+			int rank = from / TablebaseMaterial.SIZE;
+			if (rank == (side == 0 ? 1 : TablebaseMaterial.SIZE - 2) && (occupied & (1L << (to + step))) == 0) {
+				targets |= 1L << (to + step);
+			}
+			return targets;
+		}
+
+		/**
+		 * Plays a move, looks up the position it leads to and takes it back
+		 * @param side
+		 * @param piece
+		 * @param to
+		 * @param promotion : Index into PROMOTIONS, -1 if the move does not promote
+		 * @return int : The entry of the position, -1 if the move is illegal
+		 */
+		private int child(int side, int piece, int to, int promotion) {
+			int from = squares[piece];
+			int victim = pieceAt[to];
+			long fromBit = 1L << from, toBit = 1L << to;
+			// Make
+			squares[piece] = to;
+			occupied = (occupied & ~fromBit) | toBit;
+			colours[side] = (colours[side] & ~fromBit) | toBit;
+			if (victim >= 0) {
+				captured[victim] = true;
+				colours[side ^ 1] &= ~toBit;
+			}
+			int value = -1;
+			if (!attacked(squares[king(side)], side ^ 1)) {
+				value = lookUp(side ^ 1, victim, promotion < 0 ? -1 : piece, promotion);
+			}
+			// Unmake
+			squares[piece] = from;
+			occupied |= fromBit;
+			colours[side] = (colours[side] & ~toBit) | fromBit;
+			if (victim >= 0) {
+				captured[victim] = false;
+				colours[side ^ 1] |= toBit;
+			} else {
+				occupied &= ~toBit;
+			}
+			return value;
+		}
+
+		/**
+		 * Returns the entry of the position on the boards
+		 * @param side : To move
+		 * @param victim : Piece just taken, -1 for none
+		 * @param promoted : Pawn just promoted, -1 for none
+		 * @param promotion : Index into PROMOTIONS
+		 * @return int
+		 */
+		private int lookUp(int side, int victim, int promoted, int promotion) {
+			if (victim < 0 && promoted < 0) {
+				System.arraycopy(squares, 0, childSquares, 0, count);
+				return values[material.index(childSquares, side)] & 0xFF;
+			}
+			Transition transition = transitions[transitionIndex(count, victim, promoted, Math.max(promotion, 0))];
+			int[] target = transition.source.length == count ? childSquares : smallerSquares;
+			for (int i = 0; i < target.length; i++) {
+				target[i] = squares[transition.source[i]];
+			}
+			return transition.values[transition.material.index(target, side)] & 0xFF;
+		}
+
+		/**
+		 * Tests if any piece of a player, other than ones just taken, attacks a square
+		 * @param square
+		 * @param player
+		 * @return boolean
+		 */
+		private boolean attacked(int square, int player) {
+			long bit = 1L << square;
+			for (int i = 0; i < count; i++) {
+				if (material.players[i] != player || captured[i]) {
+					continue;
+				}
+				int from = squares[i];
+				long attacks;
+				switch (material.types[i]) {
+					case TablebaseMaterial.PAWN:
+						attacks = AttackTables.pawnAttacks(player, from);
+						break;
+					case TablebaseMaterial.KNIGHT:
+						attacks = AttackTables.knightAttacks(from);
+						break;
+					case TablebaseMaterial.BISHOP:
+						attacks = AttackTables.bishopAttacks(from, occupied);
+						break;
+					case TablebaseMaterial.ROOK:
+						attacks = AttackTables.rookAttacks(from, occupied);
+						break;
+					case TablebaseMaterial.QUEEN:
+						attacks = AttackTables.queenAttacks(from, occupied);
+						break;
+					default:
+						attacks = AttackTables.kingAttacks(from);
+						break;
+				}
+				if ((attacks & bit) != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the index of a player's King, which leads its pieces
+		 * @param player
+		 * @return int
+		 */
+		private int king(int player) {
+			if (player == 0) {
+				return 0;
+			}
+			int i = 0;
+			while (material.players[i] == 0) {
+				i++;
+			}
+			return i;
+		}
+
+	}
+
+}
@@ -0,0 +1,255 @@
+package chessEngine;
+import java.util.Arrays;
+
+
+
+/**
+ * The pieces of one endgame table, e.g. KQvK, and how its positions are indexed
+ * Pieces are laid out White's first, then Black's, each King first and the
+ * others from the Queen down to the Pawn; the name lists them the same way
+ *
+ * A position is one square per piece, indexed y * 8 + x like BitBoard, and
+ * the side to move. Mirroring the board does not change a position's value,
+ * so only positions with White's King in one corner of the board are kept:
+ * in the a1-d1-d4 triangle, or on files a to d if there are Pawns, which
+ * may only be mirrored left to right
+ * index = ((kingSlot * 64 + square1) * 64 + square2 ...) * 2 + side to move
+ */
+final class TablebaseMaterial {
+
+	static final int SIZE = 8;
+	static final int SQUARES = SIZE * SIZE;
+	// Kings included
+	static final int MAX_PIECES = 5;
+	// Piece letters by PieceType ordinal
+	private static final String LETTERS = "PNBRQK";
+	static final int PAWN = 0;
+	static final int KNIGHT = 1;
+	static final int BISHOP = 2;
+	static final int ROOK = 3;
+	static final int QUEEN = 4;
+	static final int KING = 5;
+	// Piece counts are kept by player * TYPES + type
+	static final int TYPES = 6;
+	// A signature has a digit per piece besides the Kings, at most
+	// MAX_PIECES - 2 of them, each 1 more than the piece's count slot
+	private static final int DIGITS = 2 * TYPES + 1;
+	static final int SIGNATURES = DIGITS * DIGITS * DIGITS;
+
+	final String name;
+	// Per piece: PieceType ordinal and owner
+	final int[] types;
+	final int[] players;
+	final boolean hasPawns;
+	// Squares White's King is kept on, and the slot of each square or -1
+	private final int[] kingSquares;
+	private final int[] kingSlots = new int[SQUARES];
+	final int size;
+
+	private TablebaseMaterial(int[] types, int[] players) {
+		this.types = types;
+		this.players = players;
+		StringBuilder text = new StringBuilder();
+		boolean pawns = false;
+		for (int i = 0; i < types.length; i++) {
+			if (i > 0 && players[i] != players[i - 1]) {
+				text.append('v');
+			}
+			text.append(LETTERS.charAt(types[i]));
+			pawns |= types[i] == PAWN;
+		}
+		name = text.toString();
+		hasPawns = pawns;
+		int count = 0;
+		int[] squares = new int[SQUARES];
+		for (int square = 0; square < SQUARES; square++) {
+			int x = square % SIZE, y = square / SIZE;
+			kingSlots[square] = -1;
+			if (x < SIZE / 2 && (hasPawns || (y <= x))) {
+				kingSlots[square] = count;
+				squares[count++] = square;
+			}
+		}
+		kingSquares = Arrays.copyOf(squares, count);
+		long positions = kingSquares.length * 2L;
+		for (int i = 1; i < types.length; i++) {
+			positions *= SQUARES;
+		}
+		size = (int) positions;
+	}
+
+	/**
+	 * Reads a name such as "KQvK" or "KPvKR"
+	 * The pieces of each side may come in any order
+	 * @param name
+	 * @return TablebaseMaterial
+	 * @throws IllegalArgumentException : Unless each side has one King,
+	 * 									  with at most MAX_PIECES pieces in all
+	 */
+	static TablebaseMaterial parse(String name) {
+		String[] sides = name.toUpperCase().split("V", -1);
+		if (sides.length != 2 || sides[0].length() + sides[1].length() > MAX_PIECES) {
+			throw new IllegalArgumentException("Not a material of at most " + MAX_PIECES + " pieces: " + name);
+		}
+		int count = sides[0].length() + sides[1].length();
+		int[] types = new int[count], players = new int[count];
+		int i = 0;
+		for (int player = 0; player < 2; player++) {
+			int kings = 0;
+			for (char letter:sides[player].toCharArray()) {
+				types[i] = LETTERS.indexOf(letter);
+				players[i++] = player;
+				if (types[i - 1] < 0) {
+					throw new IllegalArgumentException("Unknown piece '" + letter + "' in " + name);
+				}
+				kings += types[i - 1] == KING ? 1 : 0;
+			}
+			if (kings != 1) {
+				throw new IllegalArgumentException("Each side needs one King: " + name);
+			}
+		}
+		return of(types, players, new int[count]);
+	}
+
+	/**
+	 * Returns the material of the given pieces, laid out in order
+	 * @param types : PieceType ordinals
+	 * @param players
+	 * @param order : Receives, for each piece of the result, the index of
+	 * 				  the given piece it stands for
+	 * @return TablebaseMaterial
+	 */
+	static TablebaseMaterial of(int[] types, int[] players, int[] order) {
+		int count = types.length;
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		// Insertion sort: White first, then higher types first, so the King leads
+		for (int i = 1; i < count; i++) {
+			int piece = order[i];
+			int j = i - 1;
+			while (j >= 0 && comesBefore(types, players, piece, order[j])) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = piece;
+		}
+		int[] sortedTypes = new int[count], sortedPlayers = new int[count];
+		for (int i = 0; i < count; i++) {
+			sortedTypes[i] = types[order[i]];
+			sortedPlayers[i] = players[order[i]];
+		}
+		return new TablebaseMaterial(sortedTypes, sortedPlayers);
+	}
+
+	private static boolean comesBefore(int[] types, int[] players, int a, int b) {
+		if (players[a] != players[b]) {
+			return players[a] < players[b];
+		}
+		return types[a] > types[b];
+	}
+
+	/**
+	 * Returns the material of the given piece counts
+	 * @param counts : By player * TYPES + type, as checked by signature
+	 * @param flip : Whether to swap the players
+	 * @return TablebaseMaterial
+	 */
+	static TablebaseMaterial of(int[] counts, boolean flip) {
+		int count = 0;
+		for (int i = 0; i < 2 * TYPES; i++) {
+			count += counts[i];
+		}
+		int[] types = new int[count], players = new int[count];
+		int i = 0;
+		for (int player = 0; player < 2; player++) {
+			int from = (flip ? player ^ 1 : player) * TYPES;
+			for (int type = KING; type >= PAWN; type--) {
+				for (int j = 0; j < counts[from + type]; j++) {
+					types[i] = type;
+					players[i++] = player;
+				}
+			}
+		}
+		return new TablebaseMaterial(types, players);
+	}
+
+	/**
+	 * Returns a number standing for the material of the given piece counts,
+	 * for looking tables up without building a name
+	 * @param counts : By player * TYPES + type
+	 * @return int : From 0 to SIGNATURES - 1; -1 unless each side has one King,
+	 * 				 with at most MAX_PIECES pieces in all
+	 */
+	static int signature(int[] counts) {
+		if (counts[KING] != 1 || counts[TYPES + KING] != 1) {
+			return -1;
+		}
+		int signature = 0, digits = 0;
+		for (int slot = 0; slot < 2 * TYPES; slot++) {
+			if (slot % TYPES == KING) {
+				continue;
+			}
+			for (int j = 0; j < counts[slot]; j++) {
+				if (++digits > MAX_PIECES - 2) {
+					return -1;
+				}
+				signature = signature * DIGITS + slot + 1;
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * Returns the name with the sides swapped, e.g. KvKQ for KQvK
+	 * @return String
+	 */
+	String flippedName() {
+		int split = name.indexOf('v');
+		return name.substring(split + 1) + "v" + name.substring(0, split);
+	}
+
+	/**
+	 * Returns the index of a position, mirroring it as needed
+	 * @param squares : One per piece, changed to the mirrored squares,
+	 * 					  may be longer than the number of pieces
+	 * @param side : Player to move
+	 * @return int
+	 */
+	int index(int[] squares, int side) {
+		int king = squares[0];
+		boolean flipX = king % SIZE >= SIZE / 2;
+		int x = flipX ? SIZE - 1 - king % SIZE : king % SIZE, y = king / SIZE;
+		boolean flipY = !hasPawns && y >= SIZE / 2;
+		y = flipY ? SIZE - 1 - y : y;
+		boolean swap = !hasPawns && y > x;
+		int index = 0;
+		for (int i = 0; i < types.length; i++) {
+			int square = squares[i];
+			int sx = flipX ? SIZE - 1 - square % SIZE : square % SIZE;
+			int sy = flipY ? SIZE - 1 - square / SIZE : square / SIZE;
+			square = swap ? sx * SIZE + sy : sy * SIZE + sx;
+			squares[i] = square;
+			index = i == 0 ? kingSlots[square] : index * SQUARES + square;
+		}
+		return index * 2 + side;
+	}
+
+	/**
+	 * Returns the position of an index
+	 * @param index
+	 * @param squares : Receives one square per piece
+	 * @return int : The player to move
+	 */
+	int decode(int index, int[] squares) {
+		int side = index & 1;
+		index >>>= 1;
+		for (int i = squares.length - 1; i > 0; i--) {
+			squares[i] = index % SQUARES;
+			index /= SQUARES;
+		}
+		squares[0] = kingSquares[index];
+		return side;
+	}
+
+}
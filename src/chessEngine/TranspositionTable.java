@@ -0,0 +1,174 @@
+package chessEngine;
+import java.util.Arrays;
+
+
+
+/**
+ * Fixed-size hash table of search results, keyed by Board.getHash()
+ * Meant to be shared by many search threads without locks:
+ * each entry is two longs, the data and the key XOR-ed with the data
+ * A reader recomputes the key from both, so an entry torn by two threads
+ * writing at once simply reads as a miss
+ * Entries sit in buckets of two; a new result replaces the entry for the
+ * same position, else an empty one, else the shallower or older one
+ *
+ * Data layout, see the get methods:
+ * Bits 0-31 : best move, packed by chessLayout.Move
+ * Bits 32-47 : score, signed
+ * Bits 48-55 : depth
+ * Bits 56-57 : bound type
+ * Bits 58-63 : age of the search that stored it
+ */
+public class TranspositionTable {
+
+	public static final int BOUND_NONE = 0;
+	// Score is at most the stored value, the search failed low
+	public static final int BOUND_UPPER = 1;
+	// Score is at least the stored value, the search failed high
+	public static final int BOUND_LOWER = 2;
+	public static final int BOUND_EXACT = 3;
+
+	private static final int ENTRY_LONGS = 2;
+	private static final int BUCKET_ENTRIES = 2;
+	private static final int BUCKET_LONGS = ENTRY_LONGS * BUCKET_ENTRIES;
+	private static final int MAX_DEPTH = 255;
+	private static final int AGE_MASK = 63;
+
+	private final long[] table;
+	private final int bucketMask;
+	// Written by the thread starting a search, read by all of them
+	private volatile int age = 0;
+
+	/**
+	 * Constructor
+	 * @param megabytes : Memory to use, rounded down to a power of two
+	 * 					  number of buckets
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("Size must be at least 1 MB: " + megabytes);
+		}
+		long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (BUCKET_LONGS * 8));
+		// Java arrays are indexed by int
+		buckets = Math.min(buckets, Integer.MAX_VALUE / BUCKET_LONGS + 1);
+		table = new long[(int) buckets * BUCKET_LONGS];
+		bucketMask = (int) buckets - 1;
+	}
+
+	/**
+	 * Looks up a position
+	 * @param key : The position's hash
+	 * @return long : The stored data, or 0 if the position is not stored
+	 */
+	public long probe(long key) {
+		int index = ((int) key & bucketMask) * BUCKET_LONGS;
+		for (int i = index; i < index + BUCKET_LONGS; i += ENTRY_LONGS) {
+			long data = table[i + 1];
+			if ((table[i] ^ data) == key && data != 0) {
+				return data;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores the result of searching a position
+	 * @param key : The position's hash
+	 * @param move : Best move found, or Move.NONE
+	 * @param score : Must fit in 16 bits
+	 * @param depth : Remaining depth of the search, clamped to 0-255
+	 * @param bound : One of the BOUND constants
+	 */
+	public void store(long key, int move, int score, int depth, int bound) {
+		int index = ((int) key & bucketMask) * BUCKET_LONGS;
+		int currentAge = age;
+		int replace = index;
+		int worstValue = Integer.MAX_VALUE;
+		for (int i = index; i < index + BUCKET_LONGS; i += ENTRY_LONGS) {
+			long data = table[i + 1];
+			if (data == 0 || (table[i] ^ data) == key) {
+				replace = i;
+				if (data != 0 && move == 0) {
+					// Keep the move we knew for this position
+					move = getMove(data);
+				}
+				break;
+			}
+			// Entries from older searches count as shallower
+			int value = getDepth(data) - 8 * ((currentAge - getAge(data)) & AGE_MASK);
+			if (value < worstValue) {
+				worstValue = value;
+				replace = i;
+			}
+		}
+		long data = (move & 0xFFFFFFFFL)
+				| ((score & 0xFFFFL) << 32)
+				| ((long) Math.max(0, Math.min(depth, MAX_DEPTH)) << 48)
+				| ((long) (bound & 3) << 56)
+				| ((long) currentAge << 58);
+		table[replace] = key ^ data;
+		table[replace + 1] = data;
+	}
+
+	/**
+	 * Marks the start of a new search, so that
+	 * results of earlier searches get replaced first
+	 */
+	public void newSearch() {
+		age = (age + 1) & AGE_MASK;
+	}
+
+	/**
+	 * Empties the table
+	 * Must not run while other threads are searching
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		age = 0;
+	}
+
+	/**
+	 * Returns the number of entries the table can hold
+	 * @return int
+	 */
+	public int getCapacity() {
+		return table.length / ENTRY_LONGS;
+	}
+
+	/**
+	 * Estimates how full the table is with entries of the current search
+	 * @return int : Per mille
+	 */
+	public int getUsage() {
+		int sample = Math.min(1000, getCapacity());
+		int used = 0;
+		for (int i = 0; i < sample; i++) {
+			long data = table[i * ENTRY_LONGS + 1];
+			if (data != 0 && getAge(data) == age) {
+				used++;
+			}
+		}
+		return used * 1000 / sample;
+	}
+
+	public static int getMove(long data) {
+		return (int) data;
+	}
+
+	public static int getScore(long data) {
+		return (short) (data >>> 32);
+	}
+
+	public static int getDepth(long data) {
+		return (int) (data >>> 48) & 0xFF;
+	}
+
+	public static int getBound(long data) {
+		return (int) (data >>> 56) & 3;
+	}
+
+	private static int getAge(long data) {
+		return (int) (data >>> 58);
+	}
+
+}
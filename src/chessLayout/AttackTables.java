@@ -0,0 +1,258 @@
+package chessLayout;
+
+
+
+/**
+ * Precomputed attack masks for the standard 8x8 board
+ * Squares are indexed y*8 + x, matching BitBoard
+ * Knight, King and Pawn attacks are plain table lookups
+ * Rook and Bishop attacks use magic bitboards: the relevant occupancy
+ * is multiplied by a magic number and the top bits index a table
+ * holding the attacks for that occupancy
+ */
+public final class AttackTables {
+
+	private static final long[] KNIGHT = new long[64];
+	private static final long[] KING = new long[64];
+	private static final long[][] PAWN = new long[2][64];
+	// Squares strictly between two squares on a common rank, file or diagonal
+	private static final long[][] BETWEEN = new long[64][64];
+	// The whole rank, file or diagonal through two squares
+	private static final long[][] LINE = new long[64][64];
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final long[] ROOK_MAGICS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final int[] ROOK_OFFSETS = new int[64];
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final long[] BISHOP_MAGICS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final int[] BISHOP_OFFSETS = new int[64];
+	// Attack sets for every relevant occupancy of every square
+	private static final long[] SLIDER_ATTACKS;
+
+	private static final int[][] ROOK_DIRECTIONS = {{1,0}, {-1,0}, {0,1}, {0,-1}};
+	private static final int[][] BISHOP_DIRECTIONS = {{1,1}, {1,-1}, {-1,1}, {-1,-1}};
+	private static final int[][] KNIGHT_STEPS = {{2,1}, {2,-1}, {-2,1}, {-2,-1}, {1,2}, {1,-2}, {-1,2}, {-1,-2}};
+	private static final int[][] KING_STEPS = {{1,0}, {-1,0}, {0,1}, {0,-1}, {1,1}, {1,-1}, {-1,1}, {-1,-1}};
+
+	static {
+		for (int square = 0; square < 64; square++) {
+			KNIGHT[square] = steps(square, KNIGHT_STEPS);
+			KING[square] = steps(square, KING_STEPS);
+			// Player 0 pawns attack up the y-axis, player 1 pawns down it
+			PAWN[0][square] = steps(square, new int[][] {{1,1}, {-1,1}});
+			PAWN[1][square] = steps(square, new int[][] {{1,-1}, {-1,-1}});
+		}
+		for (int a = 0; a < 64; a++) {
+			for (int[][] directions:new int[][][] {ROOK_DIRECTIONS, BISHOP_DIRECTIONS}) {
+				for (int[] d:directions) {
+					long ray = slidingAttacks(a, 0, new int[][] {d});
+					long opposite = slidingAttacks(a, 0, new int[][] {{-d[0], -d[1]}});
+					for (long r = ray; r != 0; r &= r - 1) {
+						int b = Long.numberOfTrailingZeros(r);
+						BETWEEN[a][b] = ray & ~slidingAttacks(b, 0, new int[][] {d}) & ~(1L << b);
+						LINE[a][b] = ray | opposite | (1L << a);
+					}
+				}
+			}
+		}
+		int size = 0;
+		for (int square = 0; square < 64; square++) {
+			ROOK_MASKS[square] = relevantMask(square, ROOK_DIRECTIONS);
+			ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+			ROOK_OFFSETS[square] = size;
+			size += 1 << Long.bitCount(ROOK_MASKS[square]);
+			BISHOP_MASKS[square] = relevantMask(square, BISHOP_DIRECTIONS);
+			BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+			BISHOP_OFFSETS[square] = size;
+			size += 1 << Long.bitCount(BISHOP_MASKS[square]);
+		}
+		SLIDER_ATTACKS = new long[size];
+		// Fixed seed, so that the tables are identical on every run
+		long[] seed = {0x9E3779B97F4A7C15L};
+		for (int square = 0; square < 64; square++) {
+			ROOK_MAGICS[square] = findMagic(square, ROOK_MASKS[square], ROOK_SHIFTS[square],
+					ROOK_OFFSETS[square], ROOK_DIRECTIONS, seed);
+			BISHOP_MAGICS[square] = findMagic(square, BISHOP_MASKS[square], BISHOP_SHIFTS[square],
+					BISHOP_OFFSETS[square], BISHOP_DIRECTIONS, seed);
+		}
+	}
+
+	private AttackTables() {
+	}
+
+	public static long knightAttacks(int square) {
+		return KNIGHT[square];
+	}
+
+	public static long kingAttacks(int square) {
+		return KING[square];
+	}
+
+	/**
+	 * Returns the squares a pawn of the given player attacks from the given square
+	 * Read in reverse, these are also the squares from which an enemy pawn
+	 * would attack the given square
+	 * @param player
+	 * @param square
+	 * @return long
+	 */
+	public static long pawnAttacks(int player, int square) {
+		return PAWN[player][square];
+	}
+
+	/**
+	 * Returns the squares a rook on the given square attacks
+	 * The first occupied square along each ray is included
+	 * @param square
+	 * @param occupied : All occupied squares
+	 * @return long
+	 */
+	public static long rookAttacks(int square, long occupied) {
+		int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+		return SLIDER_ATTACKS[ROOK_OFFSETS[square] + index];
+	}
+
+	/**
+	 * Returns the squares a bishop on the given square attacks
+	 * The first occupied square along each ray is included
+	 * @param square
+	 * @param occupied : All occupied squares
+	 * @return long
+	 */
+	public static long bishopAttacks(int square, long occupied) {
+		int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+		return SLIDER_ATTACKS[BISHOP_OFFSETS[square] + index];
+	}
+
+	public static long queenAttacks(int square, long occupied) {
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+
+	/**
+	 * Returns the squares strictly between two squares
+	 * @param a
+	 * @param b
+	 * @return long : Empty unless they share a rank, file or diagonal
+	 */
+	public static long between(int a, int b) {
+		return BETWEEN[a][b];
+	}
+
+	/**
+	 * Returns the whole rank, file or diagonal through two squares
+	 * @param a
+	 * @param b
+	 * @return long : Empty unless they share a rank, file or diagonal
+	 */
+	public static long line(int a, int b) {
+		return LINE[a][b];
+	}
+
+	/**
+	 * Walks every ray in the given directions one square at a time
+	 * Only used to build the tables
+	 * @param square
+	 * @param occupied
+	 * @param directions
+	 * @return long
+	 */
+	static long slidingAttacks(int square, long occupied, int[][] directions) {
+		long attacks = 0;
+		for (int[] d:directions) {
+			int x = (square & 7) + d[0], y = (square >>> 3) + d[1];
+			while (x >= 0 && x < 8 && y >= 0 && y < 8) {
+				long bit = 1L << (y * 8 + x);
+				attacks |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				x += d[0];
+				y += d[1];
+			}
+		}
+		return attacks;
+	}
+
+	private static long steps(int square, int[][] steps) {
+		long attacks = 0;
+		for (int[] d:steps) {
+			int x = (square & 7) + d[0], y = (square >>> 3) + d[1];
+			if (x >= 0 && x < 8 && y >= 0 && y < 8) {
+				attacks |= 1L << (y * 8 + x);
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Returns the squares whose occupancy can change a slider's attacks
+	 * The last square of each ray never blocks anything, so it is left out
+	 * @param square
+	 * @param directions
+	 * @return long
+	 */
+	private static long relevantMask(int square, int[][] directions) {
+		long mask = 0;
+		for (int[] d:directions) {
+			int x = (square & 7) + d[0], y = (square >>> 3) + d[1];
+			while (x + d[0] >= 0 && x + d[0] < 8 && y + d[1] >= 0 && y + d[1] < 8) {
+				mask |= 1L << (y * 8 + x);
+				x += d[0];
+				y += d[1];
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Searches for a magic number that maps every subset of the mask
+	 * to a table slot without destructive collisions, and fills the slots
+	 * @return long : The magic number
+	 */
+	private static long findMagic(int square, long mask, int shift, int offset, int[][] directions, long[] seed) {
+		int count = 1 << Long.bitCount(mask);
+		long[] occupancies = new long[count];
+		long[] attacks = new long[count];
+		// Enumerate every subset of the mask
+		long subset = 0;
+		for (int i = 0; i < count; i++) {
+			occupancies[i] = subset;
+			attacks[i] = slidingAttacks(square, subset, directions);
+			subset = (subset - mask) & mask;
+		}
+		int[] used = new int[count];
+		for (int attempt = 1; ; attempt++) {
+			// Sparse random numbers make good magics far more often
+			long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed);
+			if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+				continue;
+			}
+			boolean collision = false;
+			for (int i = 0; i < count && !collision; i++) {
+				int index = (int) ((occupancies[i] * magic) >>> shift);
+				if (used[index] != attempt) {
+					used[index] = attempt;
+					SLIDER_ATTACKS[offset + index] = attacks[i];
+				} else if (SLIDER_ATTACKS[offset + index] != attacks[i]) {
+					collision = true;
+				}
+			}
+			if (!collision) {
+				return magic;
+			}
+		}
+	}
+
+	private static long nextRandom(long[] seed) {
+		// xorshift64*
+		long x = seed[0];
+		x ^= x >>> 12;
+		x ^= x << 25;
+		x ^= x >>> 27;
+		seed[0] = x;
+		return x * 0x2545F4914F6CDD1DL;
+	}
+
+}
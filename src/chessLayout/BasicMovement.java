@@ -11,14 +11,15 @@ public class BasicMovement extends Movement {
 
 	@Override
 	public boolean canMove(Point point, Piece piece, Board board, boolean safe) {
-		if (!board.inBounds(point) || safe && willCauseCheck(point, piece, board)) {
+		if (!board.inBounds(point)) {
 			return false;
 		}
 		Piece targetPiece = board.getPiece(point);
-		if (targetPiece == null || targetPiece.getPlayer() != piece.getPlayer()) {
-			return true;
+		if (targetPiece != null && targetPiece.getPlayer() == piece.getPlayer()) {
+			return false;
 		}
-		return false;
+		// Only try the move on the board once it is otherwise allowed
+		return !safe || !willCauseCheck(point, piece, board);
 	}
 
 	@Override
@@ -0,0 +1,678 @@
+package chessLayout;
+import java.awt.Point;
+import java.util.ArrayList;
+
+
+
+/**
+ * Standard 8x8 chess board backed by 64-bit occupancy masks
+ * Bit (y*8 + x) of a mask stands for the square at (x, y)
+ * Keeps one mask per player and one per type of piece, so that
+ * lookups and Check detection never hash a Point
+ * The pieces themselves are kept in RectangularBoard's bordered squares
+ */
+public class BitBoard extends RectangularBoard {
+
+	// Indices into the per type masks, the ordinals of PieceType
+	static final int PAWN = PieceType.PAWN_INDEX, KNIGHT = PieceType.KNIGHT_INDEX, BISHOP = PieceType.BISHOP_INDEX,
+			ROOK = PieceType.ROOK_INDEX, QUEEN = PieceType.QUEEN_INDEX, KING = PieceType.KING_INDEX;
+	static final int NO_TYPE = PieceType.NO_INDEX;
+
+	// Squares occupied by each player's pieces
+	private long[] playerMasks = new long[2];
+	// Squares occupied by each type of piece, regardless of player
+	private long[] typeMasks = new long[6];
+	// Type index of the piece standing on each square
+	private int[] types = new int[64];
+	// Changes whenever a piece is placed or removed
+	private int version = 0;
+	// Checks and pins against the King of legalInfoPlayer, valid while
+	// legalInfoVersion matches version
+	private int legalInfoVersion = -1;
+	private int legalInfoPlayer = -1;
+	private int kingSquare;
+	private long checkers;
+	private long pinned;
+	// Material balance after each capture of a static exchange, see staticExchange
+	private int[] exchangeGains = new int[MAX_EXCHANGE];
+
+	// No more pieces than these can take turns on one square
+	private static final int MAX_EXCHANGE = 34;
+	// Length of a row of RectangularBoard's squares, border included
+	private static final int STRIDE = 8 + 2 * BORDER;
+
+	public BitBoard() {
+		super(8, 8);
+		for (int i = 0; i < 64; i++) {
+			types[i] = NO_TYPE;
+		}
+	}
+
+	@Override
+	protected Board newBoard() {
+		return new BitBoard();
+	}
+
+	@Override
+	protected void putPiece(Point location, Piece piece) {
+		if (!inBounds(location)) {
+			return;
+		}
+		int square = location.y * 8 + location.x;
+		// A piece placed on an occupied square replaces its occupant
+		removeSquare(square);
+		int type = piece.typeIndex();
+		long bit = 1L << square;
+		playerMasks[piece.getPlayer()] |= bit;
+		if (type != NO_TYPE) {
+			typeMasks[type] |= bit;
+		}
+		squares[index(square)] = piece;
+		types[square] = type;
+		version++;
+	}
+
+	@Override
+	protected Piece removePiece(Point location) {
+		if (!inBounds(location)) {
+			return null;
+		}
+		return removeSquare(location.y * 8 + location.x);
+	}
+
+	/**
+	 * Removes whichever piece stands on the given square
+	 * @param square
+	 * @return Piece : The removed piece, may be null
+	 */
+	private Piece removeSquare(int square) {
+		Piece piece = squares[index(square)];
+		if (piece == null) {
+			return null;
+		}
+		long bit = 1L << square;
+		playerMasks[piece.getPlayer()] &= ~bit;
+		if (types[square] != NO_TYPE) {
+			typeMasks[types[square]] &= ~bit;
+		}
+		squares[index(square)] = null;
+		types[square] = NO_TYPE;
+		version++;
+		return piece;
+	}
+
+	/**
+	 * Returns the index into RectangularBoard's squares of a square of the masks
+	 * @param square : y*8 + x
+	 * @return int
+	 */
+	private static int index(int square) {
+		return square + (square >>> 3) * 2 * BORDER + BORDER * STRIDE + BORDER;
+	}
+
+	/**
+	 * Tests for Check condition
+	 * Tests each of the defending player's Kings with isSquareAttacked
+	 * @param offensivePlayer
+	 * @return boolean
+	 */
+	@Override
+	public boolean check(int offensivePlayer) {
+		long kings = typeMasks[KING] & playerMasks[offensivePlayer ^ 1];
+		for (; kings != 0; kings &= kings - 1) {
+			if (isSquareAttacked(Long.numberOfTrailingZeros(kings), offensivePlayer)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tests for CheckMate condition
+	 * Generates check evasions only: first King escapes, then, against
+	 * a single checking piece, captures of it and blocks of its ray
+	 * A double check is mate as soon as the King has no escape
+	 * @param defensivePlayer
+	 * @return boolean
+	 */
+	@Override
+	public boolean checkMate(int defensivePlayer) {
+		long own = playerMasks[defensivePlayer];
+		long kings = typeMasks[KING] & own;
+		if (kings == 0 || (kings & (kings - 1)) != 0 || (own & ~knownTypes()) != 0) {
+			return super.checkMate(defensivePlayer);
+		}
+		updateLegalInfo(defensivePlayer);
+		if (checkers == 0) {
+			return false;
+		}
+		int enemy = defensivePlayer ^ 1;
+		// King escapes, including captures by the King
+		long occupied = playerMasks[0] | playerMasks[1];
+		long withoutKing = occupied & ~kings;
+		for (long t = AttackTables.kingAttacks(kingSquare) & ~own; t != 0; t &= t - 1) {
+			if (!isSquareAttacked(Long.numberOfTrailingZeros(t), enemy, withoutKing)) {
+				return false;
+			}
+		}
+		if ((checkers & (checkers - 1)) != 0) {
+			return !canCaptureEnPassant(defensivePlayer);
+		}
+		// Pinned pieces can never resolve a check, and the King was handled above
+		long defenders = own & ~pinned & ~kings;
+		int checker = Long.numberOfTrailingZeros(checkers);
+		if ((attackersTo(checker, occupied) & defenders) != 0) {
+			return false;
+		}
+		// Block the checking ray, empty unless the checker is a slider
+		for (long b = AttackTables.between(kingSquare, checker); b != 0; b &= b - 1) {
+			if (canReach(Long.numberOfTrailingZeros(b), defenders, defensivePlayer, occupied)) {
+				return false;
+			}
+		}
+		// Taking a checking Pawn en passant lands next to it, not on it
+		return !canCaptureEnPassant(defensivePlayer);
+	}
+
+	/**
+	 * Tests if the given player has a legal en passant capture
+	 * @param player
+	 * @return boolean
+	 */
+	private boolean canCaptureEnPassant(int player) {
+		long target = enPassantBit();
+		if (target == 0) {
+			return false;
+		}
+		long pawns = AttackTables.pawnAttacks(player ^ 1, Long.numberOfTrailingZeros(target))
+				& typeMasks[PAWN] & playerMasks[player];
+		for (; pawns != 0; pawns &= pawns - 1) {
+			if ((legalMoves(Long.numberOfTrailingZeros(pawns)) & target) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the en passant square as a mask
+	 * @return long : Empty if there is none
+	 */
+	private long enPassantBit() {
+		int cell = getEnPassantCell();
+		if (cell == NO_SQUARE) {
+			return 0;
+		}
+		int x = cell & 63, y = cell >>> 6;
+		return x < 8 && y < 8 ? 1L << (y * 8 + x) : 0;
+	}
+
+	/**
+	 * Tests if one of the given pieces can move to the given empty square
+	 * @param square : Index of the square, y*8 + x
+	 * @param pieces : Pieces that may move, all of the given player
+	 * @param player
+	 * @param occupied : All occupied squares
+	 * @return boolean
+	 */
+	private boolean canReach(int square, long pieces, int player, long occupied) {
+		long straight = typeMasks[ROOK] | typeMasks[QUEEN];
+		long diagonal = typeMasks[BISHOP] | typeMasks[QUEEN];
+		long movers = (AttackTables.knightAttacks(square) & typeMasks[KNIGHT])
+				| (AttackTables.rookAttacks(square, occupied) & straight)
+				| (AttackTables.bishopAttacks(square, occupied) & diagonal);
+		if ((movers & pieces) != 0) {
+			return true;
+		}
+		// Pawns can only push onto an empty square
+		long pawns = pieces & typeMasks[PAWN];
+		long target = 1L << square;
+		long single = player == 0 ? target >>> 8 : target << 8;
+		if ((single & pawns) != 0) {
+			return true;
+		}
+		long twice = player == 0 ? single >>> 8 : single << 8;
+		if ((single & occupied) == 0 && (twice & pawns) != 0) {
+			return !squares[index(Long.numberOfTrailingZeros(twice))].hasMoved();
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the squares holding pieces of a known type
+	 * @return long
+	 */
+	private long knownTypes() {
+		return typeMasks[PAWN] | typeMasks[KNIGHT] | typeMasks[BISHOP]
+				| typeMasks[ROOK] | typeMasks[QUEEN] | typeMasks[KING];
+	}
+
+	@Override
+	public boolean isSquareAttacked(Point square, int byPlayer) {
+		return inBounds(square) && isSquareAttacked(square.y * 8 + square.x, byPlayer);
+	}
+
+	/**
+	 * Tests if any of the given player's pieces attacks the given square
+	 * Looks up each kind of attacker from the square in AttackTables
+	 * @param square : Index of the square, y*8 + x
+	 * @param byPlayer : The attacking player
+	 * @return boolean
+	 */
+	public boolean isSquareAttacked(int square, int byPlayer) {
+		return isSquareAttacked(square, byPlayer, playerMasks[0] | playerMasks[1]);
+	}
+
+	/**
+	 * Tests if any of the given player's pieces attacks the given square
+	 * as if the given squares were the occupied ones
+	 * @param square : Index of the square, y*8 + x
+	 * @param byPlayer : The attacking player
+	 * @param occupied : Squares that block sliding pieces
+	 * @return boolean
+	 */
+	private boolean isSquareAttacked(int square, int byPlayer, long occupied) {
+		long attackers = playerMasks[byPlayer];
+		if ((AttackTables.knightAttacks(square) & attackers & typeMasks[KNIGHT]) != 0) {
+			return true;
+		}
+		if ((AttackTables.kingAttacks(square) & attackers & typeMasks[KING]) != 0) {
+			return true;
+		}
+		// An enemy pawn attacks this square from where one of our pawns here would attack
+		if ((AttackTables.pawnAttacks(byPlayer ^ 1, square) & attackers & typeMasks[PAWN]) != 0) {
+			return true;
+		}
+		long straight = attackers & (typeMasks[ROOK] | typeMasks[QUEEN]);
+		if (straight != 0 && (AttackTables.rookAttacks(square, occupied) & straight) != 0) {
+			return true;
+		}
+		long diagonal = attackers & (typeMasks[BISHOP] | typeMasks[QUEEN]);
+		if (diagonal != 0 && (AttackTables.bishopAttacks(square, occupied) & diagonal) != 0) {
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns every piece, of either player, attacking the given square
+	 * as if the given squares were the occupied ones
+	 * @param square : Index of the square, y*8 + x
+	 * @param occupied : Squares that block sliding pieces
+	 * @return long
+	 */
+	public long attackersTo(int square, long occupied) {
+		long pawns = typeMasks[PAWN];
+		return (AttackTables.pawnAttacks(1, square) & pawns & playerMasks[0])
+				| (AttackTables.pawnAttacks(0, square) & pawns & playerMasks[1])
+				| (AttackTables.knightAttacks(square) & typeMasks[KNIGHT])
+				| (AttackTables.kingAttacks(square) & typeMasks[KING])
+				| (AttackTables.rookAttacks(square, occupied) & (typeMasks[ROOK] | typeMasks[QUEEN]))
+				| (AttackTables.bishopAttacks(square, occupied) & (typeMasks[BISHOP] | typeMasks[QUEEN]));
+	}
+
+	/**
+	 * Returns all the positions on the board the given piece can move to
+	 * Moves come from AttackTables and pawn pushes on the masks
+	 * When safe, they are filtered with the pins and checks of the position
+	 * instead of trying each move on the board
+	 * Unknown pieces walk their movements as usual
+	 * @param piece
+	 * @param safe : If set to false, function will return positions that 
+	 * 				 allow for check to be placed on the King.
+	 * @return ArrayList<Point>
+	 */
+	@Override
+	public ArrayList<Point> getValidMoveLocations(Piece piece, boolean safe) {
+		int from = piece.getY() * 8 + piece.getX();
+		if (!inBounds(piece.getLocation()) || squares[index(from)] != piece || types[from] == NO_TYPE) {
+			return super.getValidMoveLocations(piece, safe);
+		}
+		long targets = safe ? legalMoves(from) : pseudoLegalMoves(from);
+		ArrayList<Point> validLocations = new ArrayList<Point>(Long.bitCount(targets));
+		for (; targets != 0; targets &= targets - 1) {
+			int to = Long.numberOfTrailingZeros(targets);
+			validLocations.add(new Point(to & 7, to >>> 3));
+		}
+		return validLocations;
+	}
+
+	/**
+	 * Fills the list with every legal move of the given player
+	 * Reads the masks directly, so nothing is allocated
+	 * Unknown pieces walk their movements as usual
+	 * @param player
+	 * @param moves : Emptied, then filled
+	 */
+	@Override
+	public void generateMoves(int player, MoveList moves) {
+		moves.clear();
+		for (long pieces = playerMasks[player]; pieces != 0; pieces &= pieces - 1) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			Piece piece = squares[index(from)];
+			if (types[from] == NO_TYPE) {
+				piece.addMovementMoves(moves, true);
+				continue;
+			}
+			int fromX = from & 7, fromY = from >>> 3;
+			for (long targets = legalMoves(from); targets != 0; targets &= targets - 1) {
+				int to = Long.numberOfTrailingZeros(targets);
+				addMove(moves, piece, fromX, fromY, to & 7, to >>> 3);
+			}
+		}
+	}
+
+	/**
+	 * Fills the list with the legal captures and promotions of the given player
+	 * Reads the masks directly, so nothing is allocated
+	 * @param player
+	 * @param moves : Emptied, then filled
+	 */
+	@Override
+	public void generateCaptures(int player, MoveList moves) {
+		moves.clear();
+		long enemies = playerMasks[player ^ 1];
+		// Pawns promote on the last rank, whatever they take
+		long lastRank = player == 0 ? 0xFF00000000000000L : 0xFFL;
+		for (long pieces = playerMasks[player]; pieces != 0; pieces &= pieces - 1) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			Piece piece = squares[index(from)];
+			if (types[from] == NO_TYPE) {
+				// Walk its movements and keep the captures and promotions
+				int kept = moves.size();
+				piece.addMovementMoves(moves, true);
+				for (int i = kept; i < moves.size(); i++) {
+					int move = moves.get(i);
+					if (Move.getFlags(move) != Move.NONE || isCapture(move)) {
+						moves.set(kept++, move);
+					}
+				}
+				moves.truncate(kept);
+				continue;
+			}
+			long targets = enemies;
+			if (types[from] == PAWN) {
+				targets |= lastRank | enPassantBit();
+			}
+			int fromX = from & 7, fromY = from >>> 3;
+			for (targets &= legalMoves(from); targets != 0; targets &= targets - 1) {
+				int to = Long.numberOfTrailingZeros(targets);
+				addMove(moves, piece, fromX, fromY, to & 7, to >>> 3);
+			}
+		}
+	}
+
+	/**
+	 * Returns the material a capture wins once every piece that can take back
+	 * on the target square has, best first for each side, and either side
+	 * may stop taking when it would lose by going on (static exchange evaluation)
+	 * Works on the attacker sets of the masks: each capture takes the attacker
+	 * off the occupied squares, which uncovers the sliders behind it
+	 * Pins and promotions are not accounted for
+	 * @param move : A capture packed by Move.of
+	 * @param values : Value of each type of piece, indexed by PieceType ordinal;
+	 * 				   the King's should outweigh all the others together
+	 * @return int : Material won by the side making the move, negative if lost
+	 */
+	@Override
+	public int staticExchange(int move, int[] values) {
+		int fromX = Move.getFromX(move), fromY = Move.getFromY(move);
+		int toX = Move.getToX(move), toY = Move.getToY(move);
+		if (fromX > 7 || fromY > 7 || toX > 7 || toY > 7 || types[fromY * 8 + fromX] == NO_TYPE) {
+			return super.staticExchange(move, values);
+		}
+		int from = fromY * 8 + fromX, to = toY * 8 + toX;
+		long occupied = playerMasks[0] | playerMasks[1];
+		int[] gain = exchangeGains;
+		int depth = 0;
+		if (squares[index(to)] != null) {
+			gain[0] = types[to] == NO_TYPE ? 0 : values[types[to]];
+		} else if (types[from] == PAWN && (enPassantBit() & (1L << to)) != 0) {
+			gain[0] = values[PAWN];
+			// The Pawn taken en passant stands beside the one taking it
+			occupied &= ~(1L << ((from & ~7) | (to & 7)));
+		} else {
+			gain[0] = 0;
+		}
+		long diagonal = typeMasks[BISHOP] | typeMasks[QUEEN];
+		long straight = typeMasks[ROOK] | typeMasks[QUEEN];
+		long attackers = attackersTo(to, occupied) & occupied;
+		long fromBit = 1L << from;
+		int attacker = types[from];
+		int side = squares[index(from)].getPlayer();
+		do {
+			depth++;
+			// What this side has after the attacker is taken back in turn
+			gain[depth] = values[attacker] - gain[depth - 1];
+			occupied &= ~fromBit;
+			attackers |= (AttackTables.bishopAttacks(to, occupied) & diagonal)
+					| (AttackTables.rookAttacks(to, occupied) & straight);
+			attackers &= occupied;
+			side ^= 1;
+			fromBit = 0;
+			long own = attackers & playerMasks[side];
+			for (int type = PAWN; type <= KING && own != 0; type++) {
+				long candidates = own & typeMasks[type];
+				if (candidates != 0) {
+					fromBit = candidates & -candidates;
+					attacker = type;
+					break;
+				}
+			}
+		} while (fromBit != 0 && depth < gain.length - 1);
+		while (--depth > 0) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+		}
+		return gain[0];
+	}
+
+	/**
+	 * Returns the squares attacked by the Knight, Bishop, Rook, Queen
+	 * or King standing on the given square
+	 * @param square : Index of the square, y*8 + x
+	 * @return long : Empty if the square holds none of those pieces
+	 */
+	public long attacksFrom(int square) {
+		long occupied = playerMasks[0] | playerMasks[1];
+		switch (types[square]) {
+			case KNIGHT:
+				return AttackTables.knightAttacks(square);
+			case BISHOP:
+				return AttackTables.bishopAttacks(square, occupied);
+			case ROOK:
+				return AttackTables.rookAttacks(square, occupied);
+			case QUEEN:
+				return AttackTables.queenAttacks(square, occupied);
+			case KING:
+				return AttackTables.kingAttacks(square);
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Returns the squares the piece on the given square can move to,
+	 * ignoring whether the move leaves its King in Check
+	 * Castling is included only if the King is not in Check and
+	 * does not pass through an attacked square
+	 * @param from : Index of the square, y*8 + x
+	 * @return long
+	 */
+	private long pseudoLegalMoves(int from) {
+		Piece piece = squares[index(from)];
+		int player = piece.getPlayer();
+		if (types[from] == KING) {
+			return (attacksFrom(from) & ~playerMasks[player]) | castlingMoves(from);
+		}
+		if (types[from] != PAWN) {
+			return attacksFrom(from) & ~playerMasks[player];
+		}
+		long empty = ~(playerMasks[0] | playerMasks[1]);
+		long fromBit = 1L << from;
+		// Player 0 pawns move up the y-axis, player 1 pawns down it
+		long push = (player == 0 ? fromBit << 8 : fromBit >>> 8) & empty;
+		long moves = push | (AttackTables.pawnAttacks(player, from) & playerMasks[player ^ 1]);
+		if (push != 0 && !piece.hasMoved()) {
+			moves |= (player == 0 ? push << 8 : push >>> 8) & empty;
+		}
+		long enPassant = AttackTables.pawnAttacks(player, from) & enPassantBit();
+		if (enPassant != 0) {
+			// The Pawn to take stands beside this one
+			int passed = (from & ~7) | (Long.numberOfTrailingZeros(enPassant) & 7);
+			if (types[passed] == PAWN && (playerMasks[player ^ 1] & (1L << passed)) != 0) {
+				moves |= enPassant;
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Returns the squares the King on the given square can castle to
+	 * The landing square is left to legalMoves
+	 * @param from : Index of the square, y*8 + x
+	 * @return long
+	 */
+	private long castlingMoves(int from) {
+		Piece king = squares[index(from)];
+		int enemy = king.getPlayer() ^ 1;
+		if (king.hasMoved() || isSquareAttacked(from, enemy)) {
+			return 0;
+		}
+		long moves = 0;
+		for (int direction = -1; direction <= 1; direction += 2) {
+			if (findCastlingRook(king, direction) != null && !isSquareAttacked(from + direction, enemy)) {
+				moves |= 1L << (from + 2 * direction);
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Returns the squares the piece on the given square can move to
+	 * without putting its player in Check
+	 * @param from : Index of the square, y*8 + x
+	 * @return long
+	 */
+	private long legalMoves(int from) {
+		long targets = pseudoLegalMoves(from);
+		int player = squares[index(from)].getPlayer();
+		long kings = typeMasks[KING] & playerMasks[player];
+		if (kings == 0) {
+			// Without a King nothing can be put in Check
+			return targets;
+		}
+		if ((kings & (kings - 1)) != 0) {
+			// Pins mean nothing with several Kings, try each move instead
+			for (long t = targets; t != 0; t &= t - 1) {
+				int to = Long.numberOfTrailingZeros(t);
+				if (leavesKingAttacked(from, to)) {
+					targets &= ~(1L << to);
+				}
+			}
+			return targets;
+		}
+		// En passant removes a piece off the target square, so it is tried on the masks
+		long enPassant = types[from] == PAWN ? targets & enPassantBit() : 0;
+		if (enPassant != 0) {
+			targets &= ~enPassant;
+			if (leavesKingAttacked(from, Long.numberOfTrailingZeros(enPassant))) {
+				enPassant = 0;
+			}
+		}
+		updateLegalInfo(player);
+		if (types[from] == KING) {
+			// The King must not step onto an attacked square, and it
+			// must not hide behind itself from a slider along the ray
+			long occupied = (playerMasks[0] | playerMasks[1]) & ~(1L << from);
+			for (long t = targets; t != 0; t &= t - 1) {
+				int to = Long.numberOfTrailingZeros(t);
+				if (isSquareAttacked(to, player ^ 1, occupied)) {
+					targets &= ~(1L << to);
+				}
+			}
+			return targets;
+		}
+		if (checkers != 0) {
+			if ((checkers & (checkers - 1)) != 0) {
+				// Only the King can escape a double check
+				return enPassant;
+			}
+			// Capture the checking piece or block its ray
+			targets &= checkers | AttackTables.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+		}
+		if ((pinned & (1L << from)) != 0) {
+			// A pinned piece may only move along the pin
+			targets &= AttackTables.line(kingSquare, from);
+		}
+		return targets | enPassant;
+	}
+
+	/**
+	 * Finds the pieces giving Check to the given player's only King
+	 * and the pieces pinned against it
+	 * Nothing is recomputed until the board or the player changes
+	 * @param player
+	 */
+	private void updateLegalInfo(int player) {
+		if (legalInfoVersion == version && legalInfoPlayer == player) {
+			return;
+		}
+		legalInfoVersion = version;
+		legalInfoPlayer = player;
+		int enemy = player ^ 1;
+		long occupied = playerMasks[0] | playerMasks[1];
+		kingSquare = Long.numberOfTrailingZeros(typeMasks[KING] & playerMasks[player]);
+		checkers = attackersTo(kingSquare, occupied) & playerMasks[enemy];
+		pinned = 0;
+		// Enemy sliders that would attack the King through exactly one of our pieces
+		long snipers = ((AttackTables.rookAttacks(kingSquare, 0) & (typeMasks[ROOK] | typeMasks[QUEEN]))
+				| (AttackTables.bishopAttacks(kingSquare, 0) & (typeMasks[BISHOP] | typeMasks[QUEEN])))
+				& playerMasks[enemy];
+		for (; snipers != 0; snipers &= snipers - 1) {
+			long blockers = AttackTables.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+			if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & playerMasks[player]) != 0) {
+				pinned |= blockers;
+			}
+		}
+	}
+
+	/**
+	 * Tests if moving the piece between the given squares
+	 * would put its player in Check
+	 * Only the masks are changed for the test, never the pieces
+	 * A Pawn moving diagonally onto an empty square takes en passant
+	 * @param from
+	 * @param to
+	 * @return boolean
+	 */
+	private boolean leavesKingAttacked(int from, int to) {
+		int player = squares[index(from)].getPlayer();
+		int type = types[from];
+		int victim = to;
+		if (type == PAWN && squares[index(to)] == null && ((from ^ to) & 7) != 0) {
+			victim = (from & ~7) | (to & 7);
+		}
+		int capturedType = types[victim];
+		boolean capture = squares[index(victim)] != null;
+		long move = (1L << from) | (1L << to), toBit = 1L << victim;
+		playerMasks[player] ^= move;
+		typeMasks[type] ^= move;
+		if (capture) {
+			playerMasks[player ^ 1] ^= toBit;
+			if (capturedType != NO_TYPE) {
+				typeMasks[capturedType] ^= toBit;
+			}
+		}
+		boolean causesCheck = check(player ^ 1);
+		playerMasks[player] ^= move;
+		typeMasks[type] ^= move;
+		if (capture) {
+			playerMasks[player ^ 1] ^= toBit;
+			if (capturedType != NO_TYPE) {
+				typeMasks[capturedType] ^= toBit;
+			}
+		}
+		return causesCheck;
+	}
+
+}
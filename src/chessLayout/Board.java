@@ -1,15 +1,56 @@
 package chessLayout;
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
+import chessPieces.Bishop;
+import chessPieces.Knight;
+import chessPieces.Queen;
+import chessPieces.Rook;
+
 
 public abstract class Board {
 
 	// Maintains state of the chessboard
 	private HashMap<Point, Piece> grid = new HashMap<Point, Piece>();
+	// Each player's pieces on the board, in no particular order
+	private Piece[][] pieces = new Piece[2][INITIAL_PIECES];
+	private int[] pieceCounts = new int[2];
+	// A King of each player, and how many each has
+	private Piece[] kings = new Piece[2];
+	private int[] kingCounts = new int[2];
+	// Pieces generateMoves works through, trial moves may reorder the lists above
+	private Piece[] generatingPieces = new Piece[INITIAL_PIECES];
 	// Listens for Check and CheckMate
 	private CheckListener mCheckListener;
+	// Listens for pieces placed on and taken off the board
+	private PositionListener positionListener;
+	// Zobrist hash of the position, kept up to date as pieces move
+	private long hash = 0;
+	// Zobrist hash of the Pawns alone, likewise
+	private long pawnHash = 0;
+	// Player whose turn it is
+	private int sideToMove = 0;
+	// Square a Pawn just passed with its special first move, packed as x | y << 6
+	private int enPassant = NO_SQUARE;
+	// Moves made through makeMove, most recent on top
+	private UndoEntry[] undoStack = new UndoEntry[INITIAL_UNDO_DEPTH];
+	private int undoDepth = 0;
+	// Reused by lookups and moves that work on coordinates, so they need not allocate
+	private Point lookupPoint = new Point();
+	private Point fromPoint = new Point();
+	private Point toPoint = new Point();
+	private Point rayPoint = new Point();
+	private Point exchangePoint = new Point();
+	
+	private static final int INITIAL_UNDO_DEPTH = 128;
+	private static final int INITIAL_PIECES = 16;
+	// No square: no en passant square, or coordinates with no index
+	public static final int NO_SQUARE = -1;
+	private static final int[][] KNIGHT_STEPS = {{2,1}, {2,-1}, {-2,1}, {-2,-1}, {1,2}, {1,-2}, {-1,2}, {-1,-2}};
+	// The King's steps are also the directions of the sliding pieces' rays
+	private static final int[][] KING_STEPS = {{1,0}, {-1,0}, {0,1}, {0,-1}, {1,1}, {1,-1}, {-1,1}, {-1,-1}};
 	
 	/**
 	 * Abstract method
@@ -28,9 +69,39 @@ public abstract class Board {
 		if (piece == null) {
 			return;
 		}
+		// A piece placed on an occupied square replaces its occupant
+		Piece occupant = getPiece(location);
+		pieceRemoved(occupant, location);
+		putPiece(location, piece);
+		pieceAdded(piece, location);
+		if (occupant != piece) {
+			unregister(occupant);
+		}
+		if (getPiece(location) == piece) {
+			register(piece);
+		}
+	}
+	
+	/**
+	 * Stores the given piece at the given location
+	 * Subclasses may override this (together with removePiece and getPiece)
+	 * to provide their own storage for the board
+	 * @param location
+	 * @param piece
+	 */
+	protected void putPiece(Point location, Piece piece) {
 		grid.put(location, piece);
 	}
 	
+	/**
+	 * Removes whichever piece is stored at the given location
+	 * @param location
+	 * @return Piece : The removed piece, may be null
+	 */
+	protected Piece removePiece(Point location) {
+		return grid.remove(location);
+	}
+	
 	/**
 	 * Polymorphic function
 	 * Adds boolean parameter and calls update(Point, Point, Piece, boolean)
@@ -57,24 +128,495 @@ public abstract class Board {
 		}
 		if (oldLocation != null) {
 			// Clears old position
-			grid.remove(oldLocation);	
+			Piece removed = removePiece(oldLocation);
+			pieceRemoved(removed, oldLocation);
+			if (removed != piece) {
+				unregister(removed);
+			}
 		}
 		// Updates the piece's location
 		piece.getLocation().setLocation(newLocation);
 		// Reflects the change in the chess board
-		grid.put(newLocation, piece);
+		Piece displaced = getPiece(newLocation);
+		pieceRemoved(displaced, newLocation);
+		putPiece(piece.getLocation(), piece);
+		pieceAdded(piece, newLocation);
+		if (displaced != piece) {
+			unregister(displaced);
+		}
+		if (getPiece(newLocation) == piece) {
+			register(piece);
+		} else {
+			// Moved off the board
+			unregister(piece);
+		}
 
-		if (notifyListener && mCheckListener != null) {
-			if (check(piece.getPlayer())) {
-				// if check, tests for checkmate
-				// notifies appropriate listener
-				if (checkMate(piece.getOtherPlayer())) {
-					mCheckListener.onCheckMate();
-				} else {
-					mCheckListener.onCheck();
-				}
+		if (notifyListener) {
+			notifyCheckListener(piece.getPlayer());
+		}
+	}
+	
+	/**
+	 * Tests for Check (and CheckMate) against the other player
+	 * and notifies the appropriate listener
+	 * @param offensivePlayer
+	 */
+	private void notifyCheckListener(int offensivePlayer) {
+		if (mCheckListener != null && check(offensivePlayer)) {
+			// if check, tests for checkmate
+			if (checkMate(offensivePlayer ^ 1)) {
+				mCheckListener.onCheckMate();
+			} else {
+				mCheckListener.onCheck();
+			}
+		}
+	}
+	
+	/**
+	 * Polymorphic function
+	 * Makes a move without testing for Check, see makeMove(int, boolean)
+	 * @param move : A move packed by Move.of
+	 */
+	public void makeMove(int move) {
+		makeMove(move, false);
+	}
+	
+	/**
+	 * Plays a move of the game for good: makes it, tests for Check (and
+	 * CheckMate) and forgets how to take it back, so that the moves of a
+	 * long game do not pile up in the undo history
+	 * @param move : A move packed by Move.of
+	 * @throws IllegalStateException : If moves made through makeMove are still to be taken back
+	 */
+	public void commitMove(int move) {
+		if (undoDepth > 0) {
+			throw new IllegalStateException("Moves are still to be taken back");
+		}
+		makeMove(move, true);
+		undoDepth = 0;
+		// Nor keep the pieces it moved and killed alive
+		UndoEntry entry = undoStack[0];
+		entry.piece = entry.captured = entry.rook = entry.promoted = null;
+	}
+	
+	/**
+	 * Makes a move and remembers how to take it back
+	 * Kills any piece at the destination and marks the moving piece as moved
+	 * Also plays the special moves:
+	 * A King moving two squares sideways castles with the Rook that way
+	 * A Pawn moving diagonally onto the en passant square kills the Pawn it passed
+	 * A Pawn reaching the last rank becomes the piece named by the move's flags
+	 * @param move : A move packed by Move.of
+	 * @param notifyListener : If true, tests for Check (and CheckMate) once the move is made
+	 */
+	public void makeMove(int move, boolean notifyListener) {
+		int fromX = Move.getFromX(move), fromY = Move.getFromY(move);
+		int toX = Move.getToX(move), toY = Move.getToY(move);
+		fromPoint.setLocation(fromX, fromY);
+		toPoint.setLocation(toX, toY);
+		Piece piece = getPiece(fromPoint);
+		if (piece == null) {
+			throw new IllegalArgumentException("No piece to move: " + Move.toString(move));
+		}
+		UndoEntry entry = pushUndoEntry();
+		// Record everything the move destroys
+		int type = piece.typeIndex();
+		Piece captured = getPiece(toPoint);
+		if (captured == piece) {
+			captured = null;
+		}
+		if (captured == null && type == PieceType.PAWN_INDEX && fromX != toX && isEnPassantSquare(toX, toY)) {
+			Piece passed = getPiece(toX, fromY);
+			if (passed != null && passed.getPlayer() != piece.getPlayer() && passed.typeIndex() == PieceType.PAWN_INDEX) {
+				captured = passed;
+			}
+		}
+		entry.move = move;
+		entry.piece = piece;
+		entry.captured = captured;
+		entry.pieceMoved = piece.hasMoved();
+		entry.sideToMove = sideToMove;
+		entry.enPassant = enPassant;
+		entry.rook = null;
+		entry.promoted = null;
+		if (captured != null) {
+			captured.die();
+		}
+		if (type == PieceType.KING_INDEX && fromY == toY && (toX - fromX == 2 || fromX - toX == 2)) {
+			int direction = toX > fromX ? 1 : -1;
+			Piece rook = findCastlingRook(piece, direction);
+			if (rook != null) {
+				entry.rook = rook;
+				entry.rookMoved = rook.hasMoved();
+				entry.rookX = rook.getX();
+				// The Rook lands on the square the King passes
+				rayPoint.setLocation(fromX + direction, fromY);
+				update(rook.getLocation(), rayPoint, rook, false);
+				rook.setMoved(true);
+			}
+		}
+		update(fromPoint, toPoint, piece, false);
+		piece.setMoved(true);
+		if (type == PieceType.PAWN_INDEX && fromX == toX && (toY - fromY == 2 || fromY - toY == 2)) {
+			setEnPassant(cell(fromX, (fromY + toY) / 2));
+		} else {
+			setEnPassant(NO_SQUARE);
+		}
+		if (type == PieceType.PAWN_INDEX && isPromotion(piece, toX, toY)) {
+			piece.die();
+			entry.promoted = promote(entry, Move.getFlags(move), piece.getPlayer(), toX, toY);
+			entry.promoted.setMoved(true);
+		}
+		setSideToMove(piece.getOtherPlayer());
+		if (notifyListener) {
+			notifyCheckListener(piece.getPlayer());
+		}
+	}
+	
+	/**
+	 * Passes the turn to the other player without moving a piece,
+	 * which search uses to test whether a position is good even so
+	 * Clears the en passant square; unmakeMove takes it back like a move
+	 */
+	public void makeNullMove() {
+		UndoEntry entry = pushUndoEntry();
+		entry.move = Move.NONE;
+		entry.piece = null;
+		entry.captured = null;
+		entry.rook = null;
+		entry.promoted = null;
+		entry.sideToMove = sideToMove;
+		entry.enPassant = enPassant;
+		setEnPassant(NO_SQUARE);
+		setSideToMove(sideToMove ^ 1);
+	}
+	
+	/**
+	 * Returns the entry on top of the undo stack, growing the stack if needed
+	 * @return UndoEntry
+	 */
+	private UndoEntry pushUndoEntry() {
+		if (undoDepth == undoStack.length) {
+			undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+		}
+		UndoEntry entry = undoStack[undoDepth];
+		if (entry == null) {
+			entry = new UndoEntry();
+			undoStack[undoDepth] = entry;
+		}
+		undoDepth++;
+		return entry;
+	}
+	
+	/**
+	 * Takes back the last move made through makeMove or makeNullMove
+	 * Brings back any piece it killed
+	 */
+	public void unmakeMove() {
+		if (undoDepth == 0) {
+			return;
+		}
+		UndoEntry entry = undoStack[--undoDepth];
+		if (entry.piece == null) {
+			// A null move
+			setEnPassant(entry.enPassant);
+			setSideToMove(entry.sideToMove);
+			return;
+		}
+		fromPoint.setLocation(Move.getFromX(entry.move), Move.getFromY(entry.move));
+		toPoint.setLocation(Move.getToX(entry.move), Move.getToY(entry.move));
+		if (entry.promoted != null) {
+			// Swap the promoted piece back for the Pawn
+			entry.promoted.die();
+			entry.piece.revive();
+			setPiece(entry.piece.getLocation(), entry.piece);
+		}
+		update(toPoint, fromPoint, entry.piece, false);
+		entry.piece.setMoved(entry.pieceMoved);
+		if (entry.rook != null) {
+			rayPoint.setLocation(entry.rookX, fromPoint.y);
+			update(entry.rook.getLocation(), rayPoint, entry.rook, false);
+			entry.rook.setMoved(entry.rookMoved);
+		}
+		if (entry.captured != null) {
+			entry.captured.revive();
+			setPiece(entry.captured.getLocation(), entry.captured);
+		}
+		setEnPassant(entry.enPassant);
+		setSideToMove(entry.sideToMove);
+		// Do not keep dead pieces reachable from the stack
+		entry.piece = null;
+		entry.captured = null;
+		entry.rook = null;
+		entry.promoted = null;
+	}
+	
+	/**
+	 * Returns the Rook a King castles with: the first piece from the King
+	 * in the given direction, if it is an unmoved Rook of the same player
+	 * at least three squares away
+	 * @param king
+	 * @param direction : 1 or -1 along the x axis
+	 * @return Piece : null if there is none
+	 */
+	Piece findCastlingRook(Piece king, int direction) {
+		int x = king.getX() + direction, y = king.getY();
+		rayPoint.setLocation(x, y);
+		while (inBounds(rayPoint) && getPiece(rayPoint) == null) {
+			rayPoint.translate(direction, 0);
+		}
+		Piece rook = inBounds(rayPoint) ? getPiece(rayPoint) : null;
+		int distance = (rayPoint.x - king.getX()) * direction;
+		if (rook == null || distance < 3 || rook.getPlayer() != king.getPlayer()
+				|| rook.typeIndex() != PieceType.ROOK_INDEX || rook.hasMoved()) {
+			return null;
+		}
+		return rook;
+	}
+	
+	/**
+	 * Tests if a Pawn moving to the given square reaches the last rank,
+	 * i.e. the next square ahead of it is off the board
+	 * @param piece : The Pawn
+	 * @param x
+	 * @param y
+	 * @return boolean
+	 */
+	public boolean isPromotion(Piece piece, int x, int y) {
+		rayPoint.setLocation(x, piece.getPlayer() == 0 ? y + 1 : y - 1);
+		return !inBounds(rayPoint);
+	}
+	
+	/**
+	 * Places the piece a Pawn promotes to, reusing the one made for an
+	 * earlier promotion at the same undo depth, so that making and taking
+	 * back promotions does not allocate once each kind has been made
+	 * @param entry : The move's undo entry
+	 * @param promotion : Move flags, a Queen unless they name another piece
+	 * @param player
+	 * @param x
+	 * @param y
+	 * @return Piece
+	 */
+	private Piece promote(UndoEntry entry, int promotion, int player, int x, int y) {
+		if (promotion < Move.PROMOTE_KNIGHT || promotion > Move.PROMOTE_QUEEN) {
+			promotion = Move.PROMOTE_QUEEN;
+		}
+		int slot = player * Move.PROMOTE_QUEEN + promotion - Move.PROMOTE_KNIGHT;
+		Piece piece = entry.promotions[slot];
+		// Taken back with its move, unless the move was never taken back
+		if (piece == null || piece.isAlive()) {
+			piece = createPromotedPiece(promotion, player, x, y);
+			entry.promotions[slot] = piece;
+			return piece;
+		}
+		piece.revive();
+		piece.getLocation().setLocation(x, y);
+		setPiece(piece.getLocation(), piece);
+		return piece;
+	}
+	
+	private Piece createPromotedPiece(int promotion, int player, int x, int y) {
+		switch (promotion) {
+			case Move.PROMOTE_KNIGHT:
+				return new Knight(player, x, y, this);
+			case Move.PROMOTE_BISHOP:
+				return new Bishop(player, x, y, this);
+			case Move.PROMOTE_ROOK:
+				return new Rook(player, x, y, this);
+			default:
+				return new Queen(player, x, y, this);
+		}
+	}
+	
+	/**
+	 * Returns the square a Pawn passed with its special first move
+	 * on the last move, where an enemy Pawn may take it en passant
+	 * @return Point : null if the last move was not a Pawn's special first move
+	 */
+	public Point getEnPassantSquare() {
+		return enPassant == NO_SQUARE ? null : new Point(enPassant & 63, enPassant >>> 6);
+	}
+	
+	public boolean isEnPassantSquare(int x, int y) {
+		return enPassant != NO_SQUARE && enPassant == cell(x, y);
+	}
+	
+	/**
+	 * Returns the en passant square packed as x | y << 6
+	 * @return int : NO_SQUARE if there is none
+	 */
+	int getEnPassantCell() {
+		return enPassant;
+	}
+	
+	void setEnPassant(int square) {
+		if (enPassant != NO_SQUARE) {
+			hash ^= Zobrist.enPassantKey(enPassant & 63, enPassant >>> 6);
+		}
+		enPassant = square;
+		if (enPassant != NO_SQUARE) {
+			hash ^= Zobrist.enPassantKey(enPassant & 63, enPassant >>> 6);
+		}
+	}
+	
+	private static int cell(int x, int y) {
+		return x | (y << 6);
+	}
+	
+	/**
+	 * Returns a copy of the position on a new board of the same kind
+	 * Every piece is copied, with the side to move and en passant square,
+	 * so that the copy can be used by another thread
+	 * Moves made so far and the listeners are not copied
+	 * @return Board
+	 */
+	public Board copy() {
+		Board copy = newBoard();
+		for (int player = 0; player < 2; player++) {
+			for (int i = 0; i < pieceCounts[player]; i++) {
+				pieces[player][i].copy(copy);
 			}
 		}
+		copy.setSideToMove(sideToMove);
+		copy.setEnPassant(enPassant);
+		return copy;
+	}
+	
+	/**
+	 * Abstract method
+	 * Returns a new empty board of the same kind and size
+	 * @return Board
+	 */
+	protected abstract Board newBoard();
+
+	/**
+	 * Returns the Zobrist hash of the position
+	 * Covers every piece and its square, the side to move, the en passant
+	 * square and which Pawns, Kings and Rooks have not moved yet
+	 * @return long
+	 */
+	public long getHash() {
+		return hash;
+	}
+	
+	/**
+	 * Recomputes the Zobrist hash from every piece on the board
+	 * Slow, getHash() returns the same value kept up to date as pieces move
+	 * @return long
+	 */
+	public long computeHash() {
+		long result = sideToMove == 1 ? Zobrist.SIDE_KEY : 0;
+		if (enPassant != NO_SQUARE) {
+			result ^= Zobrist.enPassantKey(enPassant & 63, enPassant >>> 6);
+		}
+		for (int player = 0; player < 2; player++) {
+			for (int i = 0; i < pieceCounts[player]; i++) {
+				result ^= keyOf(pieces[player][i], pieces[player][i].getLocation());
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the Zobrist hash of the Pawns alone: which squares hold
+	 * whose Pawns, without whether they have moved
+	 * Changes far less often than getHash(), for caching Pawn structure
+	 * @return long : 0 if there are no Pawns
+	 */
+	public long getPawnHash() {
+		return pawnHash;
+	}
+	
+	/**
+	 * Recomputes the Pawn hash from every piece on the board
+	 * Slow, getPawnHash() returns the same value kept up to date as pieces move
+	 * @return long
+	 */
+	public long computePawnHash() {
+		long result = 0;
+		for (int player = 0; player < 2; player++) {
+			for (int i = 0; i < pieceCounts[player]; i++) {
+				result ^= pawnKeyOf(pieces[player][i], pieces[player][i].getLocation());
+			}
+		}
+		return result;
+	}
+	
+	public int getSideToMove() {
+		return sideToMove;
+	}
+	
+	/**
+	 * Sets the player whose turn it is
+	 * Piece.move and makeMove hand the turn to the other player by themselves
+	 * @param player
+	 */
+	public void setSideToMove(int player) {
+		if (player != sideToMove) {
+			hash ^= Zobrist.SIDE_KEY;
+			sideToMove = player;
+		}
+	}
+	
+	/**
+	 * Called by a piece when its moved flag changes
+	 * @param piece
+	 */
+	void movedChanged(Piece piece) {
+		Point location = piece.getLocation();
+		if (getPiece(location) == piece && inBounds(location) && hasUnmovedKey(piece)) {
+			hash ^= Zobrist.unmovedKey(piece.getPlayer(), location.x, location.y);
+		}
+	}
+	
+	/**
+	 * Tests if a piece's moves depend on whether it has moved:
+	 * Pawns for their special first move, Kings and Rooks for castling
+	 * @param piece
+	 * @return boolean
+	 */
+	private static boolean hasUnmovedKey(Piece piece) {
+		int type = piece.typeIndex();
+		return type == PieceType.PAWN_INDEX || type == PieceType.KING_INDEX || type == PieceType.ROOK_INDEX;
+	}
+	
+	/**
+	 * Returns the hash key of a piece standing at the given location
+	 * @param piece : May be null
+	 * @param location
+	 * @return long : 0 if there is no piece or the location is out of bounds
+	 */
+	private long keyOf(Piece piece, Point location) {
+		if (piece == null || !inBounds(location)) {
+			return 0;
+		}
+		long key = Zobrist.pieceKey(piece.typeIndex(), piece.getPlayer(), location.x, location.y);
+		if (!piece.hasMoved() && hasUnmovedKey(piece)) {
+			key ^= Zobrist.unmovedKey(piece.getPlayer(), location.x, location.y);
+		}
+		return key;
+	}
+	
+	/**
+	 * Returns the Pawn hash key of a piece standing at the given location
+	 * @param piece : May be null
+	 * @param location
+	 * @return long : 0 unless the piece is a Pawn on the board
+	 */
+	private long pawnKeyOf(Piece piece, Point location) {
+		if (piece == null || piece.typeIndex() != PieceType.PAWN_INDEX || !inBounds(location)) {
+			return 0;
+		}
+		return Zobrist.pieceKey(PieceType.PAWN_INDEX, piece.getPlayer(), location.x, location.y);
+	}
+	
+	/**
+	 * Returns the number of moves that unmakeMove can take back
+	 * @return int
+	 */
+	public int getUndoDepth() {
+		return undoDepth;
 	}
 	
 	/**
@@ -83,18 +625,58 @@ public abstract class Board {
 	 * @return boolean
 	 */
 	public boolean check(int offensivePlayer) {
-		// Iterate through all the offending player's pieces
-		for (Piece piece:getPlayerPieces(offensivePlayer)) {
-			// Iterate through all the locations they can move
-			// "false" indicates that these positions are allowed to endanger their own King
-			// because if one of these positions can kill the opposition's King, the game would conclude
-			for (Point point:piece.getValidMoveLocations(false)) {
-				// Get the piece at that location
-				Piece currentPiece = grid.get(point);
-				// If the piece at that location is a King, it implies a Check state
-				// NOTE: We do not need to check if its their own King
-				// 		 That logic is done by movements from inside getValidMoveLocations()
-				if (currentPiece != null && currentPiece.getType().equals("king")) {
+		// Only the defending player's Kings matter
+		int defensivePlayer = offensivePlayer ^ 1;
+		if (kingCounts[defensivePlayer] == 1) {
+			return isSquareAttacked(kings[defensivePlayer].getLocation(), offensivePlayer);
+		}
+		for (int i = 0; i < pieceCounts[defensivePlayer]; i++) {
+			Piece piece = pieces[defensivePlayer][i];
+			if (piece.typeIndex() == PieceType.KING_INDEX && isSquareAttacked(piece.getLocation(), offensivePlayer)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Tests if any of the given player's pieces attacks the given square
+	 * Works outward from the square: looks for knights and kings a single
+	 * step away, pawns diagonally behind it, and sliding pieces at the end of each ray
+	 * NOTE: Assumes the pieces move like the standard chess pieces
+	 * @param square
+	 * @param byPlayer : The attacking player
+	 * @return boolean
+	 */
+	public boolean isSquareAttacked(Point square, int byPlayer) {
+		int x = square.x, y = square.y;
+		for (int[] step:KNIGHT_STEPS) {
+			if (isPiece(getPiece(x + step[0], y + step[1]), byPlayer, PieceType.KNIGHT_INDEX)) {
+				return true;
+			}
+		}
+		for (int[] step:KING_STEPS) {
+			if (isPiece(getPiece(x + step[0], y + step[1]), byPlayer, PieceType.KING_INDEX)) {
+				return true;
+			}
+		}
+		// Player 0 pawns attack up the y-axis, so they sit below the square
+		int pawnY = byPlayer == 0 ? y - 1 : y + 1;
+		if (isPiece(getPiece(x - 1, pawnY), byPlayer, PieceType.PAWN_INDEX)
+				|| isPiece(getPiece(x + 1, pawnY), byPlayer, PieceType.PAWN_INDEX)) {
+			return true;
+		}
+		// The first piece along each ray may be a sliding attacker
+		for (int[] step:KING_STEPS) {
+			rayPoint.setLocation(x + step[0], y + step[1]);
+			while (inBounds(rayPoint) && getPiece(rayPoint) == null) {
+				rayPoint.translate(step[0], step[1]);
+			}
+			Piece piece = inBounds(rayPoint) ? getPiece(rayPoint) : null;
+			if (piece != null && piece.getPlayer() == byPlayer) {
+				int type = piece.typeIndex();
+				boolean diagonal = step[0] != 0 && step[1] != 0;
+				if (type == PieceType.QUEEN_INDEX || type == (diagonal ? PieceType.BISHOP_INDEX : PieceType.ROOK_INDEX)) {
 					return true;
 				}
 			}
@@ -102,6 +684,10 @@ public abstract class Board {
 		return false;
 	}
 	
+	private static boolean isPiece(Piece piece, int player, int type) {
+		return piece != null && piece.getPlayer() == player && piece.typeIndex() == type;
+	}
+	
 	/**
 	 * Tests for CheckMate condition
 	 * @param defensivePlayer
@@ -129,21 +715,172 @@ public abstract class Board {
 	
 	/**
 	 * Return all the pieces of the given player
+	 * The board keeps each player's pieces as they are placed and removed,
+	 * this returns a copy of that list
 	 * @param player
 	 * @return ArrayList<Piece>
 	 */
 	public ArrayList<Piece> getPlayerPieces(int player) {
-		ArrayList<Piece> pieces = new ArrayList<Piece>();
-		// Iterate through all the keys in the grid
-		for (Point p:grid.keySet()) {
-			// Get piece at each key
-			Piece currentPiece = grid.get(p);
-			// If the piece is active and belongs to the current player, accept it
-			if (currentPiece.isAlive() && currentPiece.getPlayer() == player) {
-				pieces.add(currentPiece);
+		ArrayList<Piece> playerPieces = new ArrayList<Piece>(pieceCounts[player]);
+		for (int i = 0; i < pieceCounts[player]; i++) {
+			playerPieces.add(pieces[player][i]);
+		}
+		return playerPieces;
+	}
+	
+	/**
+	 * Returns the number of pieces the given player has on the board
+	 * Together with getPlayerPiece, walks a player's pieces without allocating
+	 * Placing or removing pieces may reorder them
+	 * @param player
+	 * @return int
+	 */
+	public int getPieceCount(int player) {
+		return pieceCounts[player];
+	}
+	
+	/**
+	 * Returns one of the given player's pieces
+	 * @param player
+	 * @param index : From 0 to getPieceCount(player) - 1
+	 * @return Piece
+	 */
+	public Piece getPlayerPiece(int player, int index) {
+		if (index >= pieceCounts[player]) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Count: " + pieceCounts[player]);
+		}
+		return pieces[player][index];
+	}
+	
+	/**
+	 * Returns the given player's King
+	 * @param player
+	 * @return Piece : null if the player has no King, any of them if several
+	 */
+	public Piece getKing(int player) {
+		return kings[player];
+	}
+	
+	/**
+	 * Returns all the positions on the board the given piece can move to
+	 * By default walks each of the piece's movements one square at a time
+	 * Subclasses may override this with a faster move source
+	 * @param piece
+	 * @param safe : If set to false, function will return positions that 
+	 * 				 allow for check to be placed on the King.
+	 * @return ArrayList<Point>
+	 */
+	public ArrayList<Point> getValidMoveLocations(Piece piece, boolean safe) {
+		return piece.getMovementLocations(safe);
+	}
+	
+	/**
+	 * Fills the list with every legal move of the given player, packed by Move.of
+	 * A Pawn reaching the last rank gives one move per piece it can become
+	 * By default walks each piece's movements, without allocating for each move
+	 * Subclasses may override this with a faster move source
+	 * @param player
+	 * @param moves : Emptied, then filled
+	 */
+	public void generateMoves(int player, MoveList moves) {
+		moves.clear();
+		int count = pieceCounts[player];
+		if (generatingPieces.length < count) {
+			generatingPieces = new Piece[count];
+		}
+		System.arraycopy(pieces[player], 0, generatingPieces, 0, count);
+		for (int i = 0; i < count; i++) {
+			generatingPieces[i].addMovementMoves(moves, true);
+		}
+	}
+	
+	/**
+	 * Fills the list with the legal captures and promotions of the given player,
+	 * the moves a quiescence search looks at
+	 * By default generates every move and keeps those
+	 * Subclasses may override this with a faster move source
+	 * @param player
+	 * @param moves : Emptied, then filled
+	 */
+	public void generateCaptures(int player, MoveList moves) {
+		generateMoves(player, moves);
+		int kept = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if (Move.getFlags(move) != Move.NONE || isCapture(move)) {
+				moves.set(kept++, move);
 			}
 		}
-		return pieces;
+		moves.truncate(kept);
+	}
+	
+	/**
+	 * Tests if a move takes a piece, en passant included
+	 * @param move : A move packed by Move.of
+	 * @return boolean
+	 */
+	public boolean isCapture(int move) {
+		int fromX = Move.getFromX(move), toX = Move.getToX(move), toY = Move.getToY(move);
+		Piece piece = getPiece(fromX, Move.getFromY(move));
+		Piece target = getPiece(toX, toY);
+		if (piece == null) {
+			return false;
+		}
+		if (target != null) {
+			return target.getPlayer() != piece.getPlayer();
+		}
+		return piece.typeIndex() == PieceType.PAWN_INDEX && fromX != toX && isEnPassantSquare(toX, toY);
+	}
+	
+	/**
+	 * Estimates the material a capture wins once every piece that can
+	 * take back on the target square has (static exchange evaluation)
+	 * By default only asks whether the target square is defended:
+	 * the victim's value, less the capturing piece's if it is
+	 * Subclasses may override this with a full exchange
+	 * @param move : A capture packed by Move.of
+	 * @param values : Value of each type of piece, indexed by PieceType ordinal
+	 * @return int : Material won by the side making the move, negative if lost
+	 */
+	public int staticExchange(int move, int[] values) {
+		int fromX = Move.getFromX(move), toX = Move.getToX(move), toY = Move.getToY(move);
+		Piece piece = getPiece(fromX, Move.getFromY(move));
+		Piece target = getPiece(toX, toY);
+		if (piece == null) {
+			return 0;
+		}
+		int gain = target != null ? valueOf(target, values)
+				: isCapture(move) ? values[PieceType.PAWN_INDEX] : 0;
+		exchangePoint.setLocation(toX, toY);
+		if (isSquareAttacked(exchangePoint, piece.getOtherPlayer())) {
+			gain -= valueOf(piece, values);
+		}
+		return gain;
+	}
+	
+	private static int valueOf(Piece piece, int[] values) {
+		int type = piece.typeIndex();
+		return type < 0 ? 0 : values[type];
+	}
+	
+	/**
+	 * Adds a move to a list, one for each promotion if it takes a Pawn to the last rank
+	 * @param moves
+	 * @param piece : The piece moving
+	 * @param fromX
+	 * @param fromY
+	 * @param toX
+	 * @param toY
+	 */
+	void addMove(MoveList moves, Piece piece, int fromX, int fromY, int toX, int toY) {
+		if (piece.typeIndex() == PieceType.PAWN_INDEX && isPromotion(piece, toX, toY)) {
+			moves.add(Move.of(fromX, fromY, toX, toY, Move.PROMOTE_QUEEN));
+			moves.add(Move.of(fromX, fromY, toX, toY, Move.PROMOTE_ROOK));
+			moves.add(Move.of(fromX, fromY, toX, toY, Move.PROMOTE_BISHOP));
+			moves.add(Move.of(fromX, fromY, toX, toY, Move.PROMOTE_KNIGHT));
+		} else {
+			moves.add(Move.of(fromX, fromY, toX, toY));
+		}
 	}
 	
 	/**
@@ -155,6 +892,18 @@ public abstract class Board {
 		return grid.get(point);
 	}
 	
+	/**
+	 * Returns piece at a given location
+	 * Does not allocate a Point
+	 * @param x
+	 * @param y
+	 * @return Piece
+	 */
+	public Piece getPiece(int x, int y) {
+		lookupPoint.setLocation(x, y);
+		return getPiece(lookupPoint);
+	}
+	
 	/**
 	 * Sets a listener for Check and CheckMate
 	 * @param chk
@@ -169,7 +918,127 @@ public abstract class Board {
 	 * @param point
 	 */
 	public void clear(Point point) {
-		grid.remove(point);
+		Piece removed = removePiece(point);
+		pieceRemoved(removed, point);
+		unregister(removed);
+	}
+	
+	/**
+	 * Sets a listener for pieces placed on and taken off the board
+	 * @param listener : May be null
+	 */
+	public void setPositionListener(PositionListener listener) {
+		positionListener = listener;
+	}
+	
+	public PositionListener getPositionListener() {
+		return positionListener;
+	}
+	
+	/**
+	 * Accounts for a piece now standing at the given location
+	 * Every change of the position goes through this and pieceRemoved
+	 * @param piece : May be null
+	 * @param location
+	 */
+	private void pieceAdded(Piece piece, Point location) {
+		if (piece == null || !inBounds(location)) {
+			return;
+		}
+		hash ^= keyOf(piece, location);
+		pawnHash ^= pawnKeyOf(piece, location);
+		if (positionListener != null) {
+			positionListener.pieceAdded(piece, location.x, location.y);
+		}
+	}
+	
+	/**
+	 * Accounts for a piece no longer standing at the given location
+	 * @param piece : May be null
+	 * @param location
+	 */
+	private void pieceRemoved(Piece piece, Point location) {
+		if (piece == null || !inBounds(location)) {
+			return;
+		}
+		hash ^= keyOf(piece, location);
+		pawnHash ^= pawnKeyOf(piece, location);
+		if (positionListener != null) {
+			positionListener.pieceRemoved(piece, location.x, location.y);
+		}
+	}
+	
+	/**
+	 * Adds a piece placed on the board to its player's list
+	 * @param piece
+	 */
+	private void register(Piece piece) {
+		if (piece.registryIndex >= 0) {
+			return;
+		}
+		int player = piece.getPlayer();
+		if (pieceCounts[player] == pieces[player].length) {
+			pieces[player] = Arrays.copyOf(pieces[player], pieceCounts[player] * 2);
+		}
+		piece.registryIndex = pieceCounts[player];
+		pieces[player][pieceCounts[player]++] = piece;
+		if (piece.typeIndex() == PieceType.KING_INDEX) {
+			kings[player] = piece;
+			kingCounts[player]++;
+		}
+	}
+	
+	/**
+	 * Removes a piece taken off the board from its player's list
+	 * The last piece of the list takes its place
+	 * @param piece : May be null
+	 */
+	private void unregister(Piece piece) {
+		if (piece == null || piece.registryIndex < 0) {
+			return;
+		}
+		int player = piece.getPlayer();
+		Piece[] list = pieces[player];
+		int last = --pieceCounts[player];
+		list[piece.registryIndex] = list[last];
+		list[piece.registryIndex].registryIndex = piece.registryIndex;
+		list[last] = null;
+		piece.registryIndex = -1;
+		if (piece.typeIndex() == PieceType.KING_INDEX) {
+			kingCounts[player]--;
+			if (kings[player] == piece) {
+				kings[player] = null;
+				// Fall back on any other King of the player
+				for (int i = 0; i < pieceCounts[player]; i++) {
+					if (list[i].typeIndex() == PieceType.KING_INDEX) {
+						kings[player] = list[i];
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * State needed to take back one move
+	 * Entries are allocated once and reused
+	 */
+	private static class UndoEntry {
+		int move;
+		Piece piece;
+		// Piece killed by the move, may be null
+		Piece captured;
+		// Whether the moving piece had moved before, e.g. a Pawn's first move
+		boolean pieceMoved;
+		int sideToMove;
+		int enPassant;
+		// Rook that castled with the King, and where it came from
+		Piece rook;
+		boolean rookMoved;
+		int rookX;
+		// Piece the Pawn was promoted to
+		Piece promoted;
+		// Pieces promoted to at this depth before, by player * 4 + promotion - 1
+		Piece[] promotions = new Piece[2 * Move.PROMOTE_QUEEN];
 	}
 	
 	/**
@@ -182,4 +1051,15 @@ public abstract class Board {
 		public void onCheckMate();
 	}
 	
+	/**
+	 * Interface for listeners that follow the position as it changes,
+	 * e.g. to keep a running evaluation
+	 * A move is seen as the piece removed from its square and added to another;
+	 * a capture, promotion or castling as several such events
+	 */
+	public interface PositionListener {
+		public void pieceAdded(Piece piece, int x, int y);
+		public void pieceRemoved(Piece piece, int x, int y);
+	}
+	
 }
@@ -0,0 +1,48 @@
+package chessLayout;
+import java.awt.Point;
+
+
+
+public class CastlingMovement extends Movement {
+
+	// Square the King passes, reused so it need not allocate
+	private Point passed = new Point();
+
+	/**
+	 * Constructor
+	 * @param dx : 2 or -2, the King moves two squares towards the Rook
+	 */
+	public CastlingMovement(int dx) {
+		super(dx, 0, false);
+	}
+
+	@Override
+	/**
+	 * Variation of function described in Parent class
+	 * The King may castle if neither it nor the Rook has moved,
+	 * the squares between them are empty, and the King is not in Check
+	 * and does not pass through or land on an attacked square
+	 * Board.makeMove moves the Rook along with the King
+	 */
+	public boolean canMove(Point point, Piece piece, Board board, boolean safe) {
+		if (!board.inBounds(point) || piece.hasMoved()) {
+			return false;
+		}
+		int direction = dx > 0 ? 1 : -1;
+		if (board.findCastlingRook(piece, direction) == null) {
+			return false;
+		}
+		int enemy = piece.getOtherPlayer();
+		passed.setLocation(piece.getX() + direction, piece.getY());
+		if (board.isSquareAttacked(piece.getLocation(), enemy) || board.isSquareAttacked(passed, enemy)) {
+			return false;
+		}
+		return !safe || !willCauseCheck(point, piece, board);
+	}
+
+	@Override
+	public boolean shouldRepeat(Point point, Piece piece, Board board) {
+		return false;
+	}
+
+}
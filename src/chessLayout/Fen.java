@@ -0,0 +1,353 @@
+package chessLayout;
+
+import chessPieces.Bishop;
+import chessPieces.King;
+import chessPieces.Knight;
+import chessPieces.Pawn;
+import chessPieces.Queen;
+import chessPieces.Rook;
+
+
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), e.g. the
+ * starting position is "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+ * Covers the 8x8 squares from (0,0), with the standard pieces of chessPieces
+ */
+public final class Fen {
+
+	// Letters by PieceType ordinal, and castling letters by right
+	private static final String PIECES = "pnbrqk";
+	private static final String CASTLING = "KQkq";
+	private static final int SIZE = 8;
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private Fen() {
+	}
+
+	/**
+	 * Returns a new BitBoard set up from a FEN string, see load
+	 * @param fen
+	 * @return Board
+	 * @throws IllegalArgumentException : If the string is not a FEN position
+	 */
+	public static Board parse(String fen) {
+		Board board = new BitBoard();
+		load(board, fen);
+		return board;
+	}
+
+	/**
+	 * Sets up a position on an empty board from a FEN string
+	 * Reads the placement, side to move, castling and en passant fields;
+	 * any field after the placement may be left out. Kings and Rooks without
+	 * a castling right are marked as moved, as are Pawns off their starting rank
+	 * Each side needs exactly one King and no Pawn on the first or last rank
+	 * Castling is "-" or letters of "KQkq" each at most once, every right with
+	 * its King on e1 or e8 and its Rook in the corner. The en passant square
+	 * must be the empty square a Pawn of the side not to move just passed,
+	 * with that Pawn in front of it and its starting square empty
+	 * The move counters are skipped, the board does not keep them
+	 * Allocates nothing but the pieces
+	 * @param board : Empty, with the 8x8 squares from (0,0)
+	 * @param fen
+	 * @throws IllegalArgumentException : If the string is not a FEN position,
+	 * 									  the board is left empty
+	 * @throws IllegalStateException : If the board is not empty
+	 */
+	public static void load(Board board, String fen) {
+		if (board.getPieceCount(0) + board.getPieceCount(1) > 0) {
+			throw new IllegalStateException("The board is not empty");
+		}
+		// Every field is checked before the first piece is placed,
+		// so a bad string leaves the board empty
+		int length = fen.length();
+		int placement = skipSpaces(fen, 0);
+		int at = skipSpaces(fen, checkPlacement(fen, placement));
+		int side = 0;
+		if (at < length) {
+			char c = fen.charAt(at++);
+			if ((c != 'w' && c != 'b') || (at < length && fen.charAt(at) != ' ')) {
+				throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+			}
+			side = c == 'b' ? 1 : 0;
+		}
+		at = skipSpaces(fen, at);
+		// Castling rights, bit (player * 2 + side) with side 0 for the King's side, 1 for the Queen's
+		int rights = 0;
+		if (at < length && fen.charAt(at) == '-') {
+			at++;
+		} else {
+			for (; at < length && fen.charAt(at) != ' '; at++) {
+				int right = CASTLING.indexOf(fen.charAt(at));
+				if (right < 0 || (rights >> right & 1) != 0) {
+					throw new IllegalArgumentException("Bad castling field in FEN: " + fen);
+				}
+				rights |= 1 << right;
+			}
+		}
+		if (at < length && fen.charAt(at) != ' ') {
+			throw new IllegalArgumentException("Bad castling field in FEN: " + fen);
+		}
+		for (int right = 0; right < CASTLING.length(); right++) {
+			if ((rights >> right & 1) != 0 && !castlingPiecesHome(fen, placement, right)) {
+				throw new IllegalArgumentException("Castling right without its King and Rook in FEN: " + fen);
+			}
+		}
+		at = skipSpaces(fen, at);
+		int square = Board.NO_SQUARE;
+		if (at < length && fen.charAt(at) != '-') {
+			int fileX = fen.charAt(at) - 'a';
+			int rankY = at + 1 < length ? fen.charAt(at + 1) - '1' : -1;
+			// The square a Pawn of the side not to move just passed
+			if (fileX < 0 || fileX >= SIZE || rankY != (side == 0 ? SIZE - 3 : 2)
+					|| (at + 2 < length && fen.charAt(at + 2) != ' ')) {
+				throw new IllegalArgumentException("Bad en passant field in FEN: " + fen);
+			}
+			// Towards the Pawn, which moved away from its player's side
+			int ahead = side == 0 ? -1 : 1;
+			if (letterAt(fen, placement, fileX, rankY) != 0
+					|| letterAt(fen, placement, fileX, rankY + ahead) != (side == 0 ? 'p' : 'P')
+					|| letterAt(fen, placement, fileX, rankY - ahead) != 0) {
+				throw new IllegalArgumentException("En passant square without the Pawn that passed it in FEN: " + fen);
+			}
+			square = fileX | rankY << 6;
+		}
+		int x = 0, y = SIZE - 1;
+		for (at = placement; at < length && fen.charAt(at) != ' '; at++) {
+			char c = fen.charAt(at);
+			if (c == '/') {
+				x = 0;
+				y--;
+			} else if (c >= '1' && c <= '8') {
+				x += c - '0';
+			} else {
+				int player = c >= 'a' ? 1 : 0;
+				createPiece(board, PIECES.indexOf(player == 1 ? c : (char) (c + ('a' - 'A'))), player, x++, y);
+			}
+		}
+		forfeitCastling(board, rights);
+		board.setSideToMove(side);
+		board.setEnPassant(square);
+	}
+
+	/**
+	 * Checks the placement field of a FEN string: eight ranks of eight squares,
+	 * one King of each side and no Pawn on the first or last rank
+	 * @param fen
+	 * @param at : Where the field starts
+	 * @return int : Where the field ends
+	 * @throws IllegalArgumentException : If the field is not a placement
+	 */
+	private static int checkPlacement(String fen, int at) {
+		int x = 0, y = SIZE - 1;
+		int whiteKings = 0, blackKings = 0;
+		for (; at < fen.length() && fen.charAt(at) != ' '; at++) {
+			char c = fen.charAt(at);
+			if (c == '/') {
+				if (x != SIZE || y == 0) {
+					throw new IllegalArgumentException("Bad placement in FEN: " + fen);
+				}
+				x = 0;
+				y--;
+			} else if (c >= '1' && c <= '8') {
+				x += c - '0';
+			} else if (PIECES.indexOf(c >= 'a' ? c : (char) (c + ('a' - 'A'))) >= 0) {
+				if ((c == 'P' || c == 'p') && (y == 0 || y == SIZE - 1)) {
+					throw new IllegalArgumentException("Pawn on the first or last rank in FEN: " + fen);
+				}
+				whiteKings += c == 'K' ? 1 : 0;
+				blackKings += c == 'k' ? 1 : 0;
+				x++;
+			} else {
+				throw new IllegalArgumentException("Bad placement in FEN: " + fen);
+			}
+			if (x > SIZE) {
+				throw new IllegalArgumentException("Bad placement in FEN: " + fen);
+			}
+		}
+		if (x != SIZE || y != 0) {
+			throw new IllegalArgumentException("Bad placement in FEN: " + fen);
+		}
+		if (whiteKings != 1 || blackKings != 1) {
+			throw new IllegalArgumentException("FEN needs one King per side: " + fen);
+		}
+		return at;
+	}
+
+	/**
+	 * Returns the letter on a square of a checked placement field
+	 * @param fen
+	 * @param at : Where the field starts
+	 * @param x
+	 * @param y
+	 * @return char : 0 if the square is empty
+	 */
+	private static char letterAt(String fen, int at, int x, int y) {
+		int fileX = 0, rankY = SIZE - 1;
+		for (; at < fen.length() && fen.charAt(at) != ' ' && rankY >= y; at++) {
+			char c = fen.charAt(at);
+			if (c == '/') {
+				fileX = 0;
+				rankY--;
+			} else if (c >= '1' && c <= '8') {
+				fileX += c - '0';
+			} else {
+				if (rankY == y && fileX == x) {
+					return c;
+				}
+				fileX++;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Tests if the King and Rook of a castling right are on their starting squares
+	 * @param fen
+	 * @param at : Where the checked placement field starts
+	 * @param right : Index into CASTLING
+	 * @return boolean
+	 */
+	private static boolean castlingPiecesHome(String fen, int at, int right) {
+		int player = right / 2;
+		int firstRank = player == 0 ? 0 : SIZE - 1;
+		char king = player == 0 ? 'K' : 'k', rook = player == 0 ? 'R' : 'r';
+		return letterAt(fen, at, SIZE / 2, firstRank) == king
+				&& letterAt(fen, at, right % 2 == 0 ? SIZE - 1 : 0, firstRank) == rook;
+	}
+
+	/**
+	 * Places a new piece for load
+	 * @param board
+	 * @param type : Index into PIECES, a PieceType ordinal
+	 * @param player
+	 * @param x
+	 * @param y
+	 */
+	private static void createPiece(Board board, int type, int player, int x, int y) {
+		switch (TYPES[type]) {
+			case PAWN:
+				Pawn pawn = new Pawn(player, x, y, board);
+				if (y != (player == 0 ? 1 : SIZE - 2)) {
+					pawn.firstMoveCompleted();
+				}
+				break;
+			case KNIGHT:
+				new Knight(player, x, y, board);
+				break;
+			case BISHOP:
+				new Bishop(player, x, y, board);
+				break;
+			case ROOK:
+				new Rook(player, x, y, board);
+				break;
+			case QUEEN:
+				new Queen(player, x, y, board);
+				break;
+			default:
+				new King(player, x, y, board);
+				break;
+		}
+	}
+
+	/**
+	 * Marks as moved the Kings and Rooks that have no castling right
+	 * @param board
+	 * @param rights : See load
+	 */
+	private static void forfeitCastling(Board board, int rights) {
+		for (int player = 0; player < 2; player++) {
+			int firstRank = player == 0 ? 0 : SIZE - 1;
+			for (int i = 0; i < board.getPieceCount(player); i++) {
+				Piece piece = board.getPlayerPiece(player, i);
+				int type = piece.typeIndex();
+				boolean castles;
+				if (type == PieceType.KING.ordinal()) {
+					castles = piece.getY() == firstRank && (rights >> (player * 2) & 3) != 0;
+				} else if (type == PieceType.ROOK.ordinal()) {
+					int side = piece.getX() == SIZE - 1 ? 0 : (piece.getX() == 0 ? 1 : -1);
+					castles = piece.getY() == firstRank && side >= 0 && (rights >> (player * 2 + side) & 1) != 0;
+				} else {
+					continue;
+				}
+				piece.setMoved(!castles);
+			}
+		}
+	}
+
+	private static int skipSpaces(String text, int at) {
+		while (at < text.length() && text.charAt(at) == ' ') {
+			at++;
+		}
+		return at;
+	}
+
+	/**
+	 * Returns the position on a board in FEN
+	 * A King and Rook that have not moved give a castling right. The board
+	 * does not keep the move counters, so they are written as 0 and 1
+	 * @param board
+	 * @return String
+	 * @throws IllegalStateException : If a piece has no FEN letter
+	 */
+	public static String write(Board board) {
+		StringBuilder fen = new StringBuilder(90);
+		for (int y = SIZE - 1; y >= 0; y--) {
+			int empty = 0;
+			for (int x = 0; x < SIZE; x++) {
+				Piece piece = board.getPiece(x, y);
+				if (piece == null) {
+					empty++;
+					continue;
+				}
+				int type = piece.typeIndex();
+				if (type < 0 || type >= PIECES.length()) {
+					throw new IllegalStateException("No FEN letter for " + piece);
+				}
+				if (empty > 0) {
+					fen.append((char) ('0' + empty));
+					empty = 0;
+				}
+				char letter = PIECES.charAt(type);
+				fen.append(piece.getPlayer() == 0 ? (char) (letter - ('a' - 'A')) : letter);
+			}
+			if (empty > 0) {
+				fen.append((char) ('0' + empty));
+			}
+			if (y > 0) {
+				fen.append('/');
+			}
+		}
+		fen.append(board.getSideToMove() == 0 ? " w " : " b ");
+		int length = fen.length();
+		for (int player = 0; player < 2; player++) {
+			int firstRank = player == 0 ? 0 : SIZE - 1;
+			if (!canCastleWith(board.getPiece(SIZE / 2, firstRank), player, PieceType.KING)) {
+				continue;
+			}
+			if (canCastleWith(board.getPiece(SIZE - 1, firstRank), player, PieceType.ROOK)) {
+				fen.append(CASTLING.charAt(player * 2));
+			}
+			if (canCastleWith(board.getPiece(0, firstRank), player, PieceType.ROOK)) {
+				fen.append(CASTLING.charAt(player * 2 + 1));
+			}
+		}
+		if (fen.length() == length) {
+			fen.append('-');
+		}
+		fen.append(' ');
+		int square = board.getEnPassantCell();
+		if (square == Board.NO_SQUARE) {
+			fen.append('-');
+		} else {
+			fen.append((char) ('a' + (square & 63))).append((char) ('1' + (square >>> 6)));
+		}
+		return fen.append(" 0 1").toString();
+	}
+
+	private static boolean canCastleWith(Piece piece, int player, PieceType type) {
+		return piece != null && piece.getPlayer() == player && piece.typeIndex() == type.ordinal() && !piece.hasMoved();
+	}
+
+}
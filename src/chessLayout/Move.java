@@ -0,0 +1,139 @@
+package chessLayout;
+
+
+
+/**
+ * Packs a move into a single int so it can be stored and passed
+ * around without allocating
+ * Bits 0-5 : x coordinate the piece moves from
+ * Bits 6-11 : y coordinate the piece moves from
+ * Bits 12-17 : x coordinate the piece moves to
+ * Bits 18-23 : y coordinate the piece moves to
+ * Bits 24-31 : flags, naming the piece a Pawn promotes to
+ * Castling and en passant are recognised from the piece and squares,
+ * so they need no flag
+ * A move never starts and ends on the same square, so 0 is free to mean "no move"
+ */
+public final class Move {
+
+	public static final int NONE = 0;
+
+	// Promotion flags, a Pawn reaching the last rank without one becomes a Queen
+	public static final int PROMOTE_KNIGHT = 1;
+	public static final int PROMOTE_BISHOP = 2;
+	public static final int PROMOTE_ROOK = 3;
+	public static final int PROMOTE_QUEEN = 4;
+	// Coordinate notation letters by promotion flag
+	private static final String PROMOTIONS = " nbrq";
+
+	private Move() {
+	}
+
+	public static int of(int fromX, int fromY, int toX, int toY) {
+		return of(fromX, fromY, toX, toY, 0);
+	}
+
+	public static int of(int fromX, int fromY, int toX, int toY, int flags) {
+		return fromX | (fromY << 6) | (toX << 12) | (toY << 18) | (flags << 24);
+	}
+
+	public static int getFromX(int move) {
+		return move & 63;
+	}
+
+	public static int getFromY(int move) {
+		return (move >>> 6) & 63;
+	}
+
+	public static int getToX(int move) {
+		return (move >>> 12) & 63;
+	}
+
+	public static int getToY(int move) {
+		return (move >>> 18) & 63;
+	}
+
+	public static int getFlags(int move) {
+		return move >>> 24;
+	}
+
+	/**
+	 * Returns the move as "(fromX,fromY)->(toX,toY)"
+	 * @param move
+	 * @return String
+	 */
+	public static String toString(int move) {
+		return "(" + getFromX(move) + "," + getFromY(move) + ")->(" + getToX(move) + "," + getToY(move) + ")";
+	}
+
+	/**
+	 * Returns the move in coordinate notation, files from 'a' and ranks from 1,
+	 * e.g. "e2e4", or "e7e8n" for a promotion to a Knight
+	 * @param move
+	 * @return String
+	 */
+	public static String toCoordinates(int move) {
+		StringBuilder text = new StringBuilder(5);
+		text.append((char) ('a' + getFromX(move))).append(getFromY(move) + 1);
+		text.append((char) ('a' + getToX(move))).append(getToY(move) + 1);
+		if (getFlags(move) >= PROMOTE_KNIGHT && getFlags(move) <= PROMOTE_QUEEN) {
+			text.append(PROMOTIONS.charAt(getFlags(move)));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Reads a move in coordinate notation, the reverse of toCoordinates
+	 * Promotion letters may be either case
+	 * @param text
+	 * @return int
+	 * @throws IllegalArgumentException : If the text is not a move
+	 */
+	public static int parse(String text) {
+		int[] at = {0};
+		int fromX = file(text, at), fromY = rank(text, at);
+		int toX = file(text, at), toY = rank(text, at);
+		int flags = NONE;
+		if (at[0] < text.length()) {
+			flags = PROMOTIONS.indexOf(Character.toLowerCase(text.charAt(at[0]++)));
+			if (flags < PROMOTE_KNIGHT) {
+				throw new IllegalArgumentException("Not a move: " + text);
+			}
+		}
+		if (at[0] != text.length() || (fromX == toX && fromY == toY)) {
+			throw new IllegalArgumentException("Not a move: " + text);
+		}
+		return of(fromX, fromY, toX, toY, flags);
+	}
+
+	/**
+	 * Reads a file letter
+	 * @param text
+	 * @param at : Index to read at, moved past the letter
+	 * @return int : The x coordinate
+	 */
+	private static int file(String text, int[] at) {
+		if (at[0] >= text.length() || text.charAt(at[0]) < 'a' || text.charAt(at[0]) >= 'a' + 64) {
+			throw new IllegalArgumentException("Not a move: " + text);
+		}
+		return text.charAt(at[0]++) - 'a';
+	}
+
+	/**
+	 * Reads a rank number
+	 * @param text
+	 * @param at : Index to read at, moved past the digits
+	 * @return int : The y coordinate
+	 */
+	private static int rank(String text, int[] at) {
+		int rank = 0, start = at[0];
+		while (at[0] < text.length() && text.charAt(at[0]) >= '0' && text.charAt(at[0]) <= '9' && rank <= 64) {
+			rank = rank * 10 + text.charAt(at[0]++) - '0';
+		}
+		if (at[0] == start || rank < 1 || rank > 64) {
+			throw new IllegalArgumentException("Not a move: " + text);
+		}
+		return rank - 1;
+	}
+
+}
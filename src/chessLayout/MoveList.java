@@ -0,0 +1,100 @@
+package chessLayout;
+import java.util.Arrays;
+
+
+
+/**
+ * Growable list of moves packed by Move.of, backed by an int array
+ * Meant to be allocated once and refilled, e.g. one list per search ply,
+ * so generating moves does not allocate once it has grown large enough
+ */
+public class MoveList {
+
+	// Enough for any legal chess position
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private int[] moves;
+	private int size = 0;
+
+	public MoveList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 * @param capacity : Number of moves held before the list grows
+	 */
+	public MoveList(int capacity) {
+		moves = new int[Math.max(1, capacity)];
+	}
+
+	public void add(int move) {
+		if (size == moves.length) {
+			moves = Arrays.copyOf(moves, size * 2);
+		}
+		moves[size++] = move;
+	}
+
+	public int get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return moves[index];
+	}
+
+	public void set(int index, int move) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		moves[index] = move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Drops the moves from the given index on
+	 * @param size : At most the current size
+	 */
+	public void truncate(int size) {
+		if (size < this.size) {
+			this.size = Math.max(0, size);
+		}
+	}
+
+	/**
+	 * Empties the list, keeping its buffer
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	public boolean contains(int move) {
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Exchanges two moves, e.g. to bring the best one forward
+	 * @param i
+	 * @param j
+	 */
+	public void swap(int i, int j) {
+		if (i >= size || j >= size) {
+			throw new IndexOutOfBoundsException("Index: " + Math.max(i, j) + ", Size: " + size);
+		}
+		int move = moves[i];
+		moves[i] = moves[j];
+		moves[j] = move;
+	}
+
+}
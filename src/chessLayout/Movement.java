@@ -6,6 +6,8 @@ import java.util.ArrayList;
 public abstract class Movement {
 	public int dx, dy;
 	public boolean repeat;
+	// Square being tried by addPossibleMoves, reused so it need not allocate
+	private Point trial = new Point();
 	
 	/**
 	 * Constructor
@@ -67,6 +69,27 @@ public abstract class Movement {
 		return possibleMoves;
 	}
 	
+	/**
+	 * Adds the moves to the locations where the given piece can be moved
+	 * to a list, packed by Move.of
+	 * Same moves as getPossibleMoves, but nothing is allocated
+	 * @param piece : The piece to be moved
+	 * @param board : The boards on which the piece exists
+	 * @param safe : Indicates if the function should check if moving to the given
+	 * 				 location will put the piece's King in Check
+	 * @param moves : List the moves are added to
+	 */
+	public void addPossibleMoves(Piece piece, Board board, boolean safe, MoveList moves) {
+		int fromX = piece.getX(), fromY = piece.getY();
+		trial.setLocation(fromX, fromY);
+		do {
+			trial.translate(dx, dy);
+			if (canMove(trial, piece, board, safe)) {
+				board.addMove(moves, piece, fromX, fromY, trial.x, trial.y);
+			}
+		} while (repeat && shouldRepeat(trial, piece, board));
+	}
+	
 	/**
 	 * Tests if moving a piece to a given location will cause a Check against its King
 	 * @param point : The location of the piece after initial (and possibly consequent) movements
@@ -75,25 +98,14 @@ public abstract class Movement {
 	 * @return boolean
 	 */
 	protected boolean willCauseCheck(Point point, Piece piece, Board board) {
-		// Store piece at target location, may be null
-		Piece targetPiece = board.getPiece(point);
-		// Move piece to target location
-		// NOTE: This nullifies the existence of targetPiece as the chess 
-		// 	     board now thinks a different piece is at that location
-		piece.moveToLocation(point, false);
+		// Move piece to target location, killing any piece there
+		board.makeMove(Move.of(piece.getX(), piece.getY(), point.x, point.y));
 		// Get the opposition player
 		int offensivePlayer = piece.getOtherPlayer();
 		// Test if the opposition player can put you under Check
 		boolean causesCheck = board.check(offensivePlayer);
-		// Return piece to its current location
-		piece.undoMove(false);
-		// If there was a piece at the target location, put it back there
-		// Else, reset that location on the chess baord
-		if (targetPiece != null) {
-			targetPiece.moveToLocation(point, false);
-		} else {
-			board.clear(point);
-		}
+		// Return piece to its current location and bring back the killed piece
+		board.unmakeMove();
 		return causesCheck;
 	}
 }
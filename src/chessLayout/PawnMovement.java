@@ -1,7 +1,5 @@
 package chessLayout;
 import java.awt.Point;
-import chessLayout.*;
-import chessPieces.Pawn;
 
 
 public class PawnMovement extends Movement {
@@ -16,7 +14,7 @@ public class PawnMovement extends Movement {
 	 * A pawn can move diagonally only to kill
 	 */
 	public boolean canMove(Point point, Piece piece, Board board, boolean safe) {
-		if (!board.inBounds(point) || safe && willCauseCheck(point, piece, board)) {
+		if (!board.inBounds(point)) {
 			return false;
 		}
 		// Player 0 pawns cannot move down the y-axis
@@ -27,15 +25,27 @@ public class PawnMovement extends Movement {
 		if (piece.getPlayer() == 1 && dy > 0) {
 			return false;
 		}
+		if (!isAllowed(point, piece, board)) {
+			return false;
+		}
+		return !safe || !willCauseCheck(point, piece, board);
+	}
+	
+	/**
+	 * Tests the pawn's own rules for a move, ignoring Check
+	 * @param point
+	 * @param piece
+	 * @param board
+	 * @return boolean
+	 */
+	private boolean isAllowed(Point point, Piece piece, Board board) {
 		// Check for special first move
+		// Both the square it passes and the one it lands on must be empty
 		if (dy*dy == 4) {
-			if (((Pawn)piece).hasMoved()) {
+			if (piece.hasMoved()) {
 				return false;
-			} else {
-				((Pawn)piece).firstMoveCompleted();
-				return true;
-				
 			}
+			return board.getPiece(point.x, point.y - dy/2) == null && board.getPiece(point) == null;
 		}
 		// The only restriction on it moving forward is that
 		// the space in front of it must be empty
@@ -45,7 +55,16 @@ public class PawnMovement extends Movement {
 		// If it is moving diagonally, then there must be an
 		// opponent's piece at that location
 		Piece targetPiece = board.getPiece(point);
-		return targetPiece != null && targetPiece.getPlayer() != piece.getPlayer(); 
+		if (targetPiece != null) {
+			return targetPiece.getPlayer() != piece.getPlayer();
+		}
+		// or an opponent's pawn that just passed it, taken en passant
+		if (!board.isEnPassantSquare(point.x, point.y)) {
+			return false;
+		}
+		Piece passedPiece = board.getPiece(point.x, piece.getY());
+		return passedPiece != null && passedPiece.getPlayer() != piece.getPlayer()
+				&& passedPiece.typeIndex() == PieceType.PAWN_INDEX;
 	}
 
 	@Override
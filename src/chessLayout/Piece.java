@@ -8,7 +8,15 @@ public abstract class Piece {
 	private int player;
 	private Point location;
 	private Point prevLocation;
+	private boolean canUndo;
 	private boolean alive;
+	private boolean moved;
+	// Index of the piece's type, looked up once from getPieceType()
+	private int typeIndex = UNKNOWN_TYPE_INDEX;
+	// Position in its board's list of the player's pieces, -1 while off the board
+	int registryIndex = -1;
+	
+	private static final int UNKNOWN_TYPE_INDEX = -2;
 	private Board board;
 	private ArrayList<Movement> movements; 
 	
@@ -21,6 +29,7 @@ public abstract class Piece {
 	 */
 	public Piece(int player, int x, int y, Board board) {
 		location = new Point(x,y);
+		prevLocation = new Point(x,y);
 		this.player = player;
 		this.board = board;
 		// Makes call to abstract method to retrieve all movements of the current piece
@@ -58,6 +67,17 @@ public abstract class Piece {
 	 * @return ArrayList<Point>
 	 */
 	public ArrayList<Point> getValidMoveLocations(boolean safe) {
+		// The board decides how moves are generated, see Board.getValidMoveLocations
+		return board.getValidMoveLocations(this, safe);
+	}
+	
+	/**
+	 * Returns all the positions reached by walking this piece's movements
+	 * @param safe : If set to false, function will return positions that 
+	 * 				 allow for check to be placed on the King.
+	 * @return ArrayList<Point>
+	 */
+	ArrayList<Point> getMovementLocations(boolean safe) {
 		ArrayList<Point> validLocations = new ArrayList<Point>();
 		for(Movement m:movements) {
 			validLocations.addAll(m.getPossibleMoves(this, board, safe));
@@ -65,6 +85,18 @@ public abstract class Piece {
 		return validLocations;
 	}
 	
+	/**
+	 * Adds all the moves this piece's movements allow to a list
+	 * @param moves
+	 * @param safe : If set to false, moves that allow for check
+	 * 				 to be placed on the King are added as well
+	 */
+	void addMovementMoves(MoveList moves, boolean safe) {
+		for (int i = 0; i < movements.size(); i++) {
+			movements.get(i).addPossibleMoves(this, board, safe, moves);
+		}
+	}
+	
 	/**
 	 * Abstract method
 	 * Returns all the movements that this piece can do
@@ -80,22 +112,53 @@ public abstract class Piece {
 	public abstract String getType();
 	
 	/**
-	 * Moves the piece
+	 * Returns the type of the piece
+	 * Looked up from getType() unless overridden, as the standard pieces do
+	 * @return PieceType : null if it is not a standard piece
+	 */
+	public PieceType getPieceType() {
+		return PieceType.fromName(getType());
+	}
+	
+	/**
+	 * Moves the piece as a move of the game, see Board.commitMove
 	 * If destination is occupied, kills the piece occupying it
 	 * and moves to that location
+	 * Castling, en passant and promotion (to a Queen) are played as well;
+	 * the move is not kept to be taken back, use Board.makeMove for that
 	 * NOTE : It is not necessary to check if destination is occupied
 	 * 		  by the same player's piece. That logic is handled by the movements
 	 * @param point
-	 * @param board
+	 * @param board : The board the piece is on
+	 * @throws IllegalArgumentException : If the piece is on another board
 	 */
 	public void move(Point point, Board board) {
-		Piece targetPiece = board.getPiece(point);
-		if (targetPiece != null) {
-			targetPiece.die();
+		if (board != this.board) {
+			throw new IllegalArgumentException("The piece is not on that board");
 		}
-		moveToLocation(point, true);
+		board.commitMove(Move.of(getX(), getY(), point.x, point.y));
+	}
+	
+	/**
+	 * Places a copy of this piece, at the same location, on the given board
+	 * The copy has moved if this piece has
+	 * @param board
+	 * @return Piece
+	 */
+	public Piece copy(Board board) {
+		Piece copy = newPiece(board);
+		copy.setMoved(moved);
+		return copy;
 	}
 	
+	/**
+	 * Abstract method
+	 * Creates a piece of the same kind, player and location on the given board
+	 * @param board
+	 * @return Piece
+	 */
+	protected abstract Piece newPiece(Board board);
+	
 	/**
 	 * Kills the piece and renders it inacive
 	 * Updates the corresponding location on the board
@@ -109,6 +172,42 @@ public abstract class Piece {
 		return alive;
 	}
 	
+	/**
+	 * Brings a killed piece back, used when a capture is taken back
+	 * Does not place it on the board
+	 */
+	void revive() {
+		alive = true;
+	}
+	
+	/**
+	 * Returns true once the piece has made a move
+	 * e.g. a Pawn loses its special first move
+	 * @return boolean
+	 */
+	public boolean hasMoved() {
+		return moved;
+	}
+	
+	protected void setMoved(boolean moved) {
+		if (this.moved != moved) {
+			this.moved = moved;
+			board.movedChanged(this);
+		}
+	}
+	
+	/**
+	 * Returns the index of the piece's type, the ordinal of its PieceType
+	 * @return int : One of the type indices of PieceType, or PieceType.NO_INDEX
+	 */
+	int typeIndex() {
+		if (typeIndex == UNKNOWN_TYPE_INDEX) {
+			PieceType type = getPieceType();
+			typeIndex = type == null ? PieceType.NO_INDEX : type.ordinal();
+		}
+		return typeIndex;
+	}
+	
 	public Point getLocation() {
 		return location;
 	}
@@ -120,23 +219,26 @@ public abstract class Piece {
 	 * @param board
 	 */
 	public void moveToLocation(Point point, boolean safe) {
-		prevLocation = new Point(location);
+		prevLocation.setLocation(location);
+		canUndo = true;
 		board.update(prevLocation, point, this, safe);	
 	}
 	
 	/**
 	 * Moves piece back to previous location, if valid
 	 * Updates the chess board and piece
-	 * Sets previous location to null
+	 * Invalidates the previous location
 	 * @param board
+	 * @deprecated Only remembers one move and cannot bring back a killed piece,
+	 * 			   use Board.makeMove and Board.unmakeMove instead
 	 */
+	@Deprecated
 	public void undoMove(boolean safe) {
-		if (prevLocation == null) {
+		if (!canUndo) {
 			return;
 		}
-		Point currentLocation = new Point(location);
-		board.update(currentLocation, prevLocation, this, safe);
-		prevLocation = null;
+		canUndo = false;
+		board.update(location, prevLocation, this, safe);
 	}
 }
 
@@ -0,0 +1,51 @@
+package chessLayout;
+
+
+
+/**
+ * The standard chess pieces
+ * The ordinal of each type is its index into BitBoard's per type masks
+ * and Zobrist's keys, so the order must not change
+ */
+public enum PieceType {
+	PAWN("pawn"),
+	KNIGHT("knight"),
+	BISHOP("bishop"),
+	ROOK("rook"),
+	QUEEN("queen"),
+	KING("king");
+
+	// The ordinals as constants, for switches and for code that keeps types as ints
+	static final int PAWN_INDEX = 0, KNIGHT_INDEX = 1, BISHOP_INDEX = 2, ROOK_INDEX = 3, QUEEN_INDEX = 4, KING_INDEX = 5;
+	// Index of a piece that is none of the standard types
+	static final int NO_INDEX = -1;
+
+	private final String name;
+
+	private PieceType(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the name used by Piece.getType()
+	 * @return String
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the type with the given name
+	 * @param name : As returned by Piece.getType(), e.g. "king"
+	 * @return PieceType : null if no standard piece has that name
+	 */
+	public static PieceType fromName(String name) {
+		for (PieceType type:values()) {
+			if (type.name.equals(name)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+}
@@ -3,13 +3,45 @@ import java.awt.Point;
 
 
 
+/**
+ * Board of any width and height, stored in a flat array
+ * The array has a border of empty squares around the board, wide enough
+ * for a Knight's jump, so a step by index off the board lands on a border
+ * square instead of out of the array. Lookups by coordinates still check
+ * them, as they take any x and y and a file past the border would wrap
+ * onto the next row
+ * Squares are indexed (y + BORDER) * stride + (x + BORDER), see getSquare,
+ * and a step of (dx, dy) adds dy * stride + dx to the index
+ */
 public class RectangularBoard extends Board {
 
+	// Empty columns on either side of the board and rows above and below it
+	public static final int BORDER = 2;
+
 	int width, height;
-	
+	// Length of a row of the array, border included
+	private int stride;
+	// Piece on each square, border squares always hold null
+	Piece[] squares;
+	// Whether each index is a square of the board rather than the border
+	private boolean[] onBoard;
+
 	public RectangularBoard(int width, int height) {
 		this.width = width;
 		this.height = height;
+		stride = width + 2 * BORDER;
+		squares = new Piece[stride * (height + 2 * BORDER)];
+		onBoard = new boolean[squares.length];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				onBoard[getSquare(x, y)] = true;
+			}
+		}
+	}
+
+	@Override
+	protected Board newBoard() {
+		return new RectangularBoard(width, height);
 	}
 
 	@Override
@@ -22,4 +54,92 @@ public class RectangularBoard extends Board {
 		return checkX && checkY;
 	}
 
+	/**
+	 * Checks if given index is a square of the board
+	 * Border squares and indices outside the array are not
+	 * @param square
+	 * @return boolean
+	 */
+	public boolean inBounds(int square) {
+		return square >= 0 && square < onBoard.length && onBoard[square];
+	}
+
+	/**
+	 * Returns the index of the square at the given coordinates
+	 * @param x
+	 * @param y
+	 * @return int : Board.NO_SQUARE if the coordinates are beyond the border
+	 */
+	public int getSquare(int x, int y) {
+		if (x < -BORDER || x >= width + BORDER || y < -BORDER || y >= height + BORDER) {
+			return NO_SQUARE;
+		}
+		return (y + BORDER) * stride + x + BORDER;
+	}
+
+	public int getSquareX(int square) {
+		return square % stride - BORDER;
+	}
+
+	public int getSquareY(int square) {
+		return square / stride - BORDER;
+	}
+
+	/**
+	 * Returns the difference between the indices of two vertically adjacent squares
+	 * @return int
+	 */
+	public int getStride() {
+		return stride;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns piece at a given square
+	 * @param square : Index from getSquare
+	 * @return Piece : null for empty and border squares and indices outside the array
+	 */
+	public Piece getPiece(int square) {
+		return square >= 0 && square < squares.length ? squares[square] : null;
+	}
+
+	@Override
+	public Piece getPiece(Point point) {
+		return point == null ? null : getPiece(point.x, point.y);
+	}
+
+	@Override
+	public Piece getPiece(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			return null;
+		}
+		return squares[(y + BORDER) * stride + x + BORDER];
+	}
+
+	@Override
+	protected void putPiece(Point location, Piece piece) {
+		// Pieces off the board are not stored
+		if (inBounds(location)) {
+			squares[(location.y + BORDER) * stride + location.x + BORDER] = piece;
+		}
+	}
+
+	@Override
+	protected Piece removePiece(Point location) {
+		if (!inBounds(location)) {
+			return null;
+		}
+		int square = (location.y + BORDER) * stride + location.x + BORDER;
+		Piece piece = squares[square];
+		squares[square] = null;
+		return piece;
+	}
+
 }
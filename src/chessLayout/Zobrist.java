@@ -0,0 +1,97 @@
+package chessLayout;
+
+
+
+/**
+ * Random keys for hashing positions
+ * A position's hash is the XOR of the keys of everything in it, so a
+ * change to the position only needs the keys of what changed
+ * Keys come from a fixed seed, so hashes are stable from run to run
+ * and can be stored
+ */
+public final class Zobrist {
+
+	// Coordinates up to 63 fit, like in Move
+	private static final int CELLS = 64 * 64;
+	// The six standard types plus one slot for unknown pieces
+	private static final int TYPES = 7;
+
+	private static final long[][] PIECE_KEYS = new long[TYPES * 2][CELLS];
+	private static final long[][] UNMOVED_KEYS = new long[2][CELLS];
+	private static final long[] EN_PASSANT_KEYS = new long[CELLS];
+	public static final long SIDE_KEY;
+
+	static {
+		long counter = 0;
+		for (long[] keys:PIECE_KEYS) {
+			for (int i = 0; i < CELLS; i++) {
+				keys[i] = nextKey(counter++);
+			}
+		}
+		for (long[] keys:UNMOVED_KEYS) {
+			for (int i = 0; i < CELLS; i++) {
+				keys[i] = nextKey(counter++);
+			}
+		}
+		for (int i = 0; i < CELLS; i++) {
+			EN_PASSANT_KEYS[i] = nextKey(counter++);
+		}
+		SIDE_KEY = nextKey(counter);
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Returns the key of a piece standing on a square
+	 * @param typeIndex : Index of the piece's type, as in BitBoard, or NO_TYPE
+	 * @param player
+	 * @param x
+	 * @param y
+	 * @return long
+	 */
+	public static long pieceKey(int typeIndex, int player, int x, int y) {
+		int type = typeIndex < 0 ? TYPES - 1 : typeIndex;
+		return PIECE_KEYS[type * 2 + player][cell(x, y)];
+	}
+
+	/**
+	 * Returns the key added for a piece that has not moved yet
+	 * and whose moves depend on it: a Pawn's special first move,
+	 * or a King and Rook that may still castle
+	 * @param player
+	 * @param x
+	 * @param y
+	 * @return long
+	 */
+	public static long unmovedKey(int player, int x, int y) {
+		return UNMOVED_KEYS[player][cell(x, y)];
+	}
+
+	/**
+	 * Returns the key added while a Pawn may be taken en passant
+	 * @param x : Coordinates of the square the Pawn passed
+	 * @param y
+	 * @return long
+	 */
+	public static long enPassantKey(int x, int y) {
+		return EN_PASSANT_KEYS[cell(x, y)];
+	}
+
+	private static int cell(int x, int y) {
+		return (x & 63) | ((y & 63) << 6);
+	}
+
+	/**
+	 * Returns the n-th output of a splitmix64 generator with a fixed seed
+	 * @param n
+	 * @return long
+	 */
+	private static long nextKey(long n) {
+		long z = 0x2545F4914F6CDD1DL + (n + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -6,6 +6,7 @@ import chessLayout.BasicMovement;
 import chessLayout.Board;
 import chessLayout.Movement;
 import chessLayout.Piece;
+import chessLayout.PieceType;
 
 
 public class Bishop extends Piece {
@@ -26,9 +27,19 @@ public class Bishop extends Piece {
 		return moves;
 	}
 	
+	@Override
+	protected Piece newPiece(Board board) {
+		return new Bishop(getPlayer(), getX(), getY(), board);
+	}
+
 	@Override
 	public String getType() {
 		return TYPE;
 	}
 
+	@Override
+	public PieceType getPieceType() {
+		return PieceType.BISHOP;
+	}
+
 }
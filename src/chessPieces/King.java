@@ -4,8 +4,10 @@ import java.util.ArrayList;
 
 import chessLayout.BasicMovement;
 import chessLayout.Board;
+import chessLayout.CastlingMovement;
 import chessLayout.Movement;
 import chessLayout.Piece;
+import chessLayout.PieceType;
 
 
 public class King extends Piece {
@@ -27,12 +29,32 @@ public class King extends Piece {
 		moves.add(new BasicMovement(1,-1,false));
 		moves.add(new BasicMovement(-1,1,false));
 		moves.add(new BasicMovement(-1,-1,false));
+		moves.add(new CastlingMovement(2));
+		moves.add(new CastlingMovement(-2));
 		return moves;
 	}
 
+	/**
+	 * Marks the piece as moved
+	 * The King can no longer castle, e.g. when setting up a position
+	 */
+	public void castlingForfeited() {
+		setMoved(true);
+	}
+
+	@Override
+	protected Piece newPiece(Board board) {
+		return new King(getPlayer(), getX(), getY(), board);
+	}
+
 	@Override
 	public String getType() {
 		return TYPE;
 	}
 
+	@Override
+	public PieceType getPieceType() {
+		return PieceType.KING;
+	}
+
 }
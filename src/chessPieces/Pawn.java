@@ -6,16 +6,15 @@ import chessLayout.Board;
 import chessLayout.Movement;
 import chessLayout.PawnMovement;
 import chessLayout.Piece;
+import chessLayout.PieceType;
 
 
 public class Pawn extends Piece {
 	
-	private boolean hasMoved;
 	private static final String TYPE = "pawn";
 
 	public Pawn(int player, int x, int y, Board board) {
 		super(player, x, y, board);
-		hasMoved = false;
 	}
 
 	@Override
@@ -32,12 +31,13 @@ public class Pawn extends Piece {
 		return moves;
 	}
 	
-	public boolean hasMoved() {
-		return hasMoved;
-	}
-	
 	public void firstMoveCompleted() {
-		hasMoved = true;
+		setMoved(true);
+	}
+
+	@Override
+	protected Piece newPiece(Board board) {
+		return new Pawn(getPlayer(), getX(), getY(), board);
 	}
 
 	@Override
@@ -45,4 +45,9 @@ public class Pawn extends Piece {
 		return TYPE;
 	}
 
+	@Override
+	public PieceType getPieceType() {
+		return PieceType.PAWN;
+	}
+
 }
@@ -6,6 +6,7 @@ import chessLayout.BasicMovement;
 import chessLayout.Board;
 import chessLayout.Movement;
 import chessLayout.Piece;
+import chessLayout.PieceType;
 
 
 public class Queen extends Piece {
@@ -30,9 +31,19 @@ public class Queen extends Piece {
 		return moves;
 	}
 
+	@Override
+	protected Piece newPiece(Board board) {
+		return new Queen(getPlayer(), getX(), getY(), board);
+	}
+
 	@Override
 	public String getType() {
 		return TYPE;
 	}
 
+	@Override
+	public PieceType getPieceType() {
+		return PieceType.QUEEN;
+	}
+
 }
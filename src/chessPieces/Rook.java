@@ -6,6 +6,7 @@ import chessLayout.BasicMovement;
 import chessLayout.Board;
 import chessLayout.Movement;
 import chessLayout.Piece;
+import chessLayout.PieceType;
 
 
 public class Rook extends Piece {
@@ -26,9 +27,27 @@ public class Rook extends Piece {
 		return moves;
 	}
 
+	/**
+	 * Marks the piece as moved
+	 * This Rook can no longer castle, e.g. when setting up a position
+	 */
+	public void castlingForfeited() {
+		setMoved(true);
+	}
+
+	@Override
+	protected Piece newPiece(Board board) {
+		return new Rook(getPlayer(), getX(), getY(), board);
+	}
+
 	@Override
 	public String getType() {
 		return TYPE;
 	}
 
+	@Override
+	public PieceType getPieceType() {
+		return PieceType.ROOK;
+	}
+
 }
@@ -0,0 +1,388 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Move;
+import chessLayout.MoveList;
+import chessLayout.Piece;
+import chessLayout.RectangularBoard;
+import chessPieces.Bishop;
+import chessPieces.King;
+import chessPieces.Knight;
+import chessPieces.Pawn;
+import chessPieces.Queen;
+import chessPieces.Rook;
+
+
+public class BitBoardTest {
+
+	Board board = new BitBoard();
+	
+	@Test
+	/**
+	 * Tests if a given piece has been properly
+	 * placed on the bit board and if
+	 * it can be properly retrieved
+	 */
+	public void testSetAndGetPiece() {
+		Piece testPiece = new Pawn(0, 5, 5, board);
+		board.setPiece(testPiece.getLocation(), testPiece);
+		assertEquals("Should return testPiece", testPiece, board.getPiece(new Point(5,5)));
+		assertEquals("Empty position; Should return null", null, board.getPiece(new Point(5,7)));
+		assertEquals("Invalid location; Should return null", null, board.getPiece(new Point(8,8)));
+		assertEquals("Should return a list of length 1", 1, board.getPlayerPieces(0).size());
+		testPiece.die();
+		assertEquals("No active pieces; Should return empty list", 0, board.getPlayerPieces(0).size());
+	}
+
+	@Test
+	/**
+	 * Tests that moves and kills are reflected on the bit board
+	 */
+	public void testUpdate() {
+		Piece pawn = new Pawn(0, 1, 0, board);
+		Piece rook = new Rook(1, 0, 1, board);
+		pawn.move(new Point(0,1), board);
+		assertEquals("Piece moved; Should return null", null, board.getPiece(new Point(1,0)));
+		assertEquals("Should return the pawn", pawn, board.getPiece(new Point(0,1)));
+		assertEquals(false, rook.isAlive());
+		assertEquals("Rook was killed", 0, board.getPlayerPieces(1).size());
+		pawn.die();
+	}
+
+	@Test
+	/**
+	 * Tests conditions for Check and CheckMate
+	 * on the positions used by BoardTest
+	 */
+	public void testCheckAndCheckMate() {
+		Piece offQueen = new Queen(0,4,0,board);
+		Piece defKing = new King(1,4,4,board);
+		assertEquals("Check position; Should return true", true, board.check(0));
+		offQueen.move(new Point(5,0), board);
+		assertEquals("Safe position; Should return false", false, board.check(0));
+		offQueen.move(new Point(4,0), board);
+		defKing.move(new Point(5,4), board);
+		assertEquals("King should have only 5 possible moves", 5, defKing.getValidMoveLocations(true).size());
+		offQueen.move(new Point(1,6), board);
+		Piece offRook = new Rook(0,1,7,board);
+		defKing.move(new Point(7,7), board);
+		assertEquals("King in checkmate; Should return true", true, board.checkMate(1));
+		offRook.move(new Point(0,6), board);
+		assertEquals("Not checkmate; Should return false", false, board.checkMate(1));
+	}
+
+	@Test
+	/**
+	 * Tests that the bit board agrees with the
+	 * rectangular board on Check for every placement
+	 * of a King among a fixed set of attackers
+	 */
+	public void testCheckMatchesRectangularBoard() {
+		Board rectBoard = new RectangularBoard(8,8);
+		Board[] boards = {board, rectBoard};
+		for (Board b:boards) {
+			new Queen(0,3,3,b);
+			new Rook(0,0,6,b);
+			new Bishop(0,6,1,b);
+			new Knight(0,5,5,b);
+			new Pawn(0,2,5,b);
+			new King(0,7,0,b);
+			new Pawn(1,4,4,b);
+			new Knight(1,1,2,b);
+		}
+		for (int x = 0; x < 8; x++) {
+			for (int y = 0; y < 8; y++) {
+				Point point = new Point(x,y);
+				for (int player = 0; player < 2; player++) {
+					assertEquals("Attacked " + point, rectBoard.isSquareAttacked(point, player),
+							board.isSquareAttacked(point, player));
+				}
+			}
+		}
+		Piece bitKing = new King(1,0,0,board);
+		Piece rectKing = new King(1,0,0,rectBoard);
+		for (int x = 0; x < 8; x++) {
+			for (int y = 0; y < 8; y++) {
+				Point point = new Point(x,y);
+				if (rectBoard.getPiece(point) != null && rectBoard.getPiece(point) != rectKing) {
+					continue;
+				}
+				bitKing.move(point, board);
+				rectKing.move(point, rectBoard);
+				assertEquals("Check at " + point, rectBoard.check(0), board.check(0));
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * Tests that table lookups produce the same move
+	 * locations as walking each piece's movements
+	 */
+	public void testMovesMatchRectangularBoard() {
+		Board rectBoard = new RectangularBoard(8,8);
+		Board[] boards = {board, rectBoard};
+		for (Board b:boards) {
+			new Queen(0,3,3,b);
+			new Rook(0,0,6,b);
+			new Bishop(0,6,1,b);
+			new Knight(0,5,5,b);
+			new King(0,4,1,b);
+			new Rook(1,4,6,b);
+			new Bishop(1,1,4,b);
+			new Knight(1,1,2,b);
+			new Queen(1,7,3,b);
+			new King(1,7,7,b);
+		}
+		for (int player = 0; player < 2; player++) {
+			for (Piece rectPiece:rectBoard.getPlayerPieces(player)) {
+				Piece bitPiece = board.getPiece(rectPiece.getLocation());
+				for (int safe = 0; safe < 2; safe++) {
+					ArrayList<Point> expected = rectPiece.getValidMoveLocations(safe == 1);
+					ArrayList<Point> actual = bitPiece.getValidMoveLocations(safe == 1);
+					assertEquals("Moves of " + rectPiece.getType() + " at " + rectPiece.getLocation(),
+							new HashSet<Point>(expected), new HashSet<Point>(actual));
+					assertEquals(expected.size(), actual.size());
+				}
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * Tests that pin-aware move generation returns the same
+	 * safe moves as trying each move, over many random positions
+	 */
+	public void testLegalMovesMatchRectangularBoard() {
+		Random random = new Random(7);
+		for (int position = 0; position < 200; position++) {
+			Board bitBoard = new BitBoard();
+			Board rectBoard = new RectangularBoard(8,8);
+			placeRandomPieces(random, bitBoard, rectBoard);
+			for (int player = 0; player < 2; player++) {
+				for (Piece rectPiece:rectBoard.getPlayerPieces(player)) {
+					Piece bitPiece = bitBoard.getPiece(rectPiece.getLocation());
+					for (int safe = 0; safe < 2; safe++) {
+						ArrayList<Point> expected = rectPiece.getValidMoveLocations(safe == 1);
+						ArrayList<Point> actual = bitPiece.getValidMoveLocations(safe == 1);
+						assertEquals("Moves of " + rectPiece.getType() + " at " + rectPiece.getLocation(),
+								new HashSet<Point>(expected), new HashSet<Point>(actual));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * Tests that generating all moves at once gives the same
+	 * moves on both boards, and the same as each piece's locations
+	 */
+	public void testGenerateMovesMatchRectangularBoard() {
+		Random random = new Random(5);
+		MoveList bitMoves = new MoveList(4);
+		MoveList rectMoves = new MoveList(4);
+		for (int position = 0; position < 100; position++) {
+			Board bitBoard = new BitBoard();
+			Board rectBoard = new RectangularBoard(8,8);
+			placeRandomPieces(random, bitBoard, rectBoard);
+			for (int player = 0; player < 2; player++) {
+				bitBoard.generateMoves(player, bitMoves);
+				rectBoard.generateMoves(player, rectMoves);
+				HashSet<Integer> expected = new HashSet<Integer>();
+				for (Piece piece:rectBoard.getPlayerPieces(player)) {
+					for (Point point:piece.getValidMoveLocations(true)) {
+						int move = Move.of(piece.getX(), piece.getY(), point.x, point.y);
+						if (!bitBoard.isPromotion(piece, point.x, point.y) || !piece.getType().equals("pawn")) {
+							expected.add(move);
+						} else {
+							expected.add(Move.of(piece.getX(), piece.getY(), point.x, point.y, Move.PROMOTE_QUEEN));
+							expected.add(Move.of(piece.getX(), piece.getY(), point.x, point.y, Move.PROMOTE_ROOK));
+							expected.add(Move.of(piece.getX(), piece.getY(), point.x, point.y, Move.PROMOTE_BISHOP));
+							expected.add(Move.of(piece.getX(), piece.getY(), point.x, point.y, Move.PROMOTE_KNIGHT));
+						}
+					}
+				}
+				assertEquals(expected.size(), bitMoves.size());
+				assertEquals(expected.size(), rectMoves.size());
+				for (int move:expected) {
+					assertTrue("Missing " + Move.toString(move), bitMoves.contains(move));
+					assertTrue("Missing " + Move.toString(move), rectMoves.contains(move));
+				}
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * Tests that the captures generated from the masks match
+	 * the moves of the generic board that take or promote
+	 */
+	public void testGenerateCapturesMatchRectangularBoard() {
+		Random random = new Random(7);
+		MoveList bitCaptures = new MoveList(4);
+		MoveList rectCaptures = new MoveList(4);
+		for (int position = 0; position < 100; position++) {
+			Board bitBoard = new BitBoard();
+			Board rectBoard = new RectangularBoard(8,8);
+			placeRandomPieces(random, bitBoard, rectBoard);
+			for (int player = 0; player < 2; player++) {
+				bitBoard.generateCaptures(player, bitCaptures);
+				rectBoard.generateCaptures(player, rectCaptures);
+				assertEquals(rectCaptures.size(), bitCaptures.size());
+				for (int i = 0; i < rectCaptures.size(); i++) {
+					int move = rectCaptures.get(i);
+					assertTrue("Missing " + Move.toString(move), bitCaptures.contains(move));
+					assertTrue(Move.getFlags(move) != Move.NONE || bitBoard.isCapture(move));
+				}
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * Tests static exchanges, including sliders uncovered behind the
+	 * first attacker, against the generic board's estimate
+	 */
+	public void testStaticExchange() {
+		int[] values = {100, 320, 330, 500, 900, 20000};
+		Board board = new BitBoard();
+		new King(0, 4, 0, board);
+		new King(1, 4, 7, board);
+		Rook rook = new Rook(0, 3, 0, board);
+		Pawn pawn = new Pawn(1, 3, 4, board);
+		assertEquals("Undefended Pawn", 100, board.staticExchange(Move.of(3,0,3,4), values));
+		Pawn defender = new Pawn(1, 4, 5, board);
+		assertEquals("Rook for a Pawn", -400, board.staticExchange(Move.of(3,0,3,4), values));
+		new Rook(0, 3, 1, board).castlingForfeited();
+		rook.castlingForfeited();
+		new Knight(1, 2, 6, board);
+		// Rook takes and Pawn takes back; taking again would lose the other Rook
+		assertEquals(-400, board.staticExchange(Move.of(3,1,3,4), values));
+		defender.die();
+		// Rook takes, Knight takes back, the Rook behind takes the Knight
+		assertEquals(100 - 500 + 320, board.staticExchange(Move.of(3,1,3,4), values));
+		assertTrue(board.isCapture(Move.of(3,1,3,4)));
+		assertFalse(board.isCapture(Move.of(3,1,3,2)));
+		assertEquals(pawn, board.getPiece(3, 4));
+	}
+
+	@Test
+	/**
+	 * Tests that check evasion agrees with the
+	 * rectangular board on CheckMate over many random positions
+	 */
+	public void testCheckMateMatchesRectangularBoard() {
+		Random random = new Random(11);
+		int mates = 0;
+		for (int position = 0; position < 2000; position++) {
+			Board bitBoard = new BitBoard();
+			Board rectBoard = new RectangularBoard(8,8);
+			placeRandomPieces(random, bitBoard, rectBoard);
+			for (int player = 0; player < 2; player++) {
+				boolean expected = rectBoard.checkMate(player);
+				assertEquals("CheckMate of player " + player, expected, bitBoard.checkMate(player));
+				if (expected) {
+					mates++;
+				}
+			}
+		}
+		assertEquals("Some positions should be checkmate", true, mates > 0);
+	}
+
+	@Test
+	/**
+	 * Tests double check and blocking a check
+	 */
+	public void testCheckEvasions() {
+		Piece defKing = new King(1,7,7,board);
+		new Pawn(1,6,6,board);
+		new Pawn(1,7,6,board);
+		Piece offRook = new Rook(0,0,7,board);
+		new King(0,0,0,board);
+		// Back rank mate
+		assertEquals(true, board.checkMate(1));
+		// A bishop can block the rook
+		Piece defBishop = new Bishop(1,2,5,board);
+		assertEquals(false, board.checkMate(1));
+		// A knight gives a second check, blocking no longer helps
+		new Knight(0,5,6,board);
+		assertEquals(true, board.checkMate(1));
+		defBishop.die();
+		offRook.die();
+		assertEquals("King can step out of the knight's reach", false, board.checkMate(1));
+		defKing.die();
+	}
+
+	@Test
+	/**
+	 * Tests that the incremental hash matches a full
+	 * recomputation through random sequences of safe moves
+	 */
+	public void testHashThroughRandomMoves() {
+		Random random = new Random(3);
+		Board rectBoard = new RectangularBoard(8,8);
+		placeRandomPieces(random, board, rectBoard);
+		long start = board.getHash();
+		int made = 0;
+		for (int ply = 0; ply < 40; ply++) {
+			ArrayList<Piece> pieces = board.getPlayerPieces(board.getSideToMove());
+			Piece piece = pieces.get(random.nextInt(pieces.size()));
+			ArrayList<Point> moves = piece.getValidMoveLocations(true);
+			if (moves.isEmpty()) {
+				continue;
+			}
+			Point to = moves.get(random.nextInt(moves.size()));
+			board.makeMove(Move.of(piece.getX(), piece.getY(), to.x, to.y));
+			made++;
+			assertEquals(board.computeHash(), board.getHash());
+		}
+		for (; made > 0; made--) {
+			board.unmakeMove();
+		}
+		assertEquals(start, board.getHash());
+	}
+
+	/**
+	 * Places a King for each player and a few random pieces
+	 * on the same squares of both boards
+	 */
+	private void placeRandomPieces(Random random, Board a, Board b) {
+		boolean[] used = new boolean[64];
+		for (int i = 0; i < 14; i++) {
+			int square;
+			do {
+				square = random.nextInt(64);
+			} while (used[square]);
+			used[square] = true;
+			int x = square % 8, y = square / 8;
+			int player = i < 2 ? i : random.nextInt(2);
+			int type = i < 2 ? 5 : random.nextInt(5);
+			boolean moved = random.nextBoolean();
+			for (Board board:new Board[] {a, b}) {
+				Piece piece;
+				switch (type) {
+					case 0: piece = new Pawn(player, x, y, board); break;
+					case 1: piece = new Knight(player, x, y, board); break;
+					case 2: piece = new Bishop(player, x, y, board); break;
+					case 3: piece = new Rook(player, x, y, board); break;
+					case 4: piece = new Queen(player, x, y, board); break;
+					default: piece = new King(player, x, y, board); break;
+				}
+				if (moved && piece instanceof Pawn) {
+					((Pawn) piece).firstMoveCompleted();
+				}
+			}
+		}
+	}
+
+}
@@ -5,10 +5,15 @@ import java.awt.Point;
 
 import org.junit.Test;
 
+import chessLayout.BitBoard;
 import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
 import chessLayout.Piece;
+import chessLayout.PieceType;
 import chessLayout.RectangularBoard;
 import chessPieces.King;
+import chessPieces.Knight;
 import chessPieces.Pawn;
 import chessPieces.Queen;
 import chessPieces.Rook;
@@ -36,6 +41,33 @@ public class BoardTest {
 		assertEquals("Null point passed; Should return false", false, board.inBounds(null));
 	}
 
+	@Test
+	/**
+	 * Tests lookups by square index, and that steps off
+	 * the board land on empty border squares
+	 */
+	public void testSquareIndices() {
+		RectangularBoard rectBoard = (RectangularBoard) board;
+		Piece knight = new Knight(0, 0, 7, board);
+		int square = rectBoard.getSquare(0, 7);
+		assertEquals(0, rectBoard.getSquareX(square));
+		assertEquals(7, rectBoard.getSquareY(square));
+		assertEquals(true, rectBoard.inBounds(square));
+		assertEquals(knight, rectBoard.getPiece(square));
+		// A Knight's jump off the corner stays inside the array
+		int jump = square + 2 * rectBoard.getStride() - 2;
+		assertEquals(false, rectBoard.inBounds(jump));
+		assertEquals(null, rectBoard.getPiece(jump));
+		assertEquals(Board.NO_SQUARE, rectBoard.getSquare(-3, 0));
+		assertEquals(false, rectBoard.inBounds(Board.NO_SQUARE));
+		// Same indices on the bit board
+		RectangularBoard bitBoard = new BitBoard();
+		Piece bitKnight = new Knight(0, 0, 7, bitBoard);
+		assertEquals(bitKnight, bitBoard.getPiece(bitBoard.getSquare(0, 7)));
+		assertEquals(null, bitBoard.getPiece(jump));
+		knight.die();
+	}
+
 	@Test
 	/**
 	 * Tests if a given piece has been properly
@@ -73,6 +105,54 @@ public class BoardTest {
 		assertEquals("No active pieces; Should return empty list", 0, board.getPlayerPieces(0).size());
 	}
 
+	@Test
+	/**
+	 * Tests that each player's pieces and King are kept
+	 * up to date through captures and take backs
+	 */
+	public void testPieceRegistry() {
+		Piece king = new King(0, 4, 0, board);
+		Piece rook = new Rook(0, 0, 0, board);
+		Piece enemyQueen = new Queen(1, 0, 5, board);
+		assertEquals(king, board.getKing(0));
+		assertEquals(null, board.getKing(1));
+		assertEquals(2, board.getPieceCount(0));
+		assertEquals(PieceType.KING, king.getPieceType());
+		board.makeMove(Move.of(0,0,0,5));
+		assertEquals("Queen captured", 0, board.getPieceCount(1));
+		assertEquals(rook, board.getPlayerPiece(0, rook == board.getPlayerPiece(0, 0) ? 0 : 1));
+		board.unmakeMove();
+		assertEquals("Queen brought back", 1, board.getPieceCount(1));
+		assertEquals(enemyQueen, board.getPlayerPiece(1, 0));
+		king.die();
+		assertEquals(null, board.getKing(0));
+		assertEquals(1, board.getPlayerPieces(0).size());
+		rook.die();
+		enemyQueen.die();
+	}
+
+	@Test
+	/**
+	 * Tests that a copy holds the same position on pieces of its own
+	 */
+	public void testCopy() {
+		Board original = new BitBoard();
+		new King(0, 4, 0, original);
+		Rook rook = new Rook(0, 7, 0, original);
+		new King(1, 4, 7, original);
+		original.setSideToMove(1);
+		Board copy = original.copy();
+		assertEquals(BitBoard.class, copy.getClass());
+		assertEquals(original.getHash(), copy.getHash());
+		assertEquals(1, copy.getSideToMove());
+		Piece copiedRook = copy.getPiece(7, 0);
+		assertNotSame(rook, copiedRook);
+		assertEquals(rook.getType(), copiedRook.getType());
+		copy.makeMove(Move.of(4,7,4,6));
+		assertEquals("Original is not changed", null, original.getPiece(4, 6));
+		assertEquals(original.computeHash(), original.getHash());
+	}
+
 	@Test
 	/**
 	 * Tests if chess board is appropriately 
@@ -174,4 +254,228 @@ public class BoardTest {
 		defKing.die();
 	}
 
+	@Test
+	/**
+	 * Tests that moves can be made and taken back
+	 * several levels deep, restoring killed pieces
+	 * and the pawn's special first move
+	 */
+	public void testMakeAndUnmakeMove() {
+		Piece pawn = new Pawn(0,1,1,board);
+		Piece rook = new Rook(1,1,3,board);
+		Piece queen = new Queen(0,4,3,board);
+		// Pawn makes its first move
+		board.makeMove(Move.of(1,1,1,2));
+		assertEquals("Pawn has moved", true, pawn.hasMoved());
+		// Rook kills the pawn
+		board.makeMove(Move.of(1,3,1,2));
+		assertEquals(false, pawn.isAlive());
+		// Queen kills the rook
+		board.makeMove(Move.of(4,3,1,3));
+		assertEquals(3, board.getUndoDepth());
+		board.makeMove(Move.of(1,3,4,3));
+		board.unmakeMove();
+		board.unmakeMove();
+		assertEquals("Rook is back", rook, board.getPiece(new Point(1,2)));
+		assertEquals(true, rook.isAlive());
+		board.unmakeMove();
+		assertEquals("Pawn is back", pawn, board.getPiece(new Point(1,2)));
+		assertEquals(true, pawn.isAlive());
+		assertEquals("Rook is back", rook, board.getPiece(new Point(1,3)));
+		board.unmakeMove();
+		assertEquals(pawn, board.getPiece(new Point(1,1)));
+		assertEquals("Pawn regains its first move", false, pawn.hasMoved());
+		assertEquals(queen, board.getPiece(new Point(4,3)));
+		assertEquals(0, board.getUndoDepth());
+		pawn.die();
+		rook.die();
+		queen.die();
+	}
+
+	@Test
+	/**
+	 * Tests that moves of the game keep no undo history,
+	 * and are only played on the moving piece's board
+	 */
+	public void testCommitMove() {
+		Piece king = new King(0, 4, 0, board);
+		Piece queen = new Queen(1, 4, 2, board);
+		king.move(new Point(4,1), board);
+		queen.move(new Point(4,1), board);
+		assertEquals(0, board.getUndoDepth());
+		assertEquals(false, king.isAlive());
+		assertEquals(queen, board.getPiece(4,1));
+		try {
+			queen.move(new Point(4,2), new RectangularBoard(8,8));
+			fail("Moved on another board");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		board.makeMove(Move.of(4,1,4,2));
+		try {
+			board.commitMove(Move.of(4,2,4,3));
+			fail("Committed with a move still to take back");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		board.unmakeMove();
+		queen.die();
+	}
+
+	@Test
+	/**
+	 * Tests that a null move passes the turn and is taken back
+	 */
+	public void testNullMove() {
+		Board board = new BitBoard();
+		new King(0, 4, 0, board);
+		new King(1, 4, 7, board);
+		new Pawn(0, 3, 1, board);
+		board.makeMove(Move.of(3,1,3,3));
+		long hash = board.getHash();
+		board.makeNullMove();
+		assertEquals(0, board.getSideToMove());
+		assertEquals(null, board.getEnPassantSquare());
+		assertEquals(board.computeHash(), board.getHash());
+		board.unmakeMove();
+		assertEquals(1, board.getSideToMove());
+		assertEquals(new Point(3,2), board.getEnPassantSquare());
+		assertEquals(hash, board.getHash());
+		assertEquals(1, board.getUndoDepth());
+	}
+
+	@Test
+	/**
+	 * Tests which squares count as attacked
+	 */
+	public void testIsSquareAttacked() {
+		Piece pawn = new Pawn(0,3,3,board);
+		Piece knight = new Knight(1,0,0,board);
+		Piece rook = new Rook(1,7,4,board);
+		// Pawns attack diagonally forward only
+		assertEquals(true, board.isSquareAttacked(new Point(4,4), 0));
+		assertEquals(false, board.isSquareAttacked(new Point(3,4), 0));
+		assertEquals(false, board.isSquareAttacked(new Point(4,2), 0));
+		// Knight jumps
+		assertEquals(true, board.isSquareAttacked(new Point(1,2), 1));
+		assertEquals(false, board.isSquareAttacked(new Point(1,1), 1));
+		// Rook's ray stops at the first piece
+		assertEquals(true, board.isSquareAttacked(new Point(7,0), 1));
+		assertEquals(true, board.isSquareAttacked(new Point(0,4), 1));
+		pawn.move(new Point(3,4), board);
+		assertEquals(true, board.isSquareAttacked(new Point(3,4), 1));
+		assertEquals(false, board.isSquareAttacked(new Point(2,4), 1));
+		pawn.die();
+		knight.die();
+		rook.die();
+	}
+
+	@Test
+	/**
+	 * Tests that the position hash follows moves, kills,
+	 * the side to move and the pawn's special first move
+	 */
+	public void testHash() {
+		Piece king = new King(0,4,0,board);
+		Piece knight = new Knight(0,1,0,board);
+		Piece pawn = new Pawn(1,2,6,board);
+		Piece rook = new Rook(1,0,7,board);
+		long start = board.getHash();
+		assertEquals(board.computeHash(), start);
+		// Same position reached in two different orders
+		board.makeMove(Move.of(4,0,4,1));
+		board.makeMove(Move.of(0,7,0,6));
+		board.makeMove(Move.of(1,0,2,2));
+		long first = board.getHash();
+		assertEquals(board.computeHash(), first);
+		board.unmakeMove();
+		board.unmakeMove();
+		board.unmakeMove();
+		assertEquals("Unmake restores the hash", start, board.getHash());
+		board.makeMove(Move.of(1,0,2,2));
+		board.makeMove(Move.of(0,7,0,6));
+		board.makeMove(Move.of(4,0,4,1));
+		assertEquals("Transposition has the same hash", first, board.getHash());
+		// Kills change the hash and are restored
+		board.makeMove(Move.of(0,6,2,6));
+		assertEquals(board.computeHash(), board.getHash());
+		board.unmakeMove();
+		assertEquals(first, board.getHash());
+		// Pawn loses its first move
+		board.makeMove(Move.of(2,6,2,5));
+		board.makeMove(Move.of(4,1,4,0));
+		board.makeMove(Move.of(2,5,2,6));
+		assertEquals(board.computeHash(), board.getHash());
+		assertEquals("Pawn has moved, not the same position", false, board.getHash() == first);
+		// Side to move is part of the hash
+		board.setSideToMove(board.getSideToMove() ^ 1);
+		assertEquals(board.computeHash(), board.getHash());
+		king.die();
+		knight.die();
+		pawn.die();
+		rook.die();
+		assertEquals(board.computeHash(), board.getHash());
+	}
+
+	@Test
+	/**
+	 * Tests that the Pawn hash follows Pawn moves, captures and promotion,
+	 * and is left alone by other pieces
+	 */
+	public void testPawnHash() {
+		new King(0,4,0,board);
+		new King(1,4,7,board);
+		new Pawn(0,3,1,board);
+		new Pawn(0,6,6,board);
+		new Knight(1,4,2,board);
+		long start = board.getPawnHash();
+		assertEquals(board.computePawnHash(), start);
+		assertEquals("Only Pawns count", false, start == 0);
+		board.makeMove(Move.of(4,0,5,0));
+		assertEquals("King move keeps the Pawn hash", start, board.getPawnHash());
+		board.unmakeMove();
+		// Pawn takes the Knight
+		board.makeMove(Move.of(3,1,4,2));
+		assertEquals(board.computePawnHash(), board.getPawnHash());
+		assertEquals(false, board.getPawnHash() == start);
+		board.unmakeMove();
+		assertEquals(start, board.getPawnHash());
+		// Promotion takes the Pawn off
+		board.makeMove(Move.of(6,6,6,7, Move.PROMOTE_QUEEN));
+		assertEquals(board.computePawnHash(), board.getPawnHash());
+		board.unmakeMove();
+		assertEquals(start, board.getPawnHash());
+	}
+
+	@Test
+	/**
+	 * Tests that promoting again at the same depth reuses the promoted piece,
+	 * and that the board and hash come back each time
+	 */
+	public void testPromotionReuse() {
+		Board board = Fen.parse("8/P6k/8/8/8/8/8/K7 w - - 0 1");
+		long hash = board.getHash();
+		board.makeMove(Move.of(0,6,0,7, Move.PROMOTE_ROOK));
+		Piece rook = board.getPiece(0,7);
+		assertEquals(PieceType.ROOK, rook.getPieceType());
+		board.unmakeMove();
+		assertEquals(false, rook.isAlive());
+		assertEquals(hash, board.getHash());
+		board.makeMove(Move.of(0,6,0,7, Move.PROMOTE_QUEEN));
+		Piece queen = board.getPiece(0,7);
+		assertEquals(PieceType.QUEEN, queen.getPieceType());
+		board.unmakeMove();
+		board.makeMove(Move.of(0,6,0,7, Move.PROMOTE_ROOK));
+		assertSame(rook, board.getPiece(0,7));
+		assertEquals(true, rook.isAlive());
+		assertEquals(2, board.getPieceCount(0));
+		assertEquals(board.computeHash(), board.getHash());
+		board.unmakeMove();
+		board.makeMove(Move.of(0,6,0,7));
+		assertSame(queen, board.getPiece(0,7));
+		board.unmakeMove();
+		assertEquals(hash, board.getHash());
+		assertEquals(PieceType.PAWN, board.getPiece(0,6).getPieceType());
+	}
+
 }
@@ -0,0 +1,104 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.awt.Point;
+
+import org.junit.Test;
+
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+
+
+public class FenTest {
+
+	@Test
+	/**
+	 * Tests that FEN read and written back is unchanged,
+	 * castling rights and the en passant square included
+	 */
+	public void testFenRoundTrip() {
+		String[] fens = {
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+			"r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1",
+			"4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+			"8/8/8/8/8/8/8/K6k b - - 0 1",
+		};
+		for (String fen:fens) {
+			Board loaded = Fen.parse(fen);
+			assertEquals(fen, Fen.write(loaded));
+			assertEquals(fen, loaded.computeHash(), loaded.getHash());
+		}
+		Board loaded = Fen.parse(fens[2]);
+		assertEquals(new Point(3,5), loaded.getEnPassantSquare());
+		assertEquals(true, loaded.getPiece(4,4).hasMoved());
+		loaded = Fen.parse(fens[1]);
+		assertEquals(false, loaded.getPiece(7,0).hasMoved());
+		assertEquals(true, loaded.getPiece(0,0).hasMoved());
+		assertEquals(false, loaded.getKing(1).hasMoved());
+		// The fields after the placement may be left out
+		assertEquals("8/8/8/8/8/8/8/K6k w - - 0 1", Fen.write(Fen.parse("8/8/8/8/8/8/8/K6k")));
+	}
+
+	@Test
+	/**
+	 * Tests that a loaded position hashes like the same position reached by moves
+	 */
+	public void testFenMatchesMoves() {
+		Board played = Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+		played.makeMove(Move.of(4,1,4,3));
+		String fen = Fen.write(played);
+		assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", fen);
+		assertEquals(played.getHash(), Fen.parse(fen).getHash());
+		played.makeMove(Move.of(4,6,4,4));
+		played.makeMove(Move.of(6,0,5,2));
+		fen = Fen.write(played);
+		assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 0 1", fen);
+		assertEquals(played.getHash(), Fen.parse(fen).getHash());
+	}
+
+	@Test
+	/**
+	 * Tests that malformed or impossible FEN is refused and leaves the board
+	 * empty, so that the board can be loaded again
+	 */
+	public void testBadFen() {
+		String[] fens = {"", "8/8/8/8/8/8/8 w - -", "9/8/8/8/8/8/8/8 w", "8/8/8/8/8/8/8/K6kk w",
+				"8/8/8/8/8/8/8/K6x w", "8/8/8/8/8/8/8/K6k x", "8/8/8/8/8/8/8/K6k w X", "8/8/8/8/8/8/8/K6k w - e9",
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e",
+				"8/8/8/8/8/8/8/K6k w - e3", "4k3/8/8/3pP3/8/8/8/4K3 b - d6",
+				// Kings and Pawns
+				"8/8/8/8/8/8/8/K7 w", "8/8/8/8/8/8/8/KK5k w", "P7/8/8/8/8/8/8/K6k w", "8/8/8/8/8/8/8/Kp5k w",
+				// Castling
+				"r3k2r/8/8/8/8/8/8/R3K2R w KK", "r3k2r/8/8/8/8/8/8/R3K2R w -K", "r3k2r/8/8/8/8/8/8/R3K2R w K-",
+				"r3k2r/8/8/8/8/8/8/R4K1R w K", "r3k2r/8/8/8/8/8/8/R3K3 w K", "r3k3/8/8/8/8/8/8/R3K2R w k",
+				// En passant without the Pawn that passed, or with it not having come from its start
+				"4k3/8/8/3P4/8/8/8/4K3 w - d6", "4k3/3p4/8/3pP3/8/8/8/4K3 w - d6", "4k3/8/3n4/3pP3/8/8/8/4K3 w - d6"};
+		Board board = new BitBoard();
+		for (String fen:fens) {
+			try {
+				Fen.load(board, fen);
+				fail(fen);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+			assertEquals(fen, 0, board.getPieceCount(0) + board.getPieceCount(1));
+		}
+		Fen.load(board, "4k3/8/8/3pP3/8/8/8/4K3 w - d6");
+		assertEquals(new Point(3,5), board.getEnPassantSquare());
+		assertEquals(board.computeHash(), board.getHash());
+		board = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R b qK -");
+		assertEquals(false, board.getPiece(0,7).hasMoved());
+		assertEquals(true, board.getPiece(7,7).hasMoved());
+		board = Fen.parse("4k3/8/8/8/3Pp3/8/8/4K3 b - d3");
+		assertEquals(new Point(3,2), board.getEnPassantSquare());
+		try {
+			Fen.load(Fen.parse("8/8/8/8/8/8/8/K6k w"), "8/8/8/8/8/8/8/K6k w");
+			fail("Loaded onto a board with pieces");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chessEngine.MateResult;
+import chessEngine.MateSolver;
+import chessEngine.Perft;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+
+
+public class MateSolverTest {
+
+	MateSolver solver = new MateSolver(100000);
+
+	@Test
+	/**
+	 * Tests a back rank mate, and that the board is left as it was
+	 */
+	public void testMateInOne() {
+		Board board = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+		long hash = board.getHash();
+		MateResult result = solver.solve(board, 3);
+		assertTrue(result.isMate());
+		assertEquals(1, result.getMateIn());
+		assertArrayEquals(new int[] {Move.of(0,0,0,7)}, result.getLine());
+		assertEquals(hash, board.getHash());
+		assertEquals(0, board.getUndoDepth());
+	}
+
+	@Test
+	/**
+	 * Tests a mate in three starting with a discovered check,
+	 * by playing out the line
+	 */
+	public void testMateInThree() {
+		Board board = Fen.parse("r5rk/5p1p/5R2/4B3/8/8/7P/7K w - - 0 1");
+		assertEquals(MateResult.NO_CHECKING_MATE, solver.solve(board, 2).getStatus());
+		MateResult result = solver.solve(board, 5);
+		assertTrue(result.isMate());
+		assertEquals(3, result.getMateIn());
+		int[] line = result.getLine();
+		assertEquals(5, line.length);
+		for (int move:line) {
+			board.makeMove(move);
+		}
+		assertTrue(board.checkMate(1));
+	}
+
+	@Test
+	/**
+	 * Tests positions without a mate by checks alone
+	 */
+	public void testNoMate() {
+		MateResult result = solver.solve(Fen.parse(Perft.SUITE_POSITIONS[0]), 3);
+		assertEquals(MateResult.NO_CHECKING_MATE, result.getStatus());
+		assertEquals(3, result.getMoves());
+		assertEquals(0, result.getLine().length);
+		// Mate in two, but the first move does not give check, so out of the solver's reach
+		result = solver.solve(Fen.parse("7k/8/5K2/8/8/8/8/R7 w - - 0 1"), 4);
+		assertEquals(MateResult.NO_CHECKING_MATE, result.getStatus());
+	}
+
+	@Test
+	/**
+	 * Tests that the solver gives up once the tree fills its budget
+	 */
+	public void testBudget() {
+		Board board = Fen.parse("r5rk/5p1p/5R2/4B3/8/8/7P/7K w - - 0 1");
+		long hash = board.getHash();
+		MateResult result = new MateSolver(20).solve(board, 5);
+		assertEquals(MateResult.UNKNOWN, result.getStatus());
+		assertTrue(result.getNodes() <= 20 * result.getMoves());
+		assertEquals(hash, board.getHash());
+	}
+
+}
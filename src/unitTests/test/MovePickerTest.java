@@ -0,0 +1,89 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chessEngine.MoveHistory;
+import chessEngine.MovePicker;
+import chessEngine.Perft;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+import chessLayout.MoveList;
+
+
+public class MovePickerTest {
+
+	MovePicker picker = new MovePicker();
+	MoveHistory history = new MoveHistory(8);
+	
+	@Test
+	/**
+	 * Tests that every move is handed out exactly once
+	 */
+	public void testAllMovesOnce() {
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[1]);
+		MoveList moves = new MoveList();
+		board.generateMoves(0, moves);
+		int size = moves.size();
+		MoveList expected = new MoveList();
+		for (int i = 0; i < size; i++) {
+			expected.add(moves.get(i));
+		}
+		picker.init(board, moves, Move.NONE, history, 0);
+		MoveList picked = new MoveList();
+		for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+			assertFalse("Handed out twice", picked.contains(move));
+			picked.add(move);
+		}
+		assertEquals(size, picked.size());
+		for (int i = 0; i < size; i++) {
+			assertTrue(picked.contains(expected.get(i)));
+		}
+	}
+	
+	@Test
+	/**
+	 * Tests the order: hash move, captures by MVV-LVA, killers, then history
+	 */
+	public void testOrder() {
+		// The Pawn on c4, the Knight on f4 and the Rook on d1 can take
+		// the Queen on d5, the Knight can also take the Pawn on e6
+		Board board = Fen.parse("4k3/8/4p3/3q4/2P2N2/8/8/3RK3 w - -");
+		MoveList moves = new MoveList();
+		board.generateMoves(0, moves);
+		int hashMove = Move.of(4,0,5,1);
+		int killer = Move.of(3,0,2,0);
+		int liked = Move.of(3,0,0,0);
+		history.addKiller(1, killer);
+		history.update(0, 3, liked, 100);
+		picker.init(board, moves, hashMove, history, 1);
+		assertEquals("Hash move", hashMove, picker.next());
+		assertEquals("Pawn takes Queen", Move.of(2,3,3,4), picker.next());
+		assertFalse(picker.isQuiet());
+		assertEquals("Knight takes Queen", Move.of(5,3,3,4), picker.next());
+		assertEquals("Rook takes Queen", Move.of(3,0,3,4), picker.next());
+		assertEquals("Knight takes Pawn", Move.of(5,3,4,5), picker.next());
+		assertEquals("Killer", killer, picker.next());
+		assertTrue(picker.isQuiet());
+		assertEquals("Best history", liked, picker.next());
+		assertEquals(7, picker.getCount());
+	}
+	
+	@Test
+	/**
+	 * Tests that history scores stay within their range
+	 */
+	public void testHistoryBounds() {
+		int move = Move.of(0,0,0,5);
+		for (int i = 0; i < 1000; i++) {
+			history.update(1, 3, move, MoveHistory.MAX_SCORE / 2);
+		}
+		assertTrue(history.getScore(1, 3, move) <= MoveHistory.MAX_SCORE);
+		assertTrue(history.getScore(1, 3, move) > MoveHistory.MAX_SCORE / 2);
+		history.age();
+		assertEquals(Move.NONE, history.getKiller(0, 0));
+		assertTrue(history.getScore(1, 3, move) <= MoveHistory.MAX_SCORE / 2);
+	}
+
+}
@@ -0,0 +1,177 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import chessEngine.Network;
+import chessEngine.NeuralEvaluator;
+import chessEngine.Perft;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.MoveList;
+import chessLayout.Piece;
+
+
+public class NeuralEvaluatorTest {
+
+	Network network = createNetwork(new Random(3), 32, 8, 8);
+	NeuralEvaluator evaluator = new NeuralEvaluator(network);
+	
+	/**
+	 * Returns a network of random weights
+	 */
+	static Network createNetwork(Random random, int hidden, int layer1, int layer2) {
+		short[] featureWeights = new short[Network.INPUTS * hidden];
+		for (int i = 0; i < featureWeights.length; i++) {
+			featureWeights[i] = (short) (random.nextInt(33) - 16);
+		}
+		short[] featureBiases = new short[hidden];
+		for (int i = 0; i < hidden; i++) {
+			featureBiases[i] = (short) random.nextInt(64);
+		}
+		return new Network(hidden, featureWeights, featureBiases,
+				randomBytes(random, 2 * hidden * layer1), randomInts(random, layer1),
+				randomBytes(random, layer1 * layer2), randomInts(random, layer2),
+				randomBytes(random, layer2), random.nextInt(1000), 4);
+	}
+	
+	private static byte[] randomBytes(Random random, int length) {
+		byte[] values = new byte[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = (byte) (random.nextInt(256) - 128);
+		}
+		return values;
+	}
+	
+	private static int[] randomInts(Random random, int length) {
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = random.nextInt(2000) - 1000;
+		}
+		return values;
+	}
+	
+	private void walk(Board board, int depth) {
+		int side = board.getSideToMove();
+		assertEquals(NeuralEvaluator.scan(network, board, side), evaluator.evaluate(board, side));
+		if (depth == 0) {
+			return;
+		}
+		MoveList moves = new MoveList();
+		board.generateMoves(side, moves);
+		for (int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			walk(board, depth - 1);
+			board.unmakeMove();
+		}
+	}
+	
+	@Test
+	/**
+	 * Tests that the accumulators follow every kind of move and its unmaking
+	 */
+	public void testIncrementalMatchesScan() {
+		for (int i = 1; i < 4; i++) {
+			walk(Fen.parse(Perft.SUITE_POSITIONS[i]), 2);
+		}
+	}
+	
+	@Test
+	/**
+	 * Tests that both sides see a symmetric position alike
+	 */
+	public void testSymmetry() {
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[0]);
+		assertEquals(evaluator.evaluate(board, 0), evaluator.evaluate(board, 1));
+		assertEquals(NeuralEvaluator.feature(0, 0, 0, 4, 1), NeuralEvaluator.feature(1, 1, 0, 4, 6));
+	}
+	
+	@Test
+	/**
+	 * Tests the layers against a plain computation of the network, with sizes
+	 * that are not whole vectors and weights at the ends of their ranges
+	 */
+	public void testLayersMatchReference() {
+		Random random = new Random(5);
+		int hidden = 80, layer1 = 24, layer2 = 8;
+		short[] featureWeights = new short[Network.INPUTS * hidden];
+		for (int i = 0; i < featureWeights.length; i++) {
+			featureWeights[i] = (short) (random.nextInt(601) - 300);
+		}
+		short[] featureBiases = new short[hidden];
+		byte[] layer1Weights = randomBytes(random, 2 * hidden * layer1);
+		byte[] layer2Weights = randomBytes(random, layer1 * layer2);
+		byte[] outputWeights = randomBytes(random, layer2);
+		layer1Weights[0] = Byte.MIN_VALUE;
+		layer1Weights[1] = Byte.MAX_VALUE;
+		int[] layer1Biases = randomInts(random, layer1), layer2Biases = randomInts(random, layer2);
+		Network wide = new Network(hidden, featureWeights, featureBiases, layer1Weights, layer1Biases,
+				layer2Weights, layer2Biases, outputWeights, 100, 8);
+		for (int i = 0; i < 4; i++) {
+			Board board = Fen.parse(Perft.SUITE_POSITIONS[i]);
+			for (int player = 0; player < 2; player++) {
+				int[][] accumulators = new int[2][hidden];
+				for (int x = 0; x < 8; x++) {
+					for (int y = 0; y < 8; y++) {
+						Piece piece = board.getPiece(x, y);
+						for (int side = 0; side < 2 && piece != null; side++) {
+							int feature = NeuralEvaluator.feature(side, piece.getPlayer(), piece.getPieceType().ordinal(), x, y);
+							for (int h = 0; h < hidden; h++) {
+								accumulators[side][h] += featureWeights[feature * hidden + h];
+							}
+						}
+					}
+				}
+				int[] input = new int[2 * hidden];
+				for (int h = 0; h < hidden; h++) {
+					input[h] = Math.max(0, Math.min(Network.CLIP, accumulators[player][h]));
+					input[hidden + h] = Math.max(0, Math.min(Network.CLIP, accumulators[player ^ 1][h]));
+				}
+				int[] hidden1 = referenceLayer(input, layer1Weights, layer1Biases);
+				int[] hidden2 = referenceLayer(hidden1, layer2Weights, layer2Biases);
+				int output = 100;
+				for (int o = 0; o < layer2; o++) {
+					output += hidden2[o] * outputWeights[o];
+				}
+				assertEquals(output / 8, NeuralEvaluator.scan(wide, board, player));
+			}
+		}
+	}
+	
+	private static int[] referenceLayer(int[] input, byte[] weights, int[] biases) {
+		int[] output = new int[biases.length];
+		for (int o = 0; o < output.length; o++) {
+			int sum = biases[o];
+			for (int i = 0; i < input.length; i++) {
+				sum += input[i] * weights[o * input.length + i];
+			}
+			output[o] = Math.max(0, Math.min(Network.CLIP, sum >> Network.WEIGHT_SHIFT));
+		}
+		return output;
+	}
+	
+	@Test
+	/**
+	 * Tests that a saved network loads back the same, and that
+	 * other files are refused
+	 */
+	public void testSaveAndLoad() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		network.save(out);
+		Network loaded = Network.load(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(network.getHidden(), loaded.getHidden());
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[1]);
+		assertEquals(NeuralEvaluator.scan(network, board, 0), NeuralEvaluator.scan(loaded, board, 0));
+		try {
+			Network.load(new ByteArrayInputStream(new byte[16]));
+			fail("Not a network");
+		} catch (IOException e) {
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import chessEngine.OpeningBook;
+import chessEngine.OpeningBookBuilder;
+import chessEngine.Perft;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+import chessLayout.MoveList;
+
+
+public class OpeningBookTest {
+
+	private static final String CORPUS = "# A small corpus\n"
+			+ "1. e2e4 e7e5 2. g1f3 b8c6 1-0\n"
+			+ "e2e4 c7c5 g1f3\n"
+			+ "\n"
+			+ "e2e4 e7e5 f1c4\n"
+			+ "d2d4 d7d5 *\n";
+
+	private OpeningBook build(OpeningBookBuilder builder) throws Exception {
+		File file = File.createTempFile("book", ".bin");
+		file.deleteOnExit();
+		builder.write(file);
+		return new OpeningBook(file);
+	}
+
+	private Board start() {
+		return Fen.parse(Perft.SUITE_POSITIONS[0]);
+	}
+
+	@Test
+	/**
+	 * Tests coordinate notation both ways
+	 */
+	public void testCoordinates() {
+		assertEquals(Move.of(4,1,4,3), Move.parse("e2e4"));
+		assertEquals(Move.of(6,6,6,7,Move.PROMOTE_KNIGHT), Move.parse("g7g8N"));
+		assertEquals("g7g8n", Move.toCoordinates(Move.of(6,6,6,7,Move.PROMOTE_KNIGHT)));
+		assertEquals("a1h8", Move.toCoordinates(Move.parse("a1h8")));
+		String[] bad = {"", "e2", "e2e2", "e2e4x", "e0e4", "E2e4"};
+		for (String text:bad) {
+			try {
+				Move.parse(text);
+				fail(text);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * Tests the moves and weights read back for a few positions
+	 */
+	public void testLookup() throws Exception {
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		assertEquals(4, builder.addGames(new StringReader(CORPUS)));
+		OpeningBook book = build(builder);
+		Board board = start();
+		MoveList moves = new MoveList();
+		assertEquals(4, book.getMoves(board, moves));
+		assertEquals(2, moves.size());
+		assertEquals(Move.parse("e2e4"), moves.get(0));
+		assertEquals(Move.parse("d2d4"), moves.get(1));
+		assertEquals(Move.parse("e2e4"), book.getBestMove(board));
+		int entry = book.find(board.getHash());
+		assertEquals(3, book.getWeight(entry));
+		assertEquals(1, book.getWeight(entry + 1));
+
+		board.makeMove(Move.parse("e2e4"));
+		assertEquals(3, book.getMoves(board, moves));
+		assertEquals(Move.parse("e7e5"), moves.get(0));
+		assertEquals(Move.parse("c7c5"), moves.get(1));
+		board.makeMove(Move.parse("e7e5"));
+		assertEquals(2, book.getMoves(board, moves));
+		board.makeMove(Move.parse("f1c4"));
+		assertEquals("Out of book", 0, book.getMoves(board, moves));
+		assertEquals(0, moves.size());
+		assertEquals(Move.NONE, book.getBestMove(board));
+		assertEquals(Move.NONE, book.pickMove(board, 12345));
+	}
+
+	@Test
+	/**
+	 * Tests that picked moves follow the weights, and that entries are sorted by key
+	 */
+	public void testPickAndOrder() throws Exception {
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		builder.addGames(new StringReader(CORPUS));
+		OpeningBook book = build(builder);
+		Board board = start();
+		assertEquals(Move.parse("e2e4"), book.pickMove(board, 0));
+		assertEquals(Move.parse("e2e4"), book.pickMove(board, 2));
+		assertEquals(Move.parse("d2d4"), book.pickMove(board, 3));
+		assertEquals(Move.parse("e2e4"), book.pickMove(board, 4));
+		assertEquals(Move.parse("d2d4"), book.pickMove(board, -1));
+		assertEquals(6, builder.getPositions());
+		for (int i = 1; i < book.size(); i++) {
+			assertTrue(book.getKey(i - 1) < book.getKey(i)
+					|| (book.getKey(i - 1) == book.getKey(i) && book.getWeight(i - 1) >= book.getWeight(i)));
+		}
+	}
+
+	@Test
+	/**
+	 * Tests the ply limit and that games with illegal moves are refused whole
+	 */
+	public void testBuilder() throws Exception {
+		OpeningBookBuilder builder = new OpeningBookBuilder(2);
+		builder.addGame("e2e4 e7e5 g1f3");
+		try {
+			builder.addGame("d2d4 e8e6 e2e4");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		assertEquals(1, builder.getGames());
+		OpeningBook book = build(builder);
+		assertEquals(2, book.size());
+		Board board = start();
+		board.makeMove(Move.parse("e2e4"));
+		board.makeMove(Move.parse("e7e5"));
+		assertEquals("Past the ply limit", Move.NONE, book.getBestMove(board));
+	}
+
+	@Test
+	/**
+	 * Tests that a file which is not a book is refused
+	 */
+	public void testNotABook() throws Exception {
+		File file = File.createTempFile("book", ".bin");
+		file.deleteOnExit();
+		try {
+			new OpeningBook(file);
+			fail();
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+}
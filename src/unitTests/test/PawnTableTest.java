@@ -0,0 +1,113 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chessEngine.PawnStructure;
+import chessEngine.PawnTable;
+import chessEngine.Perft;
+import chessEngine.PieceSquareEvaluator;
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+import chessPieces.King;
+import chessPieces.Pawn;
+
+
+public class PawnTableTest {
+
+	Board board = new BitBoard();
+	int[] score = new int[2];
+
+	private void scoreBoard() {
+		long[] pawns = {PawnStructure.pawns(board, 0), PawnStructure.pawns(board, 1)};
+		PawnStructure.score(pawns, score);
+	}
+
+	@Test
+	/**
+	 * Tests doubled, isolated and passed Pawns
+	 */
+	public void testDoubledIsolatedPassed() {
+		new King(0, 4, 0, board);
+		new King(1, 4, 7, board);
+		// a2 and a3 are doubled and isolated, a3 and d7 passed
+		new Pawn(0, 0, 1, board);
+		new Pawn(0, 0, 2, board);
+		new Pawn(1, 3, 6, board);
+		scoreBoard();
+		for (int phase = 0; phase < 2; phase++) {
+			int expected = PawnStructure.DOUBLED[phase] + 2 * PawnStructure.ISOLATED[phase] + PawnStructure.PASSED[phase][2]
+					- PawnStructure.ISOLATED[phase] - PawnStructure.PASSED[phase][1];
+			assertEquals(expected, score[phase]);
+		}
+	}
+
+	@Test
+	/**
+	 * Tests a backward Pawn, whose advance the enemy Pawn guards
+	 */
+	public void testBackward() {
+		// c2 is behind d4 and b4 guards c3; d4 is passed and b4 isolated
+		new Pawn(0, 2, 1, board);
+		new Pawn(0, 3, 3, board);
+		new Pawn(1, 1, 3, board);
+		scoreBoard();
+		int expected = PawnStructure.BACKWARD[0] + PawnStructure.PASSED[0][3] - PawnStructure.ISOLATED[0];
+		assertEquals(expected, score[PawnStructure.MIDDLEGAME]);
+		assertEquals(0, new PieceSquareEvaluator().evaluate(board, 0)
+				+ new PieceSquareEvaluator().evaluate(board, 1));
+	}
+
+	@Test
+	/**
+	 * Tests the King shelter of both sides, and that it follows the King
+	 */
+	public void testShelter() {
+		// f2 and g3 in front of a King on g1, nothing on h
+		long white = 1L << (1 * 8 + 5) | 1L << (2 * 8 + 6);
+		int expected = PawnStructure.SHELTER[1] + PawnStructure.SHELTER[2] + PawnStructure.MISSING_SHELTER;
+		assertEquals(expected, PawnStructure.shelter(white, 0, 6, 0));
+		// The same from Black's side: f7 and g6 in front of g8
+		long black = 1L << (6 * 8 + 5) | 1L << (5 * 8 + 6);
+		assertEquals(expected, PawnStructure.shelter(black, 1, 6, 7));
+
+		new King(0, 6, 0, board);
+		new King(1, 4, 7, board);
+		new Pawn(0, 5, 1, board);
+		new Pawn(0, 6, 2, board);
+		PawnTable table = new PawnTable(16);
+		int entry = table.probe(board);
+		assertEquals(expected, table.getShelter(entry, board, 0));
+		board.makeMove(Move.of(6, 0, 5, 0));
+		entry = table.probe(board);
+		assertEquals(PawnStructure.shelter(white, 0, 5, 0), table.getShelter(entry, board, 0));
+	}
+
+	@Test
+	/**
+	 * Tests that positions with the same Pawns are looked up, not scored again
+	 */
+	public void testHits() {
+		Fen.load(board, Perft.SUITE_POSITIONS[0]);
+		PawnTable table = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+		PieceSquareEvaluator evaluator = new PieceSquareEvaluator(table);
+		evaluator.evaluate(board, 0);
+		assertEquals(0, table.getHits());
+		// Knight moves keep the Pawns
+		board.makeMove(Move.of(6, 0, 5, 2));
+		evaluator.evaluate(board, 1);
+		board.makeMove(Move.of(6, 7, 5, 5));
+		evaluator.evaluate(board, 0);
+		assertEquals(2, table.getHits());
+		board.makeMove(Move.of(4, 1, 4, 3));
+		evaluator.evaluate(board, 1);
+		assertEquals(2, table.getHits());
+		board.unmakeMove();
+		evaluator.evaluate(board, 0);
+		assertEquals(5, table.getProbes());
+		assertEquals(3, table.getHits());
+	}
+
+}
@@ -0,0 +1,132 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.awt.Point;
+import java.util.Map;
+
+import org.junit.Test;
+
+import chessEngine.Perft;
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+import chessLayout.RectangularBoard;
+import chessPieces.King;
+import chessPieces.Pawn;
+import chessPieces.Queen;
+import chessPieces.Rook;
+
+
+public class PerftTest {
+
+	@Test
+	/**
+	 * Tests the counts of the reference suite at shallow depths
+	 * Deeper counts are checked by running Perft.main
+	 */
+	public void testSuite() {
+		int[] depths = {3, 2, 3, 3, 2, 2};
+		for (int i = 0; i < Perft.SUITE_POSITIONS.length; i++) {
+			Board board = Fen.parse(Perft.SUITE_POSITIONS[i]);
+			long hash = board.getHash();
+			assertEquals("Position " + (i + 1), Perft.SUITE_COUNTS[i][depths[i] - 1], Perft.perft(board, depths[i]));
+			assertEquals("Position should be restored", hash, board.getHash());
+			assertEquals(hash, board.computeHash());
+		}
+	}
+
+	@Test
+	/**
+	 * Tests that the generic board generates the same moves,
+	 * including castling, en passant and promotion
+	 */
+	public void testRectangularBoard() {
+		Board board = new RectangularBoard(8,8);
+		Fen.load(board, Perft.SUITE_POSITIONS[1]);
+		assertEquals(Perft.SUITE_COUNTS[1][1], Perft.perft(board, 2));
+		board = new RectangularBoard(8,8);
+		Fen.load(board, Perft.SUITE_POSITIONS[3]);
+		assertEquals(Perft.SUITE_COUNTS[3][1], Perft.perft(board, 2));
+	}
+
+	@Test
+	/**
+	 * Tests that divide and the parallel count add up to perft
+	 */
+	public void testDivideAndParallel() throws InterruptedException {
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[2]);
+		Map<Integer, Long> counts = Perft.divide(board, 3);
+		assertEquals(Perft.SUITE_COUNTS[2][0], counts.size());
+		long total = 0;
+		for (long count:counts.values()) {
+			total += count;
+		}
+		assertEquals(Perft.SUITE_COUNTS[2][2], total);
+		long hash = board.getHash();
+		assertEquals(Perft.SUITE_COUNTS[2][2], Perft.perft(board, 3, 4));
+		assertEquals("Parallel count works on copies", hash, board.getHash());
+	}
+
+	@Test
+	/**
+	 * Tests that castling moves the Rook and is taken back
+	 */
+	public void testCastling() {
+		Board board = new BitBoard();
+		King king = new King(0, 4, 0, board);
+		Rook rook = new Rook(0, 7, 0, board);
+		new Rook(0, 0, 0, board);
+		new King(1, 4, 7, board);
+		long hash = board.getHash();
+		assertTrue("King can castle", king.getValidMoveLocations(true).contains(new Point(6,0)));
+		assertTrue("King can castle", king.getValidMoveLocations(true).contains(new Point(2,0)));
+		board.makeMove(Move.of(4,0,6,0));
+		assertEquals(rook, board.getPiece(new Point(5,0)));
+		assertEquals(null, board.getPiece(new Point(7,0)));
+		assertEquals(board.computeHash(), board.getHash());
+		board.unmakeMove();
+		assertEquals(rook, board.getPiece(new Point(7,0)));
+		assertEquals(false, rook.hasMoved());
+		assertEquals(hash, board.getHash());
+		// Cannot castle through an attacked square
+		Queen queen = new Queen(1, 5, 5, board);
+		assertFalse("King passes an attacked square", king.getValidMoveLocations(true).contains(new Point(6,0)));
+		assertTrue("King can still castle the other way", king.getValidMoveLocations(true).contains(new Point(2,0)));
+		queen.die();
+		rook.castlingForfeited();
+		assertFalse("Rook has moved", king.getValidMoveLocations(true).contains(new Point(6,0)));
+	}
+
+	@Test
+	/**
+	 * Tests that a Pawn can take en passant only right after the special first move
+	 * and that a promoted Pawn comes back on unmake
+	 */
+	public void testEnPassantAndPromotion() {
+		Board board = new BitBoard();
+		Pawn pawn = new Pawn(0, 4, 4, board);
+		pawn.firstMoveCompleted();
+		Pawn enemyPawn = new Pawn(1, 3, 6, board);
+		board.setSideToMove(1);
+		board.makeMove(Move.of(3,6,3,4));
+		assertEquals(new Point(3,5), board.getEnPassantSquare());
+		assertTrue("Pawn can take en passant", pawn.getValidMoveLocations(true).contains(new Point(3,5)));
+		board.makeMove(Move.of(4,4,3,5));
+		assertEquals(false, enemyPawn.isAlive());
+		assertEquals(null, board.getPiece(new Point(3,4)));
+		board.unmakeMove();
+		assertEquals(enemyPawn, board.getPiece(new Point(3,4)));
+
+		Pawn promoting = new Pawn(0, 0, 6, board);
+		promoting.firstMoveCompleted();
+		board.makeMove(Move.of(0,6,0,7,Move.PROMOTE_KNIGHT));
+		assertEquals("knight", board.getPiece(new Point(0,7)).getType());
+		assertEquals(false, promoting.isAlive());
+		board.unmakeMove();
+		assertEquals(promoting, board.getPiece(new Point(0,6)));
+		assertEquals(true, promoting.isAlive());
+		assertEquals(board.computeHash(), board.getHash());
+	}
+
+}
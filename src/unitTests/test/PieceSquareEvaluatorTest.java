@@ -0,0 +1,86 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chessEngine.PieceSquareEvaluator;
+import chessEngine.Perft;
+import chessLayout.BitBoard;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.MoveList;
+import chessPieces.King;
+import chessPieces.Pawn;
+import chessPieces.Queen;
+
+
+public class PieceSquareEvaluatorTest {
+
+	PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+	
+	/**
+	 * Plays every line to the given depth, comparing the running
+	 * score with a full scan in each position
+	 */
+	private void walk(Board board, int depth) {
+		assertEquals(PieceSquareEvaluator.scan(board, 0), evaluator.evaluate(board, 0));
+		if (depth == 0) {
+			return;
+		}
+		MoveList moves = new MoveList();
+		board.generateMoves(board.getSideToMove(), moves);
+		for (int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			walk(board, depth - 1);
+			board.unmakeMove();
+		}
+	}
+	
+	@Test
+	/**
+	 * Tests that the running score follows captures, castling,
+	 * en passant and promotion and their unmaking
+	 */
+	public void testIncrementalMatchesScan() {
+		for (int i = 1; i < 4; i++) {
+			Board board = Fen.parse(Perft.SUITE_POSITIONS[i]);
+			walk(board, 2);
+		}
+	}
+	
+	@Test
+	/**
+	 * Tests that the starting position is even and scores are symmetric
+	 */
+	public void testSymmetry() {
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[0]);
+		assertEquals(0, evaluator.evaluate(board, 0));
+		assertEquals(PieceSquareEvaluator.TOTAL_PHASE, evaluator.getPhase());
+		board = Fen.parse(Perft.SUITE_POSITIONS[1]);
+		assertEquals(-evaluator.evaluate(board, 0), evaluator.evaluate(board, 1));
+	}
+	
+	@Test
+	/**
+	 * Tests that pieces killed directly and pieces added later are counted,
+	 * and that the endgame tables take over as pieces leave
+	 */
+	public void testDieAndPhase() {
+		Board board = new BitBoard();
+		new King(0, 4, 0, board);
+		new King(1, 4, 7, board);
+		Pawn pawn = new Pawn(0, 0, 5, board);
+		int withPawn = evaluator.evaluate(board, 0);
+		assertEquals(0, evaluator.getPhase());
+		assertTrue("Pawn near promotion in an endgame", withPawn > PieceSquareEvaluator.ENDGAME_VALUES[0]);
+		Queen queen = new Queen(1, 3, 3, board);
+		assertEquals(4, evaluator.getPhase());
+		assertEquals(PieceSquareEvaluator.scan(board, 0), evaluator.evaluate(board, 0));
+		queen.die();
+		pawn.die();
+		assertEquals(0, evaluator.getPhase());
+		assertEquals(PieceSquareEvaluator.scan(board, 0), evaluator.evaluate(board, 0));
+		assertEquals(0, evaluator.evaluate(board, 0));
+	}
+
+}
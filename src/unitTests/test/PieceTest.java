@@ -51,6 +51,22 @@ public class PieceTest {
 		pawn.die();
 	}
 	
+	@Test
+	/**
+	 * Tests that looking at a pawn's moves does not use up
+	 * its special first move, and that the move cannot jump
+	 */
+	public void testPawnFirstMoveBlocked() {
+		Piece pawn = new Pawn(0,1,0,squareBoard);
+		pawn.getValidMoveLocations(false);
+		assertEquals(false, pawn.hasMoved());
+		Piece rook = new Rook(1,1,1,squareBoard);
+		ArrayList<Point> possibleLocations = pawn.getValidMoveLocations(false);
+		assertEquals(false, possibleLocations.contains(new Point(1,2)));
+		rook.die();
+		pawn.die();
+	}
+	
 	@Test
 	public void functionName() {
 		
@@ -0,0 +1,120 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import chessEngine.ParallelSearch;
+import chessEngine.Perft;
+import chessEngine.Search;
+import chessEngine.SearchOptions;
+import chessEngine.SearchResult;
+import chessLayout.Board;
+import chessLayout.Fen;
+import chessLayout.Move;
+
+
+public class SearchTest {
+
+	Search search = new Search();
+	
+	@Test
+	/**
+	 * Tests that a mate in one is found and scored as a mate
+	 */
+	public void testMateInOne() {
+		Board board = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - -");
+		long hash = board.getHash();
+		SearchResult result = search.search(board, 0, 4);
+		assertEquals("Rook to the last rank", Move.of(0,0,0,7), result.getBestMove());
+		assertEquals(true, result.isMate());
+		assertEquals(1, result.getMateIn());
+		assertEquals("Board should be restored", hash, board.getHash());
+	}
+	
+	@Test
+	/**
+	 * Tests that a hanging Queen is taken, and that the
+	 * principal variation starts with the best move
+	 */
+	public void testWinsMaterial() {
+		Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - -");
+		SearchResult result = search.search(board, 0, 3);
+		assertEquals("Rook takes Queen", Move.of(3,1,3,4), result.getBestMove());
+		assertEquals(result.getBestMove(), result.getPrincipalVariation()[0]);
+		assertTrue(result.getScore() > 0);
+		assertTrue(result.getNodes() > 0);
+	}
+	
+	@Test
+	/**
+	 * Tests that a defended Pawn is not taken at depth 1,
+	 * as the quiescence search sees it taken back
+	 */
+	public void testQuiescence() {
+		Board board = Fen.parse("4k3/8/4p3/3p4/8/8/8/3QK3 w - -");
+		SearchResult result = search.search(board, 0, 1);
+		assertTrue("Queen takes defended Pawn", result.getBestMove() != Move.of(3,0,3,4));
+	}
+	
+	@Test
+	/**
+	 * Tests that the selective search finds what plain alpha-beta does
+	 * with fewer nodes, and that each part can be turned off
+	 */
+	public void testOptions() {
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[1]);
+		Search plain = new Search();
+		plain.setOptions(SearchOptions.none());
+		SearchResult plainResult = plain.search(board, 0, 5);
+		SearchResult result = search.search(board, 0, 5);
+		assertTrue(result.getNodes() < plainResult.getNodes());
+		assertEquals(plainResult.getBestMove(), result.getBestMove());
+		search.setOptions(new SearchOptions().setNullMovePruning(false).setLateMoveReductions(false));
+		assertEquals(Move.of(0,0,0,7), search.search(Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - -"), 0, 4).getBestMove());
+		search.setOptions(new SearchOptions().setFutilityPruning(false).setPrincipalVariationSearch(false));
+		assertEquals(Move.of(3,1,3,4), search.search(Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - -"), 0, 3).getBestMove());
+	}
+	
+	@Test
+	/**
+	 * Tests that a player without moves and not in Check scores a draw
+	 */
+	public void testStaleMate() {
+		Board board = Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - -");
+		SearchResult result = search.search(board, 1, 3);
+		assertEquals(Move.NONE, result.getBestMove());
+		assertEquals(0, result.getScore());
+	}
+	
+	@Test
+	/**
+	 * Tests that the search respects its time limit
+	 * and still returns a move
+	 */
+	public void testTimeLimit() {
+		Board board = Fen.parse(Perft.SUITE_POSITIONS[1]);
+		long start = System.currentTimeMillis();
+		SearchResult result = search.search(board, 0, Search.MAX_PLY, 300);
+		assertTrue("Took " + (System.currentTimeMillis() - start) + " ms", System.currentTimeMillis() - start < 2000);
+		assertTrue(result.getDepth() >= 1);
+		assertTrue(result.getBestMove() != Move.NONE);
+	}
+
+	@Test
+	/**
+	 * Tests that several threads find the mate without changing the board
+	 */
+	public void testParallelSearch() {
+		try (ParallelSearch parallel = new ParallelSearch(4)) {
+			Board board = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - -");
+			long hash = board.getHash();
+			SearchResult result = parallel.search(board, 0, 4);
+			assertEquals("Rook to the last rank", Move.of(0,0,0,7), result.getBestMove());
+			assertEquals(true, result.isMate());
+			assertEquals("Board is not changed", hash, board.getHash());
+			result = parallel.search(Fen.parse(Perft.SUITE_POSITIONS[0]), 0, 4);
+			assertTrue(result.getDepth() >= 4);
+		}
+	}
+
+}
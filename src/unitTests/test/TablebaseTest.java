@@ -0,0 +1,94 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import chessEngine.Perft;
+import chessEngine.Search;
+import chessEngine.Tablebase;
+import chessEngine.TablebaseGenerator;
+import chessLayout.Board;
+import chessLayout.Fen;
+
+
+public class TablebaseTest {
+
+	// Generated once for all the tests, removed when the tests end
+	private static File directory;
+
+	private static synchronized Tablebase tablebase() throws Exception {
+		if (directory == null) {
+			directory = File.createTempFile("tablebase", "");
+			directory.delete();
+			new TablebaseGenerator(directory, 2).generate("KQvK");
+			new TablebaseGenerator(directory, 2).generate("KRvK");
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					for (File file:directory.listFiles()) {
+						file.delete();
+					}
+					directory.delete();
+				}
+			});
+		}
+		return new Tablebase(directory);
+	}
+
+	@Test
+	/**
+	 * Tests a mate in two, being mated, stalemate and the smaller tables
+	 */
+	public void testProbe() throws Exception {
+		Tablebase tablebase = tablebase();
+		assertEquals(Search.MATE - 3, tablebase.probe(Fen.parse("7k/8/5K2/8/8/8/8/R7 w - - 0 1")));
+		assertEquals(-Search.MATE, tablebase.probe(Fen.parse("R6k/8/6K1/8/8/8/8/8 b - - 0 1")));
+		assertEquals("Stalemate", 0, tablebase.probe(Fen.parse("7k/8/6QK/8/8/8/8/8 b - - 0 1")));
+		assertEquals("Kings alone", 0, tablebase.probe(Fen.parse("7k/8/8/8/8/8/8/K7 w - - 0 1")));
+		assertTrue(new File(directory, "KvK" + Tablebase.EXTENSION).isFile());
+	}
+
+	@Test
+	/**
+	 * Tests that Black's tables are White's with the colours swapped,
+	 * and that the board may be mirrored
+	 */
+	public void testSymmetry() throws Exception {
+		Tablebase tablebase = tablebase();
+		int score = tablebase.probe(Fen.parse("8/8/8/3k4/8/8/2Q5/K7 w - - 0 1"));
+		assertTrue(score > Search.MATE_BOUND);
+		assertEquals(score, tablebase.probe(Fen.parse("k7/2q5/8/8/3K4/8/8/8 b - - 0 1")));
+		assertEquals(score, tablebase.probe(Fen.parse("7K/5Q2/8/8/4k3/8/8/8 w - - 0 1")));
+	}
+
+	@Test
+	/**
+	 * Tests that the table agrees with a full search
+	 */
+	public void testMatchesSearch() throws Exception {
+		Tablebase tablebase = tablebase();
+		String[] positions = {"7k/8/5K2/8/8/8/8/R7 w - - 0 1", "8/8/8/8/8/2k5/8/1Q2K3 w - - 0 1", "8/8/8/8/4k3/8/4K3/7R w - - 0 1", "6k1/8/5K2/8/8/8/8/1R6 b - - 0 1"};
+		for (String fen:positions) {
+			Board board = Fen.parse(fen);
+			int score = tablebase.probe(board);
+			if (Search.MATE - Math.abs(score) <= 7) {
+				assertEquals(fen, score, new Search().search(board, board.getSideToMove(), 7).getScore());
+			}
+			assertTrue(fen, Math.abs(score) > Search.MATE_BOUND);
+		}
+	}
+
+	@Test
+	/**
+	 * Tests positions no table covers
+	 */
+	public void testNotFound() throws Exception {
+		Tablebase tablebase = tablebase();
+		assertEquals(Tablebase.NOT_FOUND, tablebase.probe(Fen.parse(Perft.SUITE_POSITIONS[0])));
+		assertEquals(Tablebase.NOT_FOUND, tablebase.probe(Fen.parse("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")));
+		assertEquals("Castling right", Tablebase.NOT_FOUND, tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/4K2R w K - 0 1")));
+	}
+
+}
@@ -0,0 +1,100 @@
+package unitTests.test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import chessEngine.TranspositionTable;
+import chessLayout.Move;
+
+
+public class TranspositionTableTest {
+
+	TranspositionTable table = new TranspositionTable(1);
+	
+	@Test
+	/**
+	 * Tests that stored results can be read back
+	 * and unknown positions miss
+	 */
+	public void testStoreAndProbe() {
+		long key = 0x123456789ABCDEFL;
+		int move = Move.of(4,1,4,3);
+		table.store(key, move, -250, 7, TranspositionTable.BOUND_LOWER);
+		long data = table.probe(key);
+		assertEquals(move, TranspositionTable.getMove(data));
+		assertEquals(-250, TranspositionTable.getScore(data));
+		assertEquals(7, TranspositionTable.getDepth(data));
+		assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.getBound(data));
+		assertEquals("Unknown position; Should miss", 0L, table.probe(key + 1));
+		// Storing without a move keeps the known one
+		table.store(key, Move.NONE, 30, 8, TranspositionTable.BOUND_EXACT);
+		assertEquals(move, TranspositionTable.getMove(table.probe(key)));
+		table.clear();
+		assertEquals("Cleared; Should miss", 0L, table.probe(key));
+	}
+	
+	@Test
+	/**
+	 * Tests that the size follows the requested megabytes
+	 */
+	public void testCapacity() {
+		assertEquals(1024 * 1024 / 16, table.getCapacity());
+		assertEquals(16 * 1024 * 1024 / 16, new TranspositionTable(16).getCapacity());
+	}
+	
+	@Test
+	/**
+	 * Tests that deeper results survive in a full bucket
+	 */
+	public void testReplacement() {
+		int buckets = table.getCapacity() / 2;
+		long deep = 5, shallow = 5 + buckets, newer = 5 + 2L * buckets;
+		table.store(deep, Move.NONE, 1, 20, TranspositionTable.BOUND_EXACT);
+		table.store(shallow, Move.NONE, 2, 1, TranspositionTable.BOUND_EXACT);
+		table.store(newer, Move.NONE, 3, 5, TranspositionTable.BOUND_EXACT);
+		assertEquals(true, table.probe(deep) != 0);
+		assertEquals("Shallowest entry is replaced", 0L, table.probe(shallow));
+		assertEquals(true, table.probe(newer) != 0);
+	}
+	
+	@Test
+	/**
+	 * Tests that threads writing at once never make
+	 * a probe return data stored for another position
+	 */
+	public void testConcurrentAccess() throws InterruptedException {
+		final TranspositionTable shared = new TranspositionTable(1);
+		final boolean[] corrupt = new boolean[1];
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int seed = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					Random random = new Random(seed);
+					for (int i = 0; i < 200000; i++) {
+						// Few keys, so that threads keep hitting the same buckets
+						long key = random.nextInt(4096) * 0x9E3779B97F4A7C15L;
+						int score = (int) (key >>> 50);
+						if (random.nextBoolean()) {
+							shared.store(key, Move.NONE, score, random.nextInt(30), TranspositionTable.BOUND_EXACT);
+						} else {
+							long data = shared.probe(key);
+							if (data != 0 && TranspositionTable.getScore(data) != score) {
+								corrupt[0] = true;
+							}
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread:threads) {
+			thread.join();
+		}
+		assertEquals("Probe returned another position's data", false, corrupt[0]);
+	}
+
+}